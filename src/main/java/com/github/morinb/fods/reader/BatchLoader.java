@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Loads many documents concurrently.
+ * <p>
+ * At most {@code parallelism} documents are loaded at the same time: submitting more blocks the producer until a load
+ * completes. Loads run on virtual threads when the runtime provides them (Java 21+), on a fixed thread pool otherwise.
+ */
+public class BatchLoader implements AutoCloseable {
+    private static final String DOCUMENT_GLOB = "*.{fods,ods}";
+
+    private final OfficeDocumentReader reader;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+
+    /**
+     * Creates a loader with default load options and one slot per available processor.
+     */
+    public BatchLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a loader with default load options.
+     *
+     * @param parallelism maximum number of documents loaded at the same time.
+     */
+    public BatchLoader(int parallelism) {
+        this(OfficeDocumentReader.builder().build(), parallelism);
+    }
+
+    /**
+     * Creates a loader.
+     *
+     * @param reader      the reader holding the load options
+     * @param parallelism maximum number of documents loaded at the same time.
+     */
+    public BatchLoader(OfficeDocumentReader reader, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive : " + parallelism);
+        }
+        this.reader = reader;
+        this.permits = new Semaphore(parallelism);
+        final ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+        this.virtualThreads = virtualThreadExecutor != null;
+        this.executor = virtualThreads ? virtualThreadExecutor : Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "fods-batch-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submits a document load, waiting for a free slot first.
+     *
+     * @param path the fods or ods file path
+     * @return the loaded document, or the failure
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public CompletableFuture<OfficeDocument> submit(Path path) throws InterruptedException {
+        permits.acquire();
+        final CompletableFuture<OfficeDocument> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(reader.read(path));
+                } catch (Exception | LinkageError e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Submits the load of each path, in order.
+     *
+     * @param paths the fods or ods file paths
+     * @return one future per path, in the same order
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public List<CompletableFuture<OfficeDocument>> submitAll(Collection<Path> paths) throws InterruptedException {
+        final List<CompletableFuture<OfficeDocument>> results = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            results.add(submit(path));
+        }
+        return results;
+    }
+
+    /**
+     * Loads every {@code .fods} and {@code .ods} file of a directory, reporting each result through the callbacks.
+     * The directory is listed lazily, so the listing itself is throttled by the available slots.
+     *
+     * @param directory the directory to scan, not recursively
+     * @param onLoaded  called with each loaded document
+     * @param onFailed  called with each failure
+     * @return a future completed once every file has been reported
+     * @throws IOException          if the directory cannot be listed
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public CompletableFuture<Void> loadDirectory(Path directory,
+                                                 BiConsumer<Path, OfficeDocument> onLoaded,
+                                                 BiConsumer<Path, Throwable> onFailed)
+            throws IOException, InterruptedException {
+        final List<CompletableFuture<?>> reports = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, DOCUMENT_GLOB)) {
+            for (Path path : paths) {
+                reports.add(submit(path).handle((document, failure) -> {
+                    if (failure == null) {
+                        onLoaded.accept(path, document);
+                    } else {
+                        onFailed.accept(path, failure);
+                    }
+                    return null;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * @return true when loads run on virtual threads.
+     */
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Waits for the submitted loads to complete, then releases the threads.
+     * <p>
+     * When the calling thread is interrupted, the loads still running are interrupted in turn and waited for; the
+     * interrupt status is restored before returning.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                if (!interrupted) {
+                    executor.shutdownNow();
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // before Java 21, or preview not enabled
+            return null;
+        }
+    }
+}
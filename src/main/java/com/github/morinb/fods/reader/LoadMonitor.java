@@ -0,0 +1,149 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.exceptions.LoadCancelledException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Follows one document load: reports its progress, and cancels it on request.
+ * <p>
+ * The load checks the monitor before each row, so that it stops within one row of a {@link #cancel()} or of an
+ * interrupt of the loading thread, with a {@link LoadCancelledException}. The rows already read are released right
+ * away, temporary files included. Loads without a monitor are stopped by interrupts as well.
+ * <p>
+ * The progress is taken at the given interval, given to the listener on the loading thread, and available to any
+ * thread through {@link #getProgress()}. A monitor follows a single load.
+ */
+public final class LoadMonitor {
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+    private final Consumer<LoadProgress> listener;
+    private final long intervalNanos;
+    private volatile boolean cancelled;
+    private volatile LoadProgress progress;
+
+    private LongSupplier bytesRead = () -> 0;
+    private long totalBytes = -1;
+    private long startNanos;
+    private long nextProgressNanos;
+    private int tableCount;
+    private String tableName;
+    private long tableRows;
+    private long rows;
+
+    /**
+     * Creates a monitor taking the progress every second, without listener.
+     */
+    public LoadMonitor() {
+        this(null, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param listener called on the loading thread with the progress, and once more when the load completes
+     * @param interval the minimum delay between two progresses
+     */
+    public LoadMonitor(Consumer<LoadProgress> listener, Duration interval) {
+        if (interval.isNegative()) {
+            throw new IllegalArgumentException("interval must not be negative : " + interval);
+        }
+        this.listener = listener;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Stops the load at the next row. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return the last progress taken, empty before the load starts
+     */
+    public Optional<LoadProgress> getProgress() {
+        return Optional.ofNullable(this.progress);
+    }
+
+    /**
+     * @param bytesRead  the number of bytes read so far
+     * @param totalBytes the number of bytes to read, -1 when unknown
+     */
+    void start(LongSupplier bytesRead, long totalBytes) {
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.startNanos = System.nanoTime();
+        this.nextProgressNanos = startNanos;
+    }
+
+    /**
+     * @param tableCount the number of tables reached, the current one included
+     * @param tableName  the current table
+     * @param tableRows  the number of rows of the current table read so far
+     * @param rows       the number of rows of all the tables read so far
+     * @throws LoadCancelledException if the load is cancelled or the thread interrupted
+     */
+    void checkpoint(int tableCount, String tableName, long tableRows, long rows) {
+        if (cancelled) {
+            throw new LoadCancelledException("cancelled by its monitor");
+        }
+        checkInterrupted();
+        this.tableCount = tableCount;
+        this.tableName = tableName;
+        this.tableRows = tableRows;
+        this.rows = rows;
+        final long now = System.nanoTime();
+        if (now - nextProgressNanos >= 0) {
+            nextProgressNanos = now + intervalNanos;
+            report(now, false);
+        }
+    }
+
+    void done() {
+        report(System.nanoTime(), true);
+    }
+
+    /**
+     * @throws LoadCancelledException if the thread is interrupted, its interrupt status being kept
+     */
+    static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new LoadCancelledException("thread interrupted");
+        }
+    }
+
+    private void report(long now, boolean done) {
+        final LoadProgress loadProgress = new LoadProgress(bytesRead.getAsLong(), totalBytes, tableCount, tableName,
+                tableRows, rows, now - startNanos, done);
+        this.progress = loadProgress;
+        if (listener != null) {
+            listener.accept(loadProgress);
+        }
+    }
+
+    public String toString() {
+        return "LoadMonitor(cancelled=" + this.cancelled + ", progress=" + this.progress + ")";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Progress of a document load, given by a {@link LoadMonitor}.
+ * <p>
+ * Bytes are counted on the XML of the document, after decompression for a zipped ODS: the total is then the size of
+ * its {@code content.xml} entry, when the package records it.
+ */
+public final class LoadProgress {
+    private final long bytesRead;
+    private final long totalBytes;
+    private final int tableCount;
+    private final String tableName;
+    private final long tableRows;
+    private final long rows;
+    private final long elapsedNanos;
+    private final boolean done;
+
+    LoadProgress(long bytesRead, long totalBytes, int tableCount, String tableName, long tableRows, long rows,
+                 long elapsedNanos, boolean done) {
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.tableCount = tableCount;
+        this.tableName = tableName;
+        this.tableRows = tableRows;
+        this.rows = rows;
+        this.elapsedNanos = elapsedNanos;
+        this.done = done;
+    }
+
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * @return the number of bytes to read, empty when unknown, such as for a stream
+     */
+    public OptionalLong getTotalBytes() {
+        return totalBytes < 0 ? OptionalLong.empty() : OptionalLong.of(totalBytes);
+    }
+
+    /**
+     * @return the number of tables reached so far, the current one included
+     */
+    public int getTableCount() {
+        return this.tableCount;
+    }
+
+    /**
+     * @return the table being read, empty before the first table
+     */
+    public Optional<String> getTableName() {
+        return Optional.ofNullable(this.tableName);
+    }
+
+    /**
+     * @return the number of rows of the current table read so far, repeated rows included
+     */
+    public long getTableRows() {
+        return this.tableRows;
+    }
+
+    /**
+     * @return the number of rows of all the tables read so far, repeated rows included
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * @return true for the last progress of a load that completed
+     */
+    public boolean isDone() {
+        return this.done;
+    }
+
+    /**
+     * @return the time left, extrapolated from the bytes read so far, empty when the total is unknown
+     */
+    public Optional<Duration> getEstimatedRemaining() {
+        if (done) {
+            return Optional.of(Duration.ZERO);
+        }
+        if (totalBytes < 0 || bytesRead == 0) {
+            return Optional.empty();
+        }
+        final double remainingBytes = Math.max(0, totalBytes - bytesRead);
+        return Optional.of(Duration.ofNanos((long) (elapsedNanos * remainingBytes / bytesRead)));
+    }
+
+    public String toString() {
+        return "LoadProgress(bytesRead=" + this.bytesRead + ", totalBytes=" + this.totalBytes + ", tableCount="
+                + this.tableCount + ", tableName=" + this.tableName + ", tableRows=" + this.tableRows + ", rows="
+                + this.rows + ", elapsed=" + getElapsed() + ", done=" + this.done + ")";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Access to the parts of a zipped ODS package.
+ * <p>
+ * Entries are streamed straight from the archive, nothing is extracted to disk nor copied into memory.
+ */
+final class OdsPackage {
+    static final String CONTENT_ENTRY = "content.xml";
+    static final String META_ENTRY = "meta.xml";
+    static final String SETTINGS_ENTRY = "settings.xml";
+    static final String STYLES_ENTRY = "styles.xml";
+
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+
+    private OdsPackage() {
+        // utility class
+    }
+
+    /**
+     * Wraps the stream so that its first bytes can be inspected by {@link #isPackage(PushbackInputStream)}.
+     */
+    static PushbackInputStream sniffable(InputStream inputStream) {
+        return new PushbackInputStream(inputStream, ZIP_MAGIC.length);
+    }
+
+    /**
+     * Tells whether the stream starts with a zip local file header. The inspected bytes are pushed back.
+     */
+    static boolean isPackage(PushbackInputStream inputStream) throws IOException {
+        final byte[] header = new byte[ZIP_MAGIC.length];
+        int read = 0;
+        while (read < header.length) {
+            final int count = inputStream.read(header, read, header.length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        if (read > 0) {
+            inputStream.unread(header, 0, read);
+        }
+        return read == header.length && matchesMagic(header);
+    }
+
+    /**
+     * Tells whether the file starts with a zip local file header.
+     */
+    static boolean isPackage(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            final byte[] header = new byte[ZIP_MAGIC.length];
+            int read = 0;
+            while (read < header.length) {
+                final int count = inputStream.read(header, read, header.length - read);
+                if (count < 0) {
+                    return false;
+                }
+                read += count;
+            }
+            return matchesMagic(header);
+        }
+    }
+
+    /**
+     * @return a stream over the current entry of the zip stream which does not close the archive stream when closed.
+     */
+    static InputStream entryStream(ZipInputStream zipInputStream) {
+        return new FilterInputStream(zipInputStream) {
+            @Override
+            public void close() {
+                // the archive stream belongs to the caller
+            }
+        };
+    }
+
+    private static boolean matchesMagic(byte[] header) {
+        for (int index = 0; index < ZIP_MAGIC.length; index++) {
+            if (header[index] != ZIP_MAGIC[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,251 +16,92 @@
 
 package com.github.morinb.fods.reader;
 
-import com.github.morinb.fods.reader.content.*;
-import com.github.morinb.fods.reader.content.cell.Cell;
-import com.github.morinb.fods.reader.content.cell.EmptyCell;
-import com.github.morinb.fods.reader.content.cell.FormulaCell;
-import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.content.Body;
+import com.github.morinb.fods.reader.exceptions.InvalidDocumentException;
 import com.github.morinb.fods.reader.exceptions.Logger;
-import com.github.morinb.fods.reader.exceptions.TooManyBodyItemException;
-import com.github.morinb.fods.reader.exceptions.TooManySpreadsheetItemException;
-import com.github.morinb.fods.reader.exceptions.TooManyTextItemException;
 import com.github.morinb.fods.reader.meta.Metadata;
 import com.github.morinb.fods.reader.settings.Settings;
+import com.github.morinb.fods.reader.style.StyleRegistry;
 import org.slf4j.MDC;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * FODS Spreadsheet
  */
 public class OfficeDocument {
     private static final Logger LOGGER = new Logger();
+    private static final OfficeDocumentReader DEFAULT_READER = OfficeDocumentReader.builder().build();
     public static final String TABLE_NUMBER_COLUMNS_REPEATED = "table:number-columns-repeated";
 
     private Metadata metadata;
-    private Settings settings;
+    private volatile Settings settings;
+    private Supplier<Settings> settingsLoader;
+    private StyleRegistry styles;
     private Body body;
 
     /**
-     * Creates an OfficeDocument from a Flat ODS file input stream.
+     * Creates an OfficeDocument from a Flat ODS or a zipped ODS file input stream.
+     * <p>
+     * For zipped ODS, only the {@code content.xml} entry is parsed, directly from the archive stream.
+     * Use an {@link OfficeDocumentReader} to share load options and get read failures as exceptions.
      *
-     * @param inputStream the fods file inputstream.
+     * @param inputStream the fods or ods file inputstream.
      */
     public OfficeDocument(InputStream inputStream) {
-        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         try {
-            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-        } catch (IllegalArgumentException exception) {
-            LOGGER.warn(unused -> "", exception);
-        }
-        try {
-            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-        } catch (IllegalArgumentException exception) {
-            LOGGER.warn(unused -> "", exception);
-        }
-
-
-        try {
-            final DocumentBuilder builder = factory.newDocumentBuilder();
-            final Document document = builder.parse(inputStream);
-            final Element rootElement = document.getDocumentElement();
-            rootElement.normalize();
-
-            metadata = readMetadata(rootElement.getElementsByTagName("office:meta"));
-            settings = readSettings(rootElement.getElementsByTagName("office.settings"));
-            body = readBody(rootElement.getElementsByTagName("office:body"));
-
-
-        } catch (IllegalArgumentException | ParserConfigurationException | SAXException | IOException e) {
+            copy(DEFAULT_READER.read(inputStream));
+        } catch (IOException | InvalidDocumentException e) {
             MDC.put("UUID", "[" + UUID.randomUUID().toString() + "]");
-            LOGGER.error(unused -> MethodHandles.lookup().lookupClass().getSimpleName());
+            LOGGER.error(unused -> MethodHandles.lookup().lookupClass().getSimpleName(), e);
         }
     }
 
-
     /**
-     * Read the body part of fods file
+     * Creates an OfficeDocument from a Flat ODS or a zipped ODS file.
+     * <p>
+     * For zipped ODS, the {@code content.xml} entry is read with random access, the other entries are not inflated.
      *
-     * @param nodeList the office:body xml node
-     * @return the Body element
+     * @param path the fods or ods file path.
+     * @throws IOException if the file cannot be opened, or is a zip without {@code content.xml}.
      */
-    private Body readBody(NodeList nodeList) {
-        if (nodeList.getLength() != 1) {
-            throw new TooManyBodyItemException(nodeList.getLength());
-        }
-        final Node bodyNode = nodeList.item(0);
-
-        int nbBodyChildElements = 0;
-        final NodeList bodyChildNodes = bodyNode.getChildNodes();
-        CalculationSettings calculationSettings = new CalculationSettings(false, false, false);
-        final List<Table> tables = new ArrayList<>();
-        for (int bodyIndex = 0; bodyIndex < bodyChildNodes.getLength(); bodyIndex++) {
-            if (bodyChildNodes.item(bodyIndex).getNodeType() == Node.ELEMENT_NODE) {
-                nbBodyChildElements++;
-                if (nbBodyChildElements > 1) {
-                    throw new TooManySpreadsheetItemException(bodyNode.getChildNodes().getLength());
-                }
-
-                final Node spreadSheet = bodyChildNodes.item(bodyIndex);
-                final NodeList childrenNodes = spreadSheet.getChildNodes();
-
-                for (int index = 0; index < childrenNodes.getLength(); index++) {
-                    final Node item = childrenNodes.item(index);
-                    if (item.getNodeType() == Node.ELEMENT_NODE) {
-                        if (item.getNodeName().equals("table:calculation-settings")) {
-                            calculationSettings = readCalculationSettings(item);
-                        } else if (item.getNodeName().equals("table:table")) {
-                            tables.add(readTable(item));
-                        }
-                    }
-                }
-
-            }
-        }
-
-
-        final Spreadsheet spreadsheet = new Spreadsheet(calculationSettings, tables);
-
-
-        return new Body(spreadsheet);
-    }
-
-    private Table readTable(Node itemTable) {
-        String tableName = itemTable.getAttributes().getNamedItem("table:name").getNodeValue();
-        final NodeList childNodes = itemTable.getChildNodes();
-        int nbCol = 0;
-        List<List<Cell>> rows = new ArrayList<>();
-        for (int index = 0; index < childNodes.getLength(); index++) {
-            final Node item = childNodes.item(index);
-            if (item.getNodeType() == Node.ELEMENT_NODE) {
-                if (item.getNodeName().equals("table:table-column")) {
-                    final Node numberOfColumnsRepeated =
-                            item.getAttributes().getNamedItem(TABLE_NUMBER_COLUMNS_REPEATED);
-                    if (numberOfColumnsRepeated != null) {
-                        nbCol += Integer.parseInt(numberOfColumnsRepeated.getNodeValue());
-                    } else {
-                        nbCol++;
-                    }
-                } else if (item.getNodeName().equals("table:table-row")) {
-                    int nbRowRepeat = 1;
-                    final Node numberRowRepeatedNode = item.getAttributes().getNamedItem("table:number-rows-repeated");
-                    if (numberRowRepeatedNode != null) {
-                        nbRowRepeat = Integer.parseInt(numberRowRepeatedNode.getNodeValue());
-                    }
-                    for (int nbRowRepeatIndex = 0; nbRowRepeatIndex < nbRowRepeat; nbRowRepeatIndex++) {
-                        rows.add(readRow(item));
-                    }
-                } else {
-                    LOGGER.warn(unused -> "Unknown item '{}'", item.getNodeName());
-                }
-            }
-        }
-
-        return new Table(tableName, nbCol, rows);
-    }
-
-    private List<Cell> readRow(Node itemRow) {
-        final List<Cell> cells = new ArrayList<>();
-
-        final NodeList childNodes = itemRow.getChildNodes();
-
-        for (int index = 0; index < childNodes.getLength(); index++) {
-            final Node cellNode = childNodes.item(index);
-            if (cellNode.getNodeType() == Node.ELEMENT_NODE) {
-
-                if (!cellNode.hasChildNodes()) {
-                    if (cellNode.hasAttributes()) {
-                        final Node nbColumnsRepeated = cellNode.getAttributes().getNamedItem(
-                                TABLE_NUMBER_COLUMNS_REPEATED);
-                        if (nbColumnsRepeated != null) {
-                            int nbEmptyCells = Integer.parseInt(nbColumnsRepeated.getNodeValue());
-                            for (int i = 0; i < nbEmptyCells; i++) {
-                                cells.add(EmptyCell.EMPTY_CELL);
-                            }
-                        } else {
-                            cells.add(EmptyCell.EMPTY_CELL);
-                        }
-                    } else {
-                        cells.add(EmptyCell.EMPTY_CELL);
-                    }
-                } else {
-                    int nbRepeat = 1;
-                    if (cellNode.hasAttributes()) {
-                        final Node nbColumnsRepeated = cellNode.getAttributes().getNamedItem("table:number-columns" +
-                                "-repeated");
-                        if (nbColumnsRepeated != null) {
-                            nbRepeat = Integer.parseInt(nbColumnsRepeated.getNodeValue());
-                        }
-                    }
-
-                    final NodeList textNodeList = cellNode.getChildNodes();
-                    int nbTextNodes = 0;
-                    for (int textNodeIndex = 0; textNodeIndex < textNodeList.getLength(); textNodeIndex++) {
-                        final Node textNode = textNodeList.item(textNodeIndex);
-                        if (textNode.getNodeType() == Node.ELEMENT_NODE) {
-                            nbTextNodes++;
-                            if (nbTextNodes > 1) {
-                                throw new TooManyTextItemException(textNodeList.getLength());
-                            }
-                            final Node formulaAttribute = cellNode.getAttributes().getNamedItem("table:formula");
-                            String text = textNode.getFirstChild().getNodeValue();
-                            for (int repeat = 0; repeat < nbRepeat; repeat++) {
-                                if (formulaAttribute != null) {
-                                    ValueType valueType = ValueType.valueOf(cellNode.getAttributes()
-                                            .getNamedItem("office:value-type").getNodeValue().toUpperCase(Locale.ENGLISH));
-                                    String formula = formulaAttribute.getNodeValue();
-                                    cells.add(new FormulaCell(text, formula, valueType));
-                                } else {
-                                    cells.add(new TextCell(text));
-                                }
-                            }
-                        }
-
-                    }
-                }
-            }
+    public OfficeDocument(Path path) throws IOException {
+        try {
+            copy(DEFAULT_READER.read(path));
+        } catch (InvalidDocumentException e) {
+            MDC.put("UUID", "[" + UUID.randomUUID().toString() + "]");
+            LOGGER.error(unused -> MethodHandles.lookup().lookupClass().getSimpleName(), e);
         }
-
-        return cells;
     }
 
-    private CalculationSettings readCalculationSettings(Node itemCalculationSettings) {
-        boolean automaticFindLabel = Boolean.parseBoolean(itemCalculationSettings.getAttributes()
-                .getNamedItem("table:automatic-find-labels").getNodeValue());
-        boolean useRegularExpressions = Boolean.parseBoolean(itemCalculationSettings.getAttributes()
-                .getNamedItem("table:use-regular-expressions").getNodeValue());
-        boolean useWildcards = Boolean.parseBoolean(itemCalculationSettings.getAttributes()
-                .getNamedItem("table:use-wildcards").getNodeValue());
-
-        return new CalculationSettings(automaticFindLabel, useRegularExpressions, useWildcards);
+    OfficeDocument(Metadata metadata, Settings settings, StyleRegistry styles, Body body) {
+        this.metadata = metadata;
+        this.settings = settings;
+        this.styles = styles;
+        this.body = body;
     }
 
-    private Settings readSettings(NodeList nodeList) {
-        // TODO implement settings read
-
-        return new Settings();
+    /**
+     * @param settingsLoader parses the settings, called once on the first {@link #getSettings()}
+     */
+    OfficeDocument(Metadata metadata, Supplier<Settings> settingsLoader, StyleRegistry styles, Body body) {
+        this.metadata = metadata;
+        this.settingsLoader = settingsLoader;
+        this.styles = styles;
+        this.body = body;
     }
 
-    private Metadata readMetadata(NodeList nodeList) {
-        // TODO implement metadata
-
-        return new Metadata();
+    private void copy(OfficeDocument officeDocument) {
+        this.metadata = officeDocument.metadata;
+        this.settings = officeDocument.settings;
+        this.settingsLoader = officeDocument.settingsLoader;
+        this.styles = officeDocument.styles;
+        this.body = officeDocument.body;
     }
 
 
@@ -268,8 +109,33 @@ public class OfficeDocument {
         return this.metadata;
     }
 
+    /**
+     * Documents read from a file are loaded without their settings, which are parsed from the file on the first call.
+     *
+     * @return the settings
+     * @throws java.io.UncheckedIOException if the settings of a document read from a file cannot be read anymore
+     * @throws InvalidDocumentException     if the settings are not well-formed
+     */
     public Settings getSettings() {
-        return this.settings;
+        Settings loadedSettings = this.settings;
+        if (loadedSettings == null) {
+            synchronized (this) {
+                loadedSettings = this.settings;
+                if (loadedSettings == null) {
+                    loadedSettings = settingsLoader == null ? new Settings() : settingsLoader.get();
+                    this.settings = loadedSettings;
+                    this.settingsLoader = null;
+                }
+            }
+        }
+        return loadedSettings;
+    }
+
+    /**
+     * @return the cell, column and row styles, resolving the style ids of the tables
+     */
+    public StyleRegistry getStyles() {
+        return this.styles;
     }
 
     public Body getBody() {
@@ -0,0 +1,957 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.Body;
+import com.github.morinb.fods.reader.content.CalculationSettings;
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableHasher;
+import com.github.morinb.fods.reader.content.TableStatistics;
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.TextBuffer;
+import com.github.morinb.fods.reader.exceptions.LimitExceededException;
+import com.github.morinb.fods.reader.exceptions.Logger;
+import com.github.morinb.fods.reader.exceptions.TooManyBodyItemException;
+import com.github.morinb.fods.reader.exceptions.TooManySpreadsheetItemException;
+import com.github.morinb.fods.reader.exceptions.TooManyTextItemException;
+import com.github.morinb.fods.reader.meta.Metadata;
+import com.github.morinb.fods.reader.settings.ConfigItem;
+import com.github.morinb.fods.reader.settings.ConfigType;
+import com.github.morinb.fods.reader.settings.Settings;
+import com.github.morinb.fods.reader.style.ColumnStyles;
+import com.github.morinb.fods.reader.style.DataStyle;
+import com.github.morinb.fods.reader.style.Style;
+import com.github.morinb.fods.reader.style.StyleFamily;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single use StAX parser turning the XML events of a document into an {@link OfficeDocument}.
+ * <p>
+ * Works both for a flat {@code office:document} and for the {@code office:document-content} of a package.
+ */
+final class OfficeDocumentParser {
+    static final String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    static final String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+    static final String META_NS = "urn:oasis:names:tc:opendocument:xmlns:meta:1.0";
+    static final String DC_NS = "http://purl.org/dc/elements/1.1/";
+    static final String CONFIG_NS = "urn:oasis:names:tc:opendocument:xmlns:config:1.0";
+    static final String STYLE_NS = "urn:oasis:names:tc:opendocument:xmlns:style:1.0";
+    static final String NUMBER_NS = "urn:oasis:names:tc:opendocument:xmlns:datastyle:1.0";
+
+    /**
+     * Presizing from the document statistics is capped, the statistics being given by the document itself.
+     */
+    private static final int MAX_EXPECTED_TABLES = 1024;
+    private static final int MAX_EXPECTED_ROWS = 1 << 16;
+
+    private static final Logger LOGGER = new Logger();
+
+    private final OfficeDocumentReader options;
+    private final XMLStreamReader xml;
+    private Supplier<Settings> settingsLoader;
+    private boolean settingsDeferred;
+    private StyleRegistry styles = new StyleRegistry();
+    private final StringBuilder text = new StringBuilder();
+
+    private Metadata metadata;
+    private Settings settings = new Settings();
+    private Body body;
+    private int nbBody;
+    private final Map<String, String> namedRanges = new LinkedHashMap<>();
+    private final Map<String, String> tableNamedRanges = new LinkedHashMap<>();
+
+    private long tableColumns;
+    private ColumnStyles tableColumnStyles;
+    private TableStorage.Appender tableRows;
+    private TextBuffer tableTexts;
+    private RowPipeline tablePipeline;
+    private RowBatch rowBatch = new RowBatch();
+    private int tableRowCount;
+    private RowFilter tableRowFilter;
+    private long tableSourceRows;
+    private long materializedCells;
+    private ExecutorService rowDecoders;
+    private LoadMonitor monitor;
+    private Function<String, TableStorage.Appender> rowSink;
+    private final List<TableStorage.Appender> tableAppenders = new ArrayList<>();
+    private String tableName;
+    private long readRows;
+
+    OfficeDocumentParser(OfficeDocumentReader options, XMLStreamReader xml) {
+        this(options, xml, new Metadata());
+    }
+
+    /**
+     * @param metadata the metadata read beforehand, from the {@code meta.xml} entry of a package
+     */
+    OfficeDocumentParser(OfficeDocumentReader options, XMLStreamReader xml, Metadata metadata) {
+        this.options = options;
+        this.xml = xml;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Makes {@link #parse()} skip the settings, which the document loads on first access instead.
+     *
+     * @param settingsLoader parses the settings of the same document again, with {@link #parseSettings()}
+     */
+    OfficeDocumentParser deferSettings(Supplier<Settings> settingsLoader) {
+        this.settingsLoader = settingsLoader;
+        return this;
+    }
+
+    /**
+     * @param monitor checked before each row, null to only stop on interrupts
+     */
+    OfficeDocumentParser monitor(LoadMonitor monitor) {
+        this.monitor = monitor;
+        return this;
+    }
+
+    /**
+     * @param rowSink gives where the rows of a table go, by table name, instead of a storage kept in the document.
+     *                Null to keep the rows.
+     */
+    OfficeDocumentParser rowSink(Function<String, TableStorage.Appender> rowSink) {
+        this.rowSink = rowSink;
+        return this;
+    }
+
+    /**
+     * @param styles the registry to fill, already holding the styles of the {@code styles.xml} entry of a package
+     */
+    OfficeDocumentParser useStyles(StyleRegistry styles) {
+        this.styles = styles;
+        return this;
+    }
+
+    /**
+     * Reads the {@code office:styles} and {@code office:automatic-styles} elements of a {@code styles.xml} entry.
+     *
+     * @return the registry of {@link #useStyles(StyleRegistry)}, filled
+     */
+    StyleRegistry parseStyles() throws XMLStreamException {
+        if (!nextChild()) {
+            return styles;
+        }
+        while (nextChild()) {
+            if (is(OFFICE_NS, "styles") || is(OFFICE_NS, "automatic-styles")) {
+                readStyles();
+            } else {
+                skipElement();
+            }
+        }
+        return styles;
+    }
+
+    /**
+     * Reads the {@code office:settings} element and stops, the rest of the document is not parsed.
+     *
+     * @return the settings, empty when the body comes first
+     */
+    Settings parseSettings() throws XMLStreamException {
+        if (!nextChild()) {
+            return settings;
+        }
+        while (nextChild()) {
+            if (is(OFFICE_NS, "settings")) {
+                return readSettings();
+            } else if (is(OFFICE_NS, "body")) {
+                return settings;
+            }
+            skipElement();
+        }
+        return settings;
+    }
+
+    /**
+     * Reads the {@code office:meta} element and stops, the rest of the document is not parsed.
+     *
+     * @return the metadata, empty when the body comes first
+     */
+    Metadata parseMetadata() throws XMLStreamException {
+        if (!nextChild()) {
+            return metadata;
+        }
+        while (nextChild()) {
+            if (is(OFFICE_NS, "meta")) {
+                return readMetadata();
+            } else if (is(OFFICE_NS, "body")) {
+                return metadata;
+            }
+            skipElement();
+        }
+        return metadata;
+    }
+
+    OfficeDocument parse() throws XMLStreamException {
+        try {
+            return readDocument();
+        } catch (XMLStreamException | RuntimeException | Error e) {
+            discardTables();
+            throw e;
+        } finally {
+            if (rowDecoders != null) {
+                rowDecoders.shutdownNow();
+            }
+        }
+    }
+
+    private OfficeDocument readDocument() throws XMLStreamException {
+        if (!nextChild()) {
+            return new OfficeDocument(metadata, settings, styles, null);
+        }
+        while (nextChild()) {
+            if (is(OFFICE_NS, "meta")) {
+                metadata = readMetadata();
+            } else if (is(OFFICE_NS, "settings") && settingsLoader != null) {
+                settingsDeferred = true;
+                skipElement();
+            } else if (is(OFFICE_NS, "settings")) {
+                settings = readSettings();
+            } else if (is(OFFICE_NS, "styles") || is(OFFICE_NS, "automatic-styles")) {
+                readStyles();
+            } else if (is(OFFICE_NS, "body")) {
+                body = readBody();
+            } else {
+                skipElement();
+            }
+        }
+        return settingsDeferred ? new OfficeDocument(metadata, settingsLoader, styles, body)
+                : new OfficeDocument(metadata, settings, styles, body);
+    }
+
+    /**
+     * Read the body part of fods file
+     *
+     * @return the Body element
+     */
+    private Body readBody() throws XMLStreamException {
+        nbBody++;
+        if (nbBody > 1) {
+            throw new TooManyBodyItemException(nbBody);
+        }
+
+        int nbBodyChildElements = 0;
+        CalculationSettings calculationSettings = new CalculationSettings(false, false, false);
+        final List<Table> tables = new ArrayList<>(
+                (int) Math.max(0, Math.min(MAX_EXPECTED_TABLES, metadata.getTableCount().orElse(10))));
+        while (nextChild()) {
+            nbBodyChildElements++;
+            if (nbBodyChildElements > 1) {
+                throw new TooManySpreadsheetItemException(nbBodyChildElements);
+            }
+
+            while (nextChild()) {
+                if (is(TABLE_NS, "calculation-settings")) {
+                    calculationSettings = readCalculationSettings();
+                } else if (is(TABLE_NS, "table")) {
+                    tables.add(readTable());
+                } else if (is(TABLE_NS, "named-expressions")) {
+                    readNamedExpressions(namedRanges);
+                } else {
+                    skipElement();
+                }
+            }
+        }
+
+        final Spreadsheet spreadsheet = new Spreadsheet(calculationSettings, tables, namedRanges);
+
+        return new Body(spreadsheet);
+    }
+
+    /**
+     * Releases the rows read so far, the temporary files included, once the load failed or was cancelled.
+     */
+    private void discardTables() {
+        if (tablePipeline != null) {
+            tablePipeline.cancel();
+        }
+        tableAppenders.forEach(TableStorage.Appender::discard);
+        tableAppenders.clear();
+        tableRows = null;
+        tableTexts = null;
+        tablePipeline = null;
+        rowBatch = new RowBatch();
+    }
+
+    /**
+     * @throws com.github.morinb.fods.reader.exceptions.LoadCancelledException if the load is cancelled
+     */
+    private void checkpoint() {
+        if (monitor != null) {
+            monitor.checkpoint(tableAppenders.size(), tableName, tableSourceRows, readRows + tableSourceRows);
+        } else {
+            LoadMonitor.checkInterrupted();
+        }
+    }
+
+    private Table readTable() throws XMLStreamException {
+        tableName = xml.getAttributeValue(TABLE_NS, "name");
+        tableNamedRanges.clear();
+        tableColumns = 0;
+        tableColumnStyles = new ColumnStyles();
+        final TableStorage.Appender storageRows = rowSink != null ? rowSink.apply(tableName)
+                : options.newTableStorage(expectedRows());
+        final TableStatistics.Collector statistics = options.isCollectStatistics() && rowSink == null
+                ? TableStatistics.collecting(storageRows) : null;
+        final TableHasher.Collector hashedRows = TableHasher.collecting(statistics == null ? storageRows : statistics,
+                styles);
+        tableRows = hashedRows;
+        tableAppenders.add(tableRows);
+        tableTexts = new TextBuffer();
+        tablePipeline = options.getPipelineWorkers() > 0
+                ? new RowPipeline(rowDecoders(), tableRows, 2 * options.getPipelineWorkers()) : null;
+        tableRowCount = 0;
+        tableRowFilter = options.rowFilterOf(tableName);
+        tableSourceRows = 0;
+        checkpoint();
+        readTableChildren();
+        checkpoint();
+        flushRows();
+
+        final TableStorage storage = tablePipeline != null ? tablePipeline.build() : tableRows.build();
+        final Table table = new Table(tableName, tableColumns, storage, styles, tableColumnStyles,
+                statistics == null ? null : statistics.getStatistics(), new LinkedHashMap<>(tableNamedRanges),
+                hashedRows.getHash());
+        tableRows = null;
+        tableTexts = null;
+        tablePipeline = null;
+        readRows += tableSourceRows;
+        tableSourceRows = 0;
+        return table;
+    }
+
+    private ExecutorService rowDecoders() {
+        if (rowDecoders == null) {
+            rowDecoders = Executors.newFixedThreadPool(options.getPipelineWorkers(), runnable -> {
+                final Thread thread = new Thread(runnable, "fods-row-decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return rowDecoders;
+    }
+
+    /**
+     * Decodes the rows read so far, on the worker threads when pipelining, and adds them to the table.
+     */
+    private void flushRows() {
+        if (rowBatch.isEmpty()) {
+            return;
+        }
+        if (tablePipeline != null) {
+            tablePipeline.submit(rowBatch);
+            rowBatch = new RowBatch();
+        } else {
+            rowBatch.appendTo(tableRows, rowBatch.decode(tableTexts));
+            rowBatch.clear();
+        }
+    }
+
+    /**
+     * @return an upper bound of the number of rows of a table, as each row holds at least one of the cells counted by
+     * the document statistics, capped as the storage grows past it anyway. Zero when unknown.
+     */
+    private int expectedRows() {
+        final long cellCount = metadata.getCellCount().orElse(0);
+        final long tableCount = Math.max(1, metadata.getTableCount().orElse(1));
+        return (int) Math.max(0, Math.min(Math.min(options.getMaxRows(), MAX_EXPECTED_ROWS), cellCount / tableCount));
+    }
+
+    private void readTableChildren() throws XMLStreamException {
+        while (nextChild()) {
+            if (!TABLE_NS.equals(xml.getNamespaceURI())) {
+                warnUnknownItem();
+                continue;
+            }
+            switch (xml.getLocalName()) {
+                case "table-column":
+                    final long previousColumns = tableColumns;
+                    tableColumns += intAttribute(TABLE_NS, "number-columns-repeated");
+                    if (tableColumns > options.getMaxColumns()) {
+                        if (!options.isClampEmptyRepeats()) {
+                            throw new LimitExceededException("columns", options.getMaxColumns());
+                        }
+                        tableColumns = options.getMaxColumns();
+                    }
+                    tableColumnStyles.add(tableColumns - previousColumns,
+                            styles.idOf(StyleFamily.TABLE_COLUMN, xml.getAttributeValue(TABLE_NS, "style-name")),
+                            styles.idOf(StyleFamily.TABLE_CELL,
+                                    xml.getAttributeValue(TABLE_NS, "default-cell-style-name")));
+                    skipElement();
+                    break;
+                case "table-row":
+                    checkpoint();
+                    final int rowRepeat = intAttribute(TABLE_NS, "number-rows-repeated");
+                    final long rowNumber = tableSourceRows + 1;
+                    tableSourceRows += rowRepeat;
+                    readRow(styles.idOf(StyleFamily.TABLE_ROW, xml.getAttributeValue(TABLE_NS, "style-name")),
+                            styles.idOf(StyleFamily.TABLE_CELL,
+                                    xml.getAttributeValue(TABLE_NS, "default-cell-style-name")));
+                    if (tableRowFilter != null && !tableRowFilter.test(rowBatch, rowNumber)) {
+                        rowBatch.discardRow();
+                        break;
+                    }
+                    final int nbRowRepeat = limitRowRepeat(rowRepeat);
+                    materializedCells += (long) rowBatch.getRowSize() * nbRowRepeat;
+                    tableRowCount += nbRowRepeat;
+                    rowBatch.endRow(nbRowRepeat);
+                    if (rowBatch.isFull()) {
+                        flushRows();
+                    }
+                    break;
+                case "named-expressions":
+                    readNamedExpressions(tableNamedRanges);
+                    break;
+                case "table-columns":
+                case "table-header-columns":
+                case "table-column-group":
+                case "table-rows":
+                case "table-header-rows":
+                case "table-row-group":
+                    readTableChildren();
+                    break;
+                default:
+                    warnUnknownItem();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Reads the cells of a row into {@link #rowBatch}, leaving the row open for its repeat.
+     *
+     * @param rowStyleId         the style id of the row
+     * @param defaultCellStyleId the style id of the cells of the row having no style
+     */
+    private void readRow(int rowStyleId, int defaultCellStyleId) throws XMLStreamException {
+        rowBatch.startRow(rowStyleId);
+        while (nextChild()) {
+            if (is(TABLE_NS, "table-cell") || is(TABLE_NS, "covered-table-cell")) {
+                readCell(defaultCellStyleId);
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    private void readCell(int defaultCellStyleId) throws XMLStreamException {
+        final int nbRepeat = intAttribute(TABLE_NS, "number-columns-repeated");
+        final String styleName = xml.getAttributeValue(TABLE_NS, "style-name");
+        final int styleId = styleName == null ? defaultCellStyleId
+                : styles.idOf(StyleFamily.TABLE_CELL, styleName);
+        final String formula = xml.getAttributeValue(TABLE_NS, "formula");
+        final String valueType = xml.getAttributeValue(OFFICE_NS, "value-type");
+        final String value = xml.getAttributeValue(OFFICE_NS, "value");
+        final String booleanValue = xml.getAttributeValue(OFFICE_NS, "boolean-value");
+
+        int nbTextNodes = 0;
+        text.setLength(0);
+        while (nextChild()) {
+            if (is(TEXT_NS, "p")) {
+                nbTextNodes++;
+                if (nbTextNodes > 1) {
+                    throw new TooManyTextItemException(nbTextNodes);
+                }
+                readText();
+            } else {
+                // annotations, drawings...
+                skipElement();
+            }
+        }
+
+        final boolean emptyCell = nbTextNodes == 0;
+        final int nbCellRepeat = limitCellRepeat(emptyCell, nbRepeat);
+        rowBatch.addCell(nbCellRepeat, styleId, formula, valueType, value, booleanValue, emptyCell ? null : text);
+    }
+
+    /**
+     * @return the number of times the current row can be added without going over the rows and cells limits.
+     */
+    private int limitRowRepeat(int nbRepeat) {
+        final int rowSize = rowBatch.getRowSize();
+        final long rowRoom = (long) options.getMaxRows() - tableRowCount;
+        final long cellRoom = rowSize == 0 ? Long.MAX_VALUE : (options.getMaxCells() - materializedCells) / rowSize;
+        if (nbRepeat <= rowRoom && nbRepeat <= cellRoom) {
+            return nbRepeat;
+        }
+        if (options.isClampEmptyRepeats() && rowBatch.isRowEmpty()) {
+            return (int) Math.max(0, Math.min(rowRoom, cellRoom));
+        }
+        if (nbRepeat > rowRoom) {
+            throw new LimitExceededException("rows", options.getMaxRows());
+        }
+        throw new LimitExceededException("cells", options.getMaxCells());
+    }
+
+    /**
+     * @return the number of times the cell can be added to the current row without going over the columns and cells
+     * limits.
+     */
+    private int limitCellRepeat(boolean emptyCell, int nbRepeat) {
+        final int rowSize = rowBatch.getRowSize();
+        final long columnRoom = (long) options.getMaxColumns() - rowSize;
+        final long cellRoom = options.getMaxCells() - materializedCells - rowSize;
+        if (nbRepeat <= columnRoom && nbRepeat <= cellRoom) {
+            return nbRepeat;
+        }
+        if (options.isClampEmptyRepeats() && emptyCell) {
+            return (int) Math.max(0, Math.min(columnRoom, cellRoom));
+        }
+        if (nbRepeat > columnRoom) {
+            throw new LimitExceededException("columns", options.getMaxColumns());
+        }
+        throw new LimitExceededException("cells", options.getMaxCells());
+    }
+
+    /**
+     * Appends the text of the current {@code text:p} to {@link #text}, including the text of its spans.
+     */
+    private void readText() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                    checkTextLength();
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    if (TEXT_NS.equals(xml.getNamespaceURI())) {
+                        switch (xml.getLocalName()) {
+                            case "s":
+                                for (int index = intAttribute(TEXT_NS, "c"); index > 0; index--) {
+                                    text.append(' ');
+                                    checkTextLength();
+                                }
+                                break;
+                            case "tab":
+                                text.append('\t');
+                                checkTextLength();
+                                break;
+                            case "line-break":
+                                text.append('\n');
+                                checkTextLength();
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void checkTextLength() {
+        if (text.length() > options.getMaxTextLength()) {
+            throw new LimitExceededException("text length", options.getMaxTextLength());
+        }
+    }
+
+    /**
+     * The first declaration of a name wins.
+     */
+    private void readNamedExpressions(Map<String, String> target) throws XMLStreamException {
+        while (nextChild()) {
+            if (is(TABLE_NS, "named-range")) {
+                final String name = xml.getAttributeValue(TABLE_NS, "name");
+                final String address = xml.getAttributeValue(TABLE_NS, "cell-range-address");
+                if (name != null && address != null) {
+                    target.putIfAbsent(name, address);
+                }
+            }
+            skipElement();
+        }
+    }
+
+    private CalculationSettings readCalculationSettings() throws XMLStreamException {
+        boolean automaticFindLabel = Boolean.parseBoolean(
+                xml.getAttributeValue(TABLE_NS, "automatic-find-labels"));
+        boolean useRegularExpressions = Boolean.parseBoolean(
+                xml.getAttributeValue(TABLE_NS, "use-regular-expressions"));
+        boolean useWildcards = Boolean.parseBoolean(xml.getAttributeValue(TABLE_NS, "use-wildcards"));
+        skipElement();
+
+        return new CalculationSettings(automaticFindLabel, useRegularExpressions, useWildcards);
+    }
+
+    /**
+     * Reads the table styles and the data styles of {@code office:styles} or {@code office:automatic-styles}.
+     */
+    private void readStyles() throws XMLStreamException {
+        while (nextChild()) {
+            if (is(STYLE_NS, "style") || is(STYLE_NS, "default-style")) {
+                final boolean defaultStyle = is(STYLE_NS, "default-style");
+                final Style style = readStyle();
+                if (style != null && defaultStyle) {
+                    styles.defineDefault(style);
+                } else if (style != null) {
+                    styles.define(style);
+                }
+            } else if (NUMBER_NS.equals(xml.getNamespaceURI()) && xml.getLocalName().endsWith("-style")) {
+                styles.defineDataStyle(readDataStyle());
+            } else {
+                skipElement();
+            }
+        }
+    }
+
+    /**
+     * @return the style, null when it is not a table style
+     */
+    private Style readStyle() throws XMLStreamException {
+        final StyleFamily family = StyleFamily.fromValue(xml.getAttributeValue(STYLE_NS, "family"));
+        if (family == StyleFamily.OTHER) {
+            skipElement();
+            return null;
+        }
+        final String name = xml.getAttributeValue(STYLE_NS, "name");
+        final String parentStyleName = xml.getAttributeValue(STYLE_NS, "parent-style-name");
+        final String dataStyleName = xml.getAttributeValue(STYLE_NS, "data-style-name");
+        final Map<String, String> properties = new HashMap<>();
+        while (nextChild()) {
+            if (STYLE_NS.equals(xml.getNamespaceURI()) && xml.getLocalName().endsWith("-properties")) {
+                for (int index = 0; index < xml.getAttributeCount(); index++) {
+                    final String prefix = xml.getAttributePrefix(index);
+                    final String localName = xml.getAttributeLocalName(index);
+                    properties.put(styles.intern(prefix == null || prefix.isEmpty() ? localName
+                            : prefix + ":" + localName), styles.intern(xml.getAttributeValue(index)));
+                }
+            }
+            skipElement();
+        }
+        return new Style(name, family, parentStyleName, dataStyleName, properties, null);
+    }
+
+    /**
+     * Reads a {@code number:*-style} element, turning its parts into a format code.
+     */
+    private DataStyle readDataStyle() throws XMLStreamException {
+        final String kind = xml.getLocalName();
+        final String name = xml.getAttributeValue(STYLE_NS, "name");
+        final StringBuilder formatCode = new StringBuilder();
+        int decimalPlaces = -1;
+        while (nextChild()) {
+            if (!NUMBER_NS.equals(xml.getNamespaceURI())) {
+                // style:map, style:text-properties
+                skipElement();
+                continue;
+            }
+            final boolean longStyle = "long".equals(xml.getAttributeValue(NUMBER_NS, "style"));
+            switch (xml.getLocalName()) {
+                case "number":
+                case "scientific-number":
+                    decimalPlaces = numberAttribute("decimal-places", 0);
+                    formatCode.append(numberFormat(numberAttribute("min-integer-digits", 1),
+                            "true".equals(xml.getAttributeValue(NUMBER_NS, "grouping")), decimalPlaces));
+                    if (is(NUMBER_NS, "scientific-number")) {
+                        formatCode.append("E+").append(repeat('0', numberAttribute("min-exponent-digits", 2)));
+                    }
+                    skipElement();
+                    break;
+                case "fraction":
+                    formatCode.append("# ").append(repeat('?', numberAttribute("min-numerator-digits", 1)))
+                            .append('/').append(repeat('?', numberAttribute("min-denominator-digits", 1)));
+                    skipElement();
+                    break;
+                case "text":
+                    formatCode.append(literal(readElementText()));
+                    break;
+                case "currency-symbol":
+                    formatCode.append(readElementText());
+                    break;
+                case "year":
+                    formatCode.append(longStyle ? "YYYY" : "YY");
+                    skipElement();
+                    break;
+                case "month":
+                    final boolean textual = "true".equals(xml.getAttributeValue(NUMBER_NS, "textual"));
+                    formatCode.append(textual ? (longStyle ? "MMMM" : "MMM") : (longStyle ? "MM" : "M"));
+                    skipElement();
+                    break;
+                case "day":
+                    formatCode.append(longStyle ? "DD" : "D");
+                    skipElement();
+                    break;
+                case "day-of-week":
+                    formatCode.append(longStyle ? "NNNN" : "NN");
+                    skipElement();
+                    break;
+                case "hours":
+                    formatCode.append(longStyle ? "HH" : "H");
+                    skipElement();
+                    break;
+                case "minutes":
+                    formatCode.append(longStyle ? "MM" : "M");
+                    skipElement();
+                    break;
+                case "seconds":
+                    formatCode.append(longStyle ? "SS" : "S");
+                    final int secondDecimals = numberAttribute("decimal-places", 0);
+                    if (secondDecimals > 0) {
+                        formatCode.append('.').append(repeat('0', secondDecimals));
+                    }
+                    skipElement();
+                    break;
+                case "am-pm":
+                    formatCode.append("AM/PM");
+                    skipElement();
+                    break;
+                case "boolean":
+                    formatCode.append("BOOLEAN");
+                    skipElement();
+                    break;
+                case "text-content":
+                    formatCode.append('@');
+                    skipElement();
+                    break;
+                default:
+                    skipElement();
+                    break;
+            }
+        }
+        return new DataStyle(name, kind, formatCode.toString(), decimalPlaces);
+    }
+
+    private int numberAttribute(String localName, int defaultValue) {
+        final String value = xml.getAttributeValue(NUMBER_NS, localName);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static String numberFormat(int minIntegerDigits, boolean grouping, int decimalPlaces) {
+        final StringBuilder format = new StringBuilder();
+        if (grouping) {
+            format.append(minIntegerDigits >= 4 ? "" : repeat('#', 4 - Math.max(1, minIntegerDigits)));
+        }
+        format.append(repeat('0', Math.max(1, minIntegerDigits)));
+        if (grouping) {
+            format.insert(format.length() - 3, ',');
+        }
+        if (decimalPlaces > 0) {
+            format.append('.').append(repeat('0', decimalPlaces));
+        }
+        return format.toString();
+    }
+
+    /**
+     * @return the text, quoted unless it is only made of separators
+     */
+    private static String literal(String value) {
+        for (int index = 0; index < value.length(); index++) {
+            if (" -/:.,()%".indexOf(value.charAt(index)) < 0) {
+                return '"' + value + '"';
+            }
+        }
+        return value;
+    }
+
+    private static String repeat(char character, int count) {
+        final char[] characters = new char[Math.max(0, Math.min(count, 64))];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+
+    private Settings readSettings() throws XMLStreamException {
+        final Settings readSettings = new Settings();
+        while (nextChild()) {
+            if (is(CONFIG_NS, "config-item-set")) {
+                readSettings.addItemSet(xml.getAttributeValue(CONFIG_NS, "name"), readConfigItems());
+            } else {
+                skipElement();
+            }
+        }
+        return readSettings;
+    }
+
+    /**
+     * @return the items of the current set or map entry, by name
+     */
+    private HashMap<String, ConfigItem> readConfigItems() throws XMLStreamException {
+        final HashMap<String, ConfigItem> items = new HashMap<>();
+        while (nextChild()) {
+            if (!CONFIG_NS.equals(xml.getNamespaceURI())) {
+                skipElement();
+                continue;
+            }
+            final String name = xml.getAttributeValue(CONFIG_NS, "name");
+            switch (xml.getLocalName()) {
+                case "config-item":
+                    final ConfigType type = ConfigType.fromValue(xml.getAttributeValue(CONFIG_NS, "type"));
+                    items.put(name, new ConfigItem(name, type, type.parse(readElementText())));
+                    break;
+                case "config-item-set":
+                case "config-item-map-named":
+                case "config-item-map-entry":
+                    items.put(name, new ConfigItem(name, null, readConfigItems()));
+                    break;
+                case "config-item-map-indexed":
+                    final List<Map<String, ConfigItem>> entries = new ArrayList<>();
+                    while (nextChild()) {
+                        if (is(CONFIG_NS, "config-item-map-entry")) {
+                            entries.add(readConfigItems());
+                        } else {
+                            skipElement();
+                        }
+                    }
+                    items.put(name, new ConfigItem(name, null, entries));
+                    break;
+                default:
+                    skipElement();
+                    break;
+            }
+        }
+        return items;
+    }
+
+    private Metadata readMetadata() throws XMLStreamException {
+        final Metadata readMetadata = new Metadata();
+        while (nextChild()) {
+            if (is(META_NS, "document-statistic")) {
+                for (int index = 0; index < xml.getAttributeCount(); index++) {
+                    if (META_NS.equals(xml.getAttributeNamespace(index))) {
+                        readMetadata.put("meta:" + xml.getAttributeLocalName(index),
+                                Long.parseLong(xml.getAttributeValue(index).trim()));
+                    }
+                }
+                skipElement();
+            } else if (is(META_NS, "user-defined")) {
+                final String name = xml.getAttributeValue(META_NS, "name");
+                final String value = readElementText();
+                if (name != null) {
+                    readMetadata.put(name, value);
+                }
+            } else {
+                readMetadata.put(qualifiedName(), readElementText());
+            }
+        }
+        return readMetadata;
+    }
+
+    private String qualifiedName() {
+        if (META_NS.equals(xml.getNamespaceURI())) {
+            return "meta:" + xml.getLocalName();
+        }
+        if (DC_NS.equals(xml.getNamespaceURI())) {
+            return "dc:" + xml.getLocalName();
+        }
+        final String prefix = xml.getPrefix();
+        return prefix == null || prefix.isEmpty() ? xml.getLocalName() : prefix + ":" + xml.getLocalName();
+    }
+
+    /**
+     * @return the text of the current element and of its descendants
+     */
+    private String readElementText() throws XMLStreamException {
+        final StringBuilder elementText = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            final int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                elementText.append(xml.getText());
+            }
+        }
+        return elementText.toString();
+    }
+
+    private void warnUnknownItem() throws XMLStreamException {
+        final String itemName = xml.getPrefix() + ":" + xml.getLocalName();
+        LOGGER.warn(unused -> "Unknown item '{}'", itemName);
+        skipElement();
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return false when the end of the current element is reached instead
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (xml.hasNext()) {
+            final int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the end of the current element, ignoring its content.
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private boolean is(String namespace, String localName) {
+        return localName.equals(xml.getLocalName()) && namespace.equals(xml.getNamespaceURI());
+    }
+
+    /**
+     * @return the value of a repeat count attribute, 1 when absent.
+     * @throws XMLStreamException if the count is not positive
+     */
+    private int intAttribute(String namespace, String localName) throws XMLStreamException {
+        final String value = xml.getAttributeValue(namespace, localName);
+        if (value == null) {
+            return 1;
+        }
+        final int count = Integer.parseInt(value);
+        if (count < 1) {
+            throw new XMLStreamException("Repeat count " + localName + " must be positive : " + count,
+                    xml.getLocation());
+        }
+        return count;
+    }
+}
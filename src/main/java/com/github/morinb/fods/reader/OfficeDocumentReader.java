@@ -0,0 +1,641 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.exceptions.InvalidDocumentException;
+import com.github.morinb.fods.reader.exceptions.LimitExceededException;
+import com.github.morinb.fods.reader.exceptions.LoadCancelledException;
+import com.github.morinb.fods.reader.meta.Metadata;
+import com.github.morinb.fods.reader.settings.Settings;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads Flat ODS and zipped ODS documents.
+ * <p>
+ * A reader is immutable and thread-safe: create it once with the load options and share it. The XML parser factories
+ * are created once, and each thread reuses its own parser instance from one document to the next.
+ * <p>
+ * Limits protect against documents whose repeat counts expand into huge tables: loading fails with a
+ * {@link LimitExceededException} as soon as one is reached. All limits are unbounded by default.
+ */
+public final class OfficeDocumentReader {
+    private final boolean reuseParsers;
+    private final int maxRows;
+    private final int maxColumns;
+    private final long maxCells;
+    private final long maxInputBytes;
+    private final int maxTextLength;
+    private final boolean clampEmptyRepeats;
+    private final long tableHeapBudget;
+    private final int spillCachedBlocks;
+    private final Path spillDirectory;
+    private final int pipelineWorkers;
+    private final RowFilter rowFilter;
+    private final Map<String, RowFilter> tableRowFilters;
+    private final boolean collectStatistics;
+
+    private final XmlParserPool parserPool;
+
+    private OfficeDocumentReader(OfficeDocumentReaderBuilder builder) {
+        this.reuseParsers = builder.reuseParsers;
+        this.maxRows = builder.maxRows;
+        this.maxColumns = builder.maxColumns;
+        this.maxCells = builder.maxCells;
+        this.maxInputBytes = builder.maxInputBytes;
+        this.maxTextLength = builder.maxTextLength;
+        this.clampEmptyRepeats = builder.clampEmptyRepeats;
+        this.tableHeapBudget = builder.tableHeapBudget;
+        this.spillCachedBlocks = builder.spillCachedBlocks;
+        this.spillDirectory = builder.spillDirectory;
+        this.pipelineWorkers = builder.pipelineWorkers;
+        this.rowFilter = builder.rowFilter;
+        this.tableRowFilters = new HashMap<>(builder.tableRowFilters);
+        this.collectStatistics = builder.collectStatistics;
+        this.parserPool = new XmlParserPool(reuseParsers);
+    }
+
+    public static OfficeDocumentReaderBuilder builder() {
+        return new OfficeDocumentReaderBuilder();
+    }
+
+    /**
+     * Reads a document from a Flat ODS or a zipped ODS input stream. The stream is not closed.
+     * <p>
+     * The document statistics of the metadata are used to size the tables upfront. For zipped ODS, they are only
+     * available when the {@code meta.xml} entry comes before {@code content.xml}. As a stream cannot be read again,
+     * the settings are parsed with the rest of the document.
+     *
+     * @param inputStream the fods or ods file inputstream.
+     * @return the document
+     * @throws IOException              if the stream cannot be read, or is a zip without {@code content.xml}
+     * @throws InvalidDocumentException if the content is not well-formed
+     * @throws LimitExceededException   if the document exceeds one of the limits
+     * @throws LoadCancelledException   if the thread is interrupted
+     */
+    public OfficeDocument read(InputStream inputStream) throws IOException {
+        return read(inputStream, null);
+    }
+
+    /**
+     * Reads a document from a Flat ODS or a zipped ODS input stream, as {@link #read(InputStream)} does, reporting
+     * the progress to the monitor. The stream is not closed.
+     *
+     * @param inputStream the fods or ods file inputstream.
+     * @param monitor     reports the progress and cancels the load, null to only stop on interrupts
+     * @return the document
+     * @throws IOException              if the stream cannot be read, or is a zip without {@code content.xml}
+     * @throws InvalidDocumentException if the content is not well-formed
+     * @throws LimitExceededException   if the document exceeds one of the limits
+     * @throws LoadCancelledException   if the load is cancelled or the thread interrupted
+     */
+    public OfficeDocument read(InputStream inputStream, LoadMonitor monitor) throws IOException {
+        LoadMonitor.checkInterrupted();
+        try {
+            return load(inputStream, monitor);
+        } catch (ClosedByInterruptException | InterruptedIOException e) {
+            throw new LoadCancelledException("thread interrupted", e);
+        }
+    }
+
+    private OfficeDocument load(InputStream inputStream, LoadMonitor monitor) throws IOException {
+        final PushbackInputStream sniffableStream = OdsPackage.sniffable(inputStream);
+        if (!OdsPackage.isPackage(sniffableStream)) {
+            return parse(sniffableStream, new Metadata(), new StyleRegistry(), null, monitor, -1, null);
+        }
+        final ZipInputStream zipInputStream = new ZipInputStream(sniffableStream);
+        final StyleRegistry styles = new StyleRegistry();
+        Metadata metadata = null;
+        Settings settings = null;
+        boolean stylesRead = false;
+        OfficeDocument document = null;
+        ZipEntry entry;
+        while ((document == null || metadata == null || settings == null || !stylesRead)
+                && (entry = zipInputStream.getNextEntry()) != null) {
+            if (entry.getName().equals(OdsPackage.META_ENTRY)) {
+                metadata = parseMetadata(OdsPackage.entryStream(zipInputStream));
+            } else if (entry.getName().equals(OdsPackage.SETTINGS_ENTRY)) {
+                settings = parseSettings(OdsPackage.entryStream(zipInputStream));
+            } else if (entry.getName().equals(OdsPackage.STYLES_ENTRY)) {
+                parseStyles(OdsPackage.entryStream(zipInputStream), styles);
+                stylesRead = true;
+            } else if (entry.getName().equals(OdsPackage.CONTENT_ENTRY)) {
+                document = parse(OdsPackage.entryStream(zipInputStream),
+                        metadata == null ? new Metadata() : metadata, styles, null, monitor, entry.getSize(), null);
+            }
+        }
+        if (document == null) {
+            throw new ZipException("Missing package entry '" + OdsPackage.CONTENT_ENTRY + "'");
+        }
+        return new OfficeDocument(metadata == null ? new Metadata() : metadata,
+                settings == null ? new Settings() : settings, styles, document.getBody());
+    }
+
+    /**
+     * Reads a document from a Flat ODS or a zipped ODS file. For zipped ODS, the {@code meta.xml},
+     * {@code styles.xml} and {@code content.xml} entries are read with random access, the other entries are not
+     * inflated.
+     * <p>
+     * The settings are skipped, and parsed from the file on the first {@link OfficeDocument#getSettings()}.
+     *
+     * @param path the fods or ods file path.
+     * @return the document
+     * @throws IOException              if the file cannot be read, or is a zip without {@code content.xml}
+     * @throws InvalidDocumentException if the content is not well-formed
+     * @throws LimitExceededException   if the document exceeds one of the limits
+     * @throws LoadCancelledException   if the thread is interrupted
+     */
+    public OfficeDocument read(Path path) throws IOException {
+        return read(path, null);
+    }
+
+    /**
+     * Reads a document from a Flat ODS or a zipped ODS file, as {@link #read(Path)} does, reporting the progress to
+     * the monitor.
+     *
+     * @param path    the fods or ods file path.
+     * @param monitor reports the progress and cancels the load, null to only stop on interrupts
+     * @return the document
+     * @throws IOException              if the file cannot be read, or is a zip without {@code content.xml}
+     * @throws InvalidDocumentException if the content is not well-formed
+     * @throws LimitExceededException   if the document exceeds one of the limits
+     * @throws LoadCancelledException   if the load is cancelled or the thread interrupted
+     */
+    public OfficeDocument read(Path path, LoadMonitor monitor) throws IOException {
+        return read(path, monitor, null);
+    }
+
+    /**
+     * Publishes the rows of every table of a Flat ODS or a zipped ODS file, read as the subscriber requests them.
+     *
+     * @param path the fods or ods file path, read again for each subscriber
+     * @return the publisher of the rows
+     */
+    public RowPublisher publish(Path path) {
+        return new RowPublisher(this, path, null);
+    }
+
+    /**
+     * Publishes the rows of a table of a Flat ODS or a zipped ODS file, read as the subscriber requests them.
+     *
+     * @param path      the fods or ods file path, read again for each subscriber
+     * @param tableName the table whose rows are published, the other tables being skipped
+     * @return the publisher of the rows
+     */
+    public RowPublisher publish(Path path, String tableName) {
+        return new RowPublisher(this, path, tableName);
+    }
+
+    /**
+     * @param rowSink where the rows of each table go instead of the table storage, by table name, null to keep them
+     */
+    OfficeDocument read(Path path, LoadMonitor monitor, Function<String, TableStorage.Appender> rowSink)
+            throws IOException {
+        LoadMonitor.checkInterrupted();
+        try {
+            return load(path, monitor, rowSink);
+        } catch (ClosedByInterruptException | InterruptedIOException e) {
+            throw new LoadCancelledException("thread interrupted", e);
+        }
+    }
+
+    private OfficeDocument load(Path path, LoadMonitor monitor, Function<String, TableStorage.Appender> rowSink)
+            throws IOException {
+        final Supplier<Settings> settingsLoader = () -> loadSettings(path);
+        if (OdsPackage.isPackage(path)) {
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                final ZipEntry contentEntry = zipFile.getEntry(OdsPackage.CONTENT_ENTRY);
+                if (contentEntry == null) {
+                    throw new ZipException("Missing package entry '" + OdsPackage.CONTENT_ENTRY + "'");
+                }
+                final Metadata metadata = readMetadata(zipFile);
+                final StyleRegistry styles = new StyleRegistry();
+                final ZipEntry stylesEntry = zipFile.getEntry(OdsPackage.STYLES_ENTRY);
+                if (stylesEntry != null) {
+                    try (InputStream stylesStream = zipFile.getInputStream(stylesEntry)) {
+                        parseStyles(stylesStream, styles);
+                    }
+                }
+                final OfficeDocument document;
+                try (InputStream contentStream = zipFile.getInputStream(contentEntry)) {
+                    document = parse(contentStream, metadata, styles, null, monitor, contentEntry.getSize(),
+                            rowSink);
+                }
+                return zipFile.getEntry(OdsPackage.SETTINGS_ENTRY) == null ? document
+                        : new OfficeDocument(metadata, settingsLoader, styles, document.getBody());
+            }
+        }
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return parse(inputStream, new Metadata(), new StyleRegistry(), settingsLoader, monitor, Files.size(path),
+                    rowSink);
+        }
+    }
+
+    /**
+     * Reads only the metadata of a Flat ODS or a zipped ODS input stream, parsing stops after {@code office:meta}.
+     * The stream is not closed.
+     *
+     * @param inputStream the fods or ods file inputstream.
+     * @return the metadata, empty when the document has none
+     * @throws IOException              if the stream cannot be read
+     * @throws InvalidDocumentException if the metadata is not well-formed
+     */
+    public Metadata readMetadata(InputStream inputStream) throws IOException {
+        final PushbackInputStream sniffableStream = OdsPackage.sniffable(inputStream);
+        if (!OdsPackage.isPackage(sniffableStream)) {
+            return parseMetadata(sniffableStream);
+        }
+        final ZipInputStream zipInputStream = new ZipInputStream(sniffableStream);
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (entry.getName().equals(OdsPackage.META_ENTRY)) {
+                return parseMetadata(OdsPackage.entryStream(zipInputStream));
+            }
+        }
+        return new Metadata();
+    }
+
+    /**
+     * Reads only the metadata of a Flat ODS or a zipped ODS file, parsing stops after {@code office:meta}. For zipped
+     * ODS, only the {@code meta.xml} entry is inflated.
+     *
+     * @param path the fods or ods file path.
+     * @return the metadata, empty when the document has none
+     * @throws IOException              if the file cannot be read
+     * @throws InvalidDocumentException if the metadata is not well-formed
+     */
+    public Metadata readMetadata(Path path) throws IOException {
+        if (OdsPackage.isPackage(path)) {
+            try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                return readMetadata(zipFile);
+            }
+        }
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return parseMetadata(inputStream);
+        }
+    }
+
+    public boolean isReuseParsers() {
+        return this.reuseParsers;
+    }
+
+    public int getMaxRows() {
+        return this.maxRows;
+    }
+
+    public int getMaxColumns() {
+        return this.maxColumns;
+    }
+
+    public long getMaxCells() {
+        return this.maxCells;
+    }
+
+    public long getMaxInputBytes() {
+        return this.maxInputBytes;
+    }
+
+    public int getMaxTextLength() {
+        return this.maxTextLength;
+    }
+
+    public boolean isClampEmptyRepeats() {
+        return this.clampEmptyRepeats;
+    }
+
+    public long getTableHeapBudget() {
+        return this.tableHeapBudget;
+    }
+
+    public int getSpillCachedBlocks() {
+        return this.spillCachedBlocks;
+    }
+
+    public Path getSpillDirectory() {
+        return this.spillDirectory;
+    }
+
+    public int getPipelineWorkers() {
+        return this.pipelineWorkers;
+    }
+
+    public boolean isCollectStatistics() {
+        return this.collectStatistics;
+    }
+
+    /**
+     * @return the filter of the rows of the table, null to keep every row
+     */
+    RowFilter rowFilterOf(String tableName) {
+        return tableRowFilters.getOrDefault(tableName, rowFilter);
+    }
+
+    /**
+     * @param expectedRows the expected number of rows of the table, zero when unknown
+     * @return where the rows of a new table go, according to the heap budget.
+     */
+    TableStorage.Appender newTableStorage(int expectedRows) {
+        return tableHeapBudget == Long.MAX_VALUE ? TableStorage.inHeap(expectedRows)
+                : TableStorage.spilling(tableHeapBudget, spillCachedBlocks, spillDirectory);
+    }
+
+    private Metadata readMetadata(ZipFile zipFile) throws IOException {
+        final ZipEntry metaEntry = zipFile.getEntry(OdsPackage.META_ENTRY);
+        if (metaEntry == null) {
+            return new Metadata();
+        }
+        try (InputStream metaStream = zipFile.getInputStream(metaEntry)) {
+            return parseMetadata(metaStream);
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException as it is called by {@link OfficeDocument#getSettings()}
+     */
+    private Settings loadSettings(Path path) {
+        try {
+            if (OdsPackage.isPackage(path)) {
+                try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                    final ZipEntry settingsEntry = zipFile.getEntry(OdsPackage.SETTINGS_ENTRY);
+                    if (settingsEntry == null) {
+                        return new Settings();
+                    }
+                    try (InputStream settingsStream = zipFile.getInputStream(settingsEntry)) {
+                        return parseSettings(settingsStream);
+                    }
+                }
+            }
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                return parseSettings(inputStream);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param settingsLoader when not null, the settings are skipped and loaded by the document on first access
+     * @param monitor        follows the load, may be null
+     * @param totalBytes     the number of bytes of the stream, -1 when unknown
+     * @param rowSink        where the rows of each table go instead of the table storage, may be null
+     */
+    private OfficeDocument parse(InputStream inputStream, Metadata metadata, StyleRegistry styles,
+                                 Supplier<Settings> settingsLoader, LoadMonitor monitor, long totalBytes,
+                                 Function<String, TableStorage.Appender> rowSink) {
+        final LimitedInputStream countedStream = new LimitedInputStream(inputStream, maxInputBytes);
+        if (monitor != null) {
+            monitor.start(countedStream::getCount, totalBytes);
+        }
+        final OfficeDocument document = parse(countedStream, xml -> new OfficeDocumentParser(this, xml, metadata)
+                .useStyles(styles).deferSettings(settingsLoader).monitor(monitor).rowSink(rowSink).parse());
+        if (monitor != null) {
+            monitor.done();
+        }
+        return document;
+    }
+
+    private void parseStyles(InputStream inputStream, StyleRegistry styles) {
+        parse(inputStream, xml -> new OfficeDocumentParser(this, xml).useStyles(styles).parseStyles());
+    }
+
+    private Metadata parseMetadata(InputStream inputStream) {
+        return parse(inputStream, xml -> new OfficeDocumentParser(this, xml).parseMetadata());
+    }
+
+    private Settings parseSettings(InputStream inputStream) {
+        return parse(inputStream, xml -> new OfficeDocumentParser(this, xml).parseSettings());
+    }
+
+    private <T> T parse(InputStream inputStream, ParserAction<T> action) {
+        XMLStreamReader xml = null;
+        try {
+            xml = parserPool.acquire(maxInputBytes == Long.MAX_VALUE || inputStream instanceof LimitedInputStream
+                    ? inputStream : new LimitedInputStream(inputStream, maxInputBytes));
+            return action.apply(xml);
+        } catch (XMLStreamException e) {
+            if (isInterruption(e)) {
+                throw new LoadCancelledException("thread interrupted", e);
+            }
+            throw new InvalidDocumentException(e);
+        } catch (NumberFormatException e) {
+            throw new InvalidDocumentException(e);
+        } finally {
+            close(xml);
+        }
+    }
+
+    /**
+     * @return whether the parser failed on a read stopped by an interrupt of the thread
+     */
+    private static boolean isInterruption(XMLStreamException exception) {
+        for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ClosedByInterruptException || cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void close(XMLStreamReader xml) {
+        if (xml != null) {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                // nothing more to release
+            }
+        }
+    }
+
+    private interface ParserAction<T> {
+        T apply(XMLStreamReader xml) throws XMLStreamException;
+    }
+
+    public static class OfficeDocumentReaderBuilder {
+        private boolean reuseParsers = true;
+        private int maxRows = Integer.MAX_VALUE;
+        private int maxColumns = Integer.MAX_VALUE;
+        private long maxCells = Long.MAX_VALUE;
+        private long maxInputBytes = Long.MAX_VALUE;
+        private int maxTextLength = Integer.MAX_VALUE;
+        private boolean clampEmptyRepeats;
+        private long tableHeapBudget = Long.MAX_VALUE;
+        private int spillCachedBlocks = 8;
+        private Path spillDirectory;
+        private int pipelineWorkers;
+        private RowFilter rowFilter;
+        private final Map<String, RowFilter> tableRowFilters = new HashMap<>();
+        private boolean collectStatistics;
+
+        OfficeDocumentReaderBuilder() {
+        }
+
+        /**
+         * @param reuseParsers whether the XML parser instances are pooled and reused across loads, true by default.
+         */
+        public OfficeDocumentReaderBuilder reuseParsers(boolean reuseParsers) {
+            this.reuseParsers = reuseParsers;
+            return this;
+        }
+
+        /**
+         * @param maxRows maximum number of rows of a table, repeated rows included.
+         */
+        public OfficeDocumentReaderBuilder maxRows(int maxRows) {
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /**
+         * @param maxColumns maximum number of columns of a table, and of cells of a row, repeated cells included.
+         */
+        public OfficeDocumentReaderBuilder maxColumns(int maxColumns) {
+            this.maxColumns = maxColumns;
+            return this;
+        }
+
+        /**
+         * @param maxCells maximum number of cells of the whole document, repeated rows and cells included.
+         */
+        public OfficeDocumentReaderBuilder maxCells(long maxCells) {
+            this.maxCells = maxCells;
+            return this;
+        }
+
+        /**
+         * @param maxInputBytes maximum number of bytes given to the XML parser, after decompression for zipped ODS.
+         */
+        public OfficeDocumentReaderBuilder maxInputBytes(long maxInputBytes) {
+            this.maxInputBytes = maxInputBytes;
+            return this;
+        }
+
+        /**
+         * @param maxTextLength maximum number of characters of a cell text.
+         */
+        public OfficeDocumentReaderBuilder maxTextLength(int maxTextLength) {
+            this.maxTextLength = maxTextLength;
+            return this;
+        }
+
+        /**
+         * @param clampEmptyRepeats when true, repeated empty rows and cells going over the rows, columns or cells
+         *                          limits are cut at the limit instead of failing, as spreadsheet applications emit
+         *                          such repeats up to the end of the sheet. False by default.
+         */
+        public OfficeDocumentReaderBuilder clampEmptyRepeats(boolean clampEmptyRepeats) {
+            this.clampEmptyRepeats = clampEmptyRepeats;
+            return this;
+        }
+
+        /**
+         * @param tableHeapBudget estimated number of bytes the rows of a table may use in heap. Beyond, blocks of rows
+         *                        are moved to a temporary file and read back on access. Unbounded by default.
+         */
+        public OfficeDocumentReaderBuilder tableHeapBudget(long tableHeapBudget) {
+            this.tableHeapBudget = tableHeapBudget;
+            return this;
+        }
+
+        /**
+         * @param spillCachedBlocks number of row blocks of a table read back from the temporary file and kept in
+         *                          heap, 8 by default.
+         */
+        public OfficeDocumentReaderBuilder spillCachedBlocks(int spillCachedBlocks) {
+            this.spillCachedBlocks = spillCachedBlocks;
+            return this;
+        }
+
+        /**
+         * @param spillDirectory directory of the temporary files, the default temporary directory when null.
+         */
+        public OfficeDocumentReaderBuilder spillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * @param pipelineWorkers number of threads building the cells of the rows while the XML is being read, 0 by
+         *                        default to build them on the reading thread. Pays off for large tables, the reading
+         *                        thread then mostly tokenizing the XML.
+         */
+        public OfficeDocumentReaderBuilder pipelineWorkers(int pipelineWorkers) {
+            this.pipelineWorkers = pipelineWorkers;
+            return this;
+        }
+
+        /**
+         * @param rowFilter the rows to keep in every table, evaluated while reading. All rows are kept by default.
+         */
+        public OfficeDocumentReaderBuilder rowFilter(RowFilter rowFilter) {
+            this.rowFilter = rowFilter;
+            return this;
+        }
+
+        /**
+         * @param rowFilter the rows to keep in the table, instead of the filter of every table. Null keeps all rows.
+         */
+        public OfficeDocumentReaderBuilder rowFilter(String tableName, RowFilter rowFilter) {
+            this.tableRowFilters.put(tableName, rowFilter);
+            return this;
+        }
+
+        /**
+         * @param collectStatistics when true, the statistics of the columns of each table, and of each block of rows,
+         *                          are recorded while reading, see
+         *                          {@link com.github.morinb.fods.reader.content.Table#getStatistics()}. False by
+         *                          default.
+         */
+        public OfficeDocumentReaderBuilder collectStatistics(boolean collectStatistics) {
+            this.collectStatistics = collectStatistics;
+            return this;
+        }
+
+        public OfficeDocumentReader build() {
+            return new OfficeDocumentReader(this);
+        }
+
+        public String toString() {
+            return "OfficeDocumentReader.OfficeDocumentReaderBuilder(reuseParsers=" + this.reuseParsers
+                    + ", maxRows=" + this.maxRows + ", maxColumns=" + this.maxColumns + ", maxCells=" + this.maxCells
+                    + ", maxInputBytes=" + this.maxInputBytes + ", maxTextLength=" + this.maxTextLength
+                    + ", clampEmptyRepeats=" + this.clampEmptyRepeats + ", tableHeapBudget=" + this.tableHeapBudget
+                    + ", spillCachedBlocks=" + this.spillCachedBlocks + ", spillDirectory=" + this.spillDirectory
+                    + ", pipelineWorkers=" + this.pipelineWorkers + ", rowFilter=" + this.rowFilter
+                    + ", tableRowFilters=" + this.tableRowFilters.keySet() + ", collectStatistics="
+                    + this.collectStatistics + ")";
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.ValueType;
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.FormulaCell;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming FODS writer.
+ * <p>
+ * Rows are written as soon as the next different row arrives: only the pending row is kept in memory, so that
+ * identical adjacent rows are collapsed into {@code table:number-rows-repeated} and identical adjacent cells into
+ * {@code table:number-columns-repeated}.
+ * <p>
+ * Runs of spaces, tabs and line ends of the cell texts are written as {@code text:s}, {@code text:tab} and
+ * {@code text:line-break}, which survive the white space collapsing of ODF readers; line ends are read back as
+ * {@code \n}. Characters not allowed in XML 1.0 are dropped.
+ */
+public class OfficeDocumentWriter implements Closeable {
+    private static final String DOCUMENT_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<office:document"
+            + " xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+            + " xmlns:meta=\"urn:oasis:names:tc:opendocument:xmlns:meta:1.0\""
+            + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+            + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\""
+            + " xmlns:of=\"urn:oasis:names:tc:opendocument:xmlns:of:1.2\""
+            + " office:version=\"1.3\" office:mimetype=\"application/vnd.oasis.opendocument.spreadsheet\">"
+            + "<office:body><office:spreadsheet>";
+    private static final String DOCUMENT_END = "</office:spreadsheet></office:body></office:document>\n";
+
+    private final Writer writer;
+
+    private boolean documentStarted;
+    private boolean tableStarted;
+    private List<Cell> pendingRow;
+    private int pendingRowRepeat;
+
+    /**
+     * Creates a writer producing a Flat ODS document on the given output stream.
+     *
+     * @param outputStream the fods file output stream, closed by {@link #close()}.
+     */
+    public OfficeDocumentWriter(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a whole table.
+     *
+     * @param table the table to write
+     * @throws IOException if the underlying stream fails
+     */
+    public void writeTable(Table table) throws IOException {
+        startTable(table.getName(), table.getNumberOfColumns());
+        for (List<Cell> row : table.getRows()) {
+            writeRow(row);
+        }
+        endTable();
+    }
+
+    /**
+     * Starts a new table, ending the current one if any.
+     *
+     * @param name            the table name
+     * @param numberOfColumns the number of declared columns
+     * @throws IOException if the underlying stream fails
+     */
+    public void startTable(String name, long numberOfColumns) throws IOException {
+        if (!documentStarted) {
+            writer.write(DOCUMENT_START);
+            documentStarted = true;
+        }
+        if (tableStarted) {
+            endTable();
+        }
+        writer.write("<table:table table:name=\"");
+        writeEscaped(name);
+        writer.write("\">");
+        if (numberOfColumns > 1) {
+            writer.write("<table:table-column table:number-columns-repeated=\"");
+            writer.write(Long.toString(numberOfColumns));
+            writer.write("\"/>");
+        } else if (numberOfColumns == 1) {
+            writer.write("<table:table-column/>");
+        }
+        tableStarted = true;
+    }
+
+    /**
+     * Appends a row to the current table. The row is copied, so the caller may reuse the list.
+     *
+     * @param row the cells of the row
+     * @throws IOException if the underlying stream fails
+     */
+    public void writeRow(List<Cell> row) throws IOException {
+        if (!tableStarted) {
+            throw new IllegalStateException("No table started");
+        }
+        if (pendingRow != null && pendingRow.equals(row)) {
+            pendingRowRepeat++;
+            return;
+        }
+        flushPendingRow();
+        pendingRow = new ArrayList<>(row);
+        pendingRowRepeat = 1;
+    }
+
+    /**
+     * Ends the current table.
+     *
+     * @throws IOException if the underlying stream fails
+     */
+    public void endTable() throws IOException {
+        if (!tableStarted) {
+            throw new IllegalStateException("No table started");
+        }
+        flushPendingRow();
+        writer.write("</table:table>");
+        tableStarted = false;
+    }
+
+    /**
+     * Ends the current table and the document, then closes the underlying stream.
+     *
+     * @throws IOException if the underlying stream fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!documentStarted) {
+                writer.write(DOCUMENT_START);
+                documentStarted = true;
+            }
+            if (tableStarted) {
+                endTable();
+            }
+            writer.write(DOCUMENT_END);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void flushPendingRow() throws IOException {
+        if (pendingRow == null) {
+            return;
+        }
+        if (pendingRowRepeat > 1) {
+            writer.write("<table:table-row table:number-rows-repeated=\"");
+            writer.write(Integer.toString(pendingRowRepeat));
+            writer.write("\">");
+        } else {
+            writer.write("<table:table-row>");
+        }
+        if (pendingRow.isEmpty()) {
+            // a row needs at least one cell to be valid
+            writer.write("<table:table-cell/>");
+        }
+        int index = 0;
+        while (index < pendingRow.size()) {
+            final Cell cell = pendingRow.get(index);
+            int repeat = 1;
+            while (index + repeat < pendingRow.size() && cell.equals(pendingRow.get(index + repeat))) {
+                repeat++;
+            }
+            writeCell(cell, repeat);
+            index += repeat;
+        }
+        writer.write("</table:table-row>");
+        pendingRow = null;
+        pendingRowRepeat = 0;
+    }
+
+    private void writeCell(Cell cell, int repeat) throws IOException {
+        writer.write("<table:table-cell");
+        if (repeat > 1) {
+            writer.write(" table:number-columns-repeated=\"");
+            writer.write(Integer.toString(repeat));
+            writer.write('"');
+        }
+        switch (cell.getCellType()) {
+            case EMPTY:
+                writer.write("/>");
+                return;
+            case FORMULA:
+                final FormulaCell formulaCell = (FormulaCell) cell;
+                writer.write(" table:formula=\"");
+                writeEscaped(formulaCell.getFormula());
+                writer.write('"');
+                if (formulaCell.getValue() != null) {
+                    // a currency or percentage result has no value type of its own
+                    writeValueType(ValueType.FLOAT);
+                    writer.write(" office:value=\"");
+                    writer.write(Double.toString(formulaCell.getValue()));
+                    writer.write('"');
+                } else if (formulaCell.getValueType() != ValueType.NONE) {
+                    writeValueType(formulaCell.getValueType());
+                }
+                break;
+            case FLOAT:
+                writeValueType(ValueType.FLOAT);
+                writer.write(" office:value=\"");
+                writer.write(Double.toString(((FloatCell) cell).getValue()));
+                writer.write('"');
+                break;
+            case BOOLEAN:
+                writeValueType(ValueType.BOOLEAN);
+                writer.write(" office:boolean-value=\"");
+                writer.write(Boolean.toString(((BooleanCell) cell).getValue()));
+                writer.write('"');
+                break;
+            default:
+                writeValueType(ValueType.STRING);
+                break;
+        }
+        writer.write("><text:p>");
+        writeText(cell.getText());
+        writer.write("</text:p></table:table-cell>");
+    }
+
+    private void writeValueType(ValueType valueType) throws IOException {
+        writer.write(" office:value-type=\"");
+        writer.write(valueType.name().toLowerCase(Locale.ENGLISH));
+        writer.write('"');
+    }
+
+    /**
+     * Writes a paragraph text, with its white space as text elements.
+     */
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int start = 0;
+        int index = 0;
+        while (index < value.length()) {
+            final char character = value.charAt(index);
+            if (character != ' ' && character != '\t' && character != '\n' && character != '\r') {
+                index++;
+                continue;
+            }
+            writeEscaped(value, start, index);
+            if (character == ' ') {
+                int end = index + 1;
+                while (end < value.length() && value.charAt(end) == ' ') {
+                    end++;
+                }
+                if (end - index == 1 && index > 0 && end < value.length()
+                        && !isWhitespace(value.charAt(index - 1)) && !isWhitespace(value.charAt(end))) {
+                    writer.write(' ');
+                } else if (end - index == 1) {
+                    writer.write("<text:s/>");
+                } else {
+                    writer.write("<text:s text:c=\"");
+                    writer.write(Integer.toString(end - index));
+                    writer.write("\"/>");
+                }
+                index = end;
+            } else if (character == '\t') {
+                writer.write("<text:tab/>");
+                index++;
+            } else {
+                writer.write("<text:line-break/>");
+                index += character == '\r' && index + 1 < value.length() && value.charAt(index + 1) == '\n' ? 2 : 1;
+            }
+            start = index;
+        }
+        writeEscaped(value, start, value.length());
+    }
+
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\t' || character == '\n' || character == '\r';
+    }
+
+    /**
+     * Writes an attribute value, its tabs and line ends as character references which XML parsers do not normalize.
+     */
+    private void writeEscaped(String value) throws IOException {
+        if (value != null) {
+            writeEscaped(value, 0, value.length());
+        }
+    }
+
+    private void writeEscaped(String value, int from, int to) throws IOException {
+        int start = from;
+        for (int index = from; index < to; index++) {
+            final String replacement;
+            final char character = value.charAt(index);
+            switch (character) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\t':
+                    replacement = "&#9;";
+                    break;
+                case '\n':
+                    replacement = "&#10;";
+                    break;
+                case '\r':
+                    replacement = "&#13;";
+                    break;
+                default:
+                    if (Character.isHighSurrogate(character) && index + 1 < to
+                            && Character.isLowSurrogate(value.charAt(index + 1))) {
+                        index++;
+                        continue;
+                    }
+                    if (isXmlChar(character)) {
+                        continue;
+                    }
+                    replacement = "";
+                    break;
+            }
+            writer.write(value, start, index - start);
+            writer.write(replacement);
+            start = index + 1;
+        }
+        writer.write(value, start, to - start);
+    }
+
+    /**
+     * @return whether the character, not part of a surrogate pair, is allowed in XML 1.0
+     */
+    private static boolean isXmlChar(char character) {
+        return character >= 0x20 && character <= 0xD7FF || character >= 0xE000 && character <= 0xFFFD
+                || character == '\t' || character == '\n' || character == '\r';
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.Body;
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.exceptions.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A document kept up to date with its file.
+ * <p>
+ * The file is watched by a background thread, and read again once modified. The new version replaces the current one
+ * with a single atomic swap: {@link #get()} never blocks nor sees a partly read document, and the callers holding a
+ * previous version keep it unchanged. The tables whose content and styles did not change are the {@link Table}
+ * instances of the previous version, so that what is cached per table stays valid and a single copy of their rows is
+ * kept. Their style ids are those of the version they were first read from: resolve them with the {@link Table}
+ * methods rather than with {@link OfficeDocument#getStyles()}.
+ * <p>
+ * A version that cannot be read, for instance while the file is being written, is skipped: the current version is
+ * kept, the failure is reported, and the next modification of the file is read again.
+ */
+public final class ReloadingDocument implements AutoCloseable {
+    private static final Logger LOGGER = new Logger();
+
+    private final Path path;
+    private final OfficeDocumentReader reader;
+    private final Duration pollInterval;
+    private final Duration settleDelay;
+    private final Consumer<OfficeDocument> onReloaded;
+    private final Consumer<Exception> onFailed;
+    private final AtomicReference<Version> current = new AtomicReference<>();
+    private final WatchService watchService;
+    private final Thread watcher;
+    private final Object reloadLock = new Object();
+    private FileStamp failedStamp;
+    private volatile boolean closed;
+
+    ReloadingDocument(Path path, OfficeDocumentReader reader, Duration pollInterval, Duration settleDelay,
+                      Consumer<OfficeDocument> onReloaded, Consumer<Exception> onFailed) throws IOException {
+        this.path = path.toAbsolutePath().normalize();
+        this.reader = reader;
+        this.pollInterval = pollInterval;
+        this.settleDelay = settleDelay;
+        this.onReloaded = onReloaded;
+        this.onFailed = onFailed;
+        // watching before the first read, so that a write landing during the read is noticed
+        this.watchService = pollInterval == null ? newWatchService(this.path) : null;
+        try {
+            current.set(load(null));
+        } catch (IOException | RuntimeException e) {
+            if (watchService != null) {
+                watchService.close();
+            }
+            throw e;
+        }
+        this.watcher = new Thread(watchService == null ? this::poll : this::watch, "fods-reloading-document");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public static ReloadingDocumentBuilder builder() {
+        return new ReloadingDocumentBuilder();
+    }
+
+    /**
+     * @return the current version of the document, without waiting for a reload in progress
+     */
+    public OfficeDocument get() {
+        return current.get().document;
+    }
+
+    /**
+     * @return the number of versions read so far, 1 for the version read when opening the document
+     */
+    public long getVersion() {
+        return current.get().number;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Reads the file again now, even when it does not look modified.
+     *
+     * @return the new current version
+     * @throws IOException if the file cannot be read, the current version being kept
+     */
+    public OfficeDocument reload() throws IOException {
+        synchronized (reloadLock) {
+            final Version version = load(current.get());
+            current.set(version);
+            notifyReloaded(version.document);
+            return version.document;
+        }
+    }
+
+    /**
+     * Stops watching the file. The current version stays available.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (watchService != null) {
+            watchService.close();
+        }
+        watcher.interrupt();
+    }
+
+    /**
+     * Editors often replace the file rather than write it, so the directory is watched for creations too.
+     */
+    private static WatchService newWatchService(Path path) throws IOException {
+        final WatchService watchService = path.getFileSystem().newWatchService();
+        try {
+            path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            return watchService;
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                if (concernsFile(watchService.take())) {
+                    awaitSettled();
+                    reloadIfModified();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Waits until the file has not been modified for the settle delay, so that a file being written is read once.
+     * The other files of the directory do not delay the reload.
+     */
+    private void awaitSettled() throws InterruptedException {
+        long deadline = System.nanoTime() + settleDelay.toNanos();
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            final WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+            if (key == null) {
+                return;
+            }
+            if (concernsFile(key)) {
+                deadline = System.nanoTime() + settleDelay.toNanos();
+            }
+        }
+    }
+
+    /**
+     * Takes the events of the key and resets it.
+     *
+     * @return whether an event is about the watched file, or events were lost
+     */
+    private boolean concernsFile(WatchKey key) {
+        boolean modified = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            modified |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || path.getFileName().equals(event.context());
+        }
+        key.reset();
+        return modified;
+    }
+
+    private void poll() {
+        try {
+            while (!closed) {
+                Thread.sleep(pollInterval.toMillis());
+                reloadIfModified();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void reloadIfModified() {
+        synchronized (reloadLock) {
+            final FileStamp stamp = FileStamp.of(path);
+            if (closed || stamp == null || stamp.equals(current.get().stamp) || stamp.equals(failedStamp)) {
+                return;
+            }
+            try {
+                reload();
+                failedStamp = null;
+            } catch (IOException | RuntimeException e) {
+                if (closed) {
+                    // the reload was interrupted by close()
+                    return;
+                }
+                failedStamp = stamp;
+                LOGGER.warn(unused -> "Keeping the current version of " + path, e);
+                if (onFailed != null) {
+                    onFailed.accept(e);
+                }
+            }
+        }
+    }
+
+    private void notifyReloaded(OfficeDocument document) {
+        if (onReloaded != null) {
+            try {
+                onReloaded.accept(document);
+            } catch (RuntimeException e) {
+                LOGGER.error(unused -> "Reload listener of " + path + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * Reads the file, reusing the tables of the previous version whose content did not change.
+     */
+    private Version load(Version previous) throws IOException {
+        final FileStamp stamp = FileStamp.of(path);
+        final OfficeDocument document = reader.read(path);
+        final Spreadsheet spreadsheet = document.getBody().getSpreadsheet();
+        final boolean sameStyles = previous != null
+                && previous.document.getStyles().hasSameDefinitions(document.getStyles());
+        final int tableCount = spreadsheet.getTableNames().size();
+        final List<Table> tables = new ArrayList<>(tableCount);
+        final Map<Long, Table> tablesByHash = new HashMap<>();
+        int reused = 0;
+        for (int index = 0; index < tableCount; index++) {
+            Table table = spreadsheet.getByIndex(index);
+            final long hash = table.getContentHash();
+            final Table previousTable = sameStyles ? previous.tablesByHash.get(hash) : null;
+            if (previousTable != null && previousTable.getName().equals(table.getName())) {
+                table = previousTable;
+                reused++;
+            }
+            tables.add(table);
+            tablesByHash.putIfAbsent(hash, table);
+        }
+        final OfficeDocument version = reused == 0 ? document
+                : new OfficeDocument(document.getMetadata(), document::getSettings, document.getStyles(),
+                new Body(new Spreadsheet(spreadsheet.getCalculationSettings(), Collections.unmodifiableList(tables),
+                        spreadsheet.getNamedRanges())));
+        return new Version(version, previous == null ? 1 : previous.number + 1, stamp, tablesByHash);
+    }
+
+    private static final class Version {
+        private final OfficeDocument document;
+        private final long number;
+        private final FileStamp stamp;
+        private final Map<Long, Table> tablesByHash;
+
+        private Version(OfficeDocument document, long number, FileStamp stamp, Map<Long, Table> tablesByHash) {
+            this.document = document;
+            this.number = number;
+            this.stamp = stamp;
+            this.tablesByHash = tablesByHash;
+        }
+    }
+
+    /**
+     * Modification time and size of the file, telling whether it changed since it was read.
+     */
+    private static final class FileStamp {
+        private final long modified;
+        private final long size;
+
+        private FileStamp(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        /**
+         * @return the stamp of the file, null when it cannot be read, such as while it is replaced
+         */
+        private static FileStamp of(Path path) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), attributes.size());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        public boolean equals(final Object o) {
+            if (o == this) return true;
+            if (!(o instanceof FileStamp)) return false;
+            final FileStamp other = (FileStamp) o;
+            return this.modified == other.modified && this.size == other.size;
+        }
+
+        public int hashCode() {
+            final int PRIME = 59;
+            int result = 1;
+            result = result * PRIME + Long.hashCode(this.modified);
+            result = result * PRIME + Long.hashCode(this.size);
+            return result;
+        }
+    }
+
+    public static class ReloadingDocumentBuilder {
+        private static final Duration DEFAULT_SETTLE_DELAY = Duration.ofMillis(100);
+
+        private Path path;
+        private OfficeDocumentReader reader;
+        private Duration pollInterval;
+        private Duration settleDelay = DEFAULT_SETTLE_DELAY;
+        private Consumer<OfficeDocument> onReloaded;
+        private Consumer<Exception> onFailed;
+
+        ReloadingDocumentBuilder() {
+        }
+
+        /**
+         * @param path the fods or ods file to watch
+         */
+        public ReloadingDocumentBuilder path(Path path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * @param reader the load options of every version, the default options when not set
+         */
+        public ReloadingDocumentBuilder reader(OfficeDocumentReader reader) {
+            this.reader = reader;
+            return this;
+        }
+
+        /**
+         * Checks the modification time and size of the file at a fixed interval, instead of being notified by the
+         * file system. For the file systems without change notifications, such as network shares.
+         *
+         * @param pollInterval the delay between two checks
+         */
+        public ReloadingDocumentBuilder pollInterval(Duration pollInterval) {
+            if (pollInterval.isNegative() || pollInterval.isZero()) {
+                throw new IllegalArgumentException("pollInterval must be positive : " + pollInterval);
+            }
+            this.pollInterval = pollInterval;
+            return this;
+        }
+
+        /**
+         * @param settleDelay how long the file must be left unmodified before being read, 100 ms by default; only
+         *                    used with file system notifications
+         */
+        public ReloadingDocumentBuilder settleDelay(Duration settleDelay) {
+            if (settleDelay.isNegative()) {
+                throw new IllegalArgumentException("settleDelay must not be negative : " + settleDelay);
+            }
+            this.settleDelay = settleDelay;
+            return this;
+        }
+
+        /**
+         * @param onReloaded called with each new version, once it is the current one
+         */
+        public ReloadingDocumentBuilder onReloaded(Consumer<OfficeDocument> onReloaded) {
+            this.onReloaded = onReloaded;
+            return this;
+        }
+
+        /**
+         * @param onFailed called when a modified file cannot be read in the background
+         */
+        public ReloadingDocumentBuilder onFailed(Consumer<Exception> onFailed) {
+            this.onFailed = onFailed;
+            return this;
+        }
+
+        /**
+         * Reads the first version of the document, then starts watching the file.
+         *
+         * @throws IOException if the file cannot be read
+         */
+        public ReloadingDocument build() throws IOException {
+            if (path == null) {
+                throw new IllegalArgumentException("path must be set");
+            }
+            return new ReloadingDocument(path, reader == null ? OfficeDocumentReader.builder().build() : reader,
+                    pollInterval, settleDelay, onReloaded, onFailed);
+        }
+
+        public String toString() {
+            return "ReloadingDocument.ReloadingDocumentBuilder(path=" + this.path + ", pollInterval="
+                    + this.pollInterval + ", settleDelay=" + this.settleDelay + ")";
+        }
+    }
+}
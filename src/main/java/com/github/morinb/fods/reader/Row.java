@@ -0,0 +1,65 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.List;
+
+/**
+ * A row given by a {@link RowPublisher}, with the table it belongs to.
+ */
+public final class Row {
+    private final int tableIndex;
+    private final String tableName;
+    private final long rowNumber;
+    private final List<Cell> cells;
+
+    Row(int tableIndex, String tableName, long rowNumber, List<Cell> cells) {
+        this.tableIndex = tableIndex;
+        this.tableName = tableName;
+        this.rowNumber = rowNumber;
+        this.cells = cells;
+    }
+
+    /**
+     * @return the index of the table in the document, from 0
+     */
+    public int getTableIndex() {
+        return this.tableIndex;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * @return the number of the row in its table, from 1, a change of table restarting the numbering
+     */
+    public long getRowNumber() {
+        return this.rowNumber;
+    }
+
+    public List<Cell> getCells() {
+        return this.cells;
+    }
+
+    public String toString() {
+        return "Row(tableIndex=" + this.tableIndex + ", tableName=" + this.tableName + ", rowNumber=" + this.rowNumber
+                + ", cells=" + this.cells + ")";
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.StyledRow;
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.ValueType;
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.FormulaCell;
+import com.github.morinb.fods.reader.content.cell.TextBuffer;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Consecutive rows of a table as read from the XML, before their cells are built.
+ * <p>
+ * Holds the attributes and text of each cell, with repeats already limited, so that decoding into cells needs neither
+ * the XML parser nor the state of the table being read. Filled by the parser thread, then decoded by one thread.
+ */
+final class RowBatch {
+    private static final int MAX_ROWS = 256;
+    private static final int MAX_CELLS = 16 * 1024;
+
+    private int rowCount;
+    private int[] rowRepeats = new int[16];
+    private int[] rowStyleIds = new int[16];
+    private int[] rowEnds = new int[16];
+    private int rowSize;
+    private boolean rowEmpty = true;
+    private int rowStart;
+    private int rowTextStart;
+
+    private int cellCount;
+    private int[] cellRepeats = new int[64];
+    private short[] cellStyleIds = new short[64];
+    private String[] formulas = new String[64];
+    private String[] valueTypes = new String[64];
+    private String[] values = new String[64];
+    private String[] booleanValues = new String[64];
+    private int[] textStarts = new int[64];
+    private final StringBuilder texts = new StringBuilder();
+    private long expandedCells;
+
+    void startRow(int rowStyleId) {
+        ensureRowCapacity();
+        rowStyleIds[rowCount] = rowStyleId;
+        rowSize = 0;
+        rowEmpty = true;
+        rowStart = cellCount;
+        rowTextStart = texts.length();
+    }
+
+    /**
+     * @param repeat the number of times the cell is repeated, already limited
+     * @param text   the text of the cell, null for an empty cell
+     */
+    void addCell(int repeat, int styleId, String formula, String valueType, String value, String booleanValue,
+                 CharSequence text) {
+        if (repeat == 0) {
+            return;
+        }
+        ensureCellCapacity();
+        cellRepeats[cellCount] = repeat;
+        cellStyleIds[cellCount] = (short) styleId;
+        formulas[cellCount] = formula;
+        valueTypes[cellCount] = valueType;
+        values[cellCount] = value;
+        booleanValues[cellCount] = booleanValue;
+        if (text == null) {
+            textStarts[cellCount] = -1;
+        } else {
+            textStarts[cellCount] = texts.length();
+            texts.append(text);
+            rowEmpty = false;
+        }
+        cellCount++;
+        rowSize += repeat;
+    }
+
+    /**
+     * @param repeat the number of times the row is repeated, already limited
+     */
+    void endRow(int repeat) {
+        rowRepeats[rowCount] = repeat;
+        rowEnds[rowCount] = cellCount;
+        rowCount++;
+        expandedCells += rowSize;
+    }
+
+    /**
+     * Forgets the current row, instead of ending it.
+     */
+    void discardRow() {
+        Arrays.fill(formulas, rowStart, cellCount, null);
+        Arrays.fill(valueTypes, rowStart, cellCount, null);
+        Arrays.fill(values, rowStart, cellCount, null);
+        Arrays.fill(booleanValues, rowStart, cellCount, null);
+        cellCount = rowStart;
+        texts.setLength(rowTextStart);
+        rowSize = 0;
+        rowEmpty = true;
+    }
+
+    /**
+     * @param columnIndex 0-based column index
+     * @return the index of the cell of the current row covering the column, -1 when the row is shorter
+     */
+    int findCell(int columnIndex) {
+        int column = 0;
+        for (int cellIndex = rowStart; cellIndex < cellCount; cellIndex++) {
+            column += cellRepeats[cellIndex];
+            if (columnIndex < column) {
+                return cellIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true when the cell has a text equal to the given one, without building the text
+     */
+    boolean textEquals(int cellIndex, String text) {
+        final int start = textStarts[cellIndex];
+        if (start < 0 || nextTextStart(cellIndex) - start != text.length()) {
+            return false;
+        }
+        for (int index = 0; index < text.length(); index++) {
+            if (texts.charAt(start + index) != text.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the {@code office:value} of the cell, NaN when it has none
+     */
+    double numberAt(int cellIndex) {
+        final String value = values[cellIndex];
+        if (value == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return the cell, built on its own
+     */
+    Cell cellAt(int cellIndex) {
+        return textStarts[cellIndex] < 0 ? EmptyCell.EMPTY_CELL
+                : createCell(cellIndex, texts.substring(textStarts[cellIndex], nextTextStart(cellIndex)));
+    }
+
+    /**
+     * @return the number of cells of the current row, repeats included
+     */
+    int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * @return true while the current row has no text cell
+     */
+    boolean isRowEmpty() {
+        return rowEmpty;
+    }
+
+    boolean isEmpty() {
+        return rowCount == 0;
+    }
+
+    boolean isFull() {
+        return rowCount >= MAX_ROWS || expandedCells >= MAX_CELLS;
+    }
+
+    void clear() {
+        rowCount = 0;
+        cellCount = 0;
+        expandedCells = 0;
+        texts.setLength(0);
+        Arrays.fill(formulas, null);
+        Arrays.fill(valueTypes, null);
+        Arrays.fill(values, null);
+        Arrays.fill(booleanValues, null);
+    }
+
+    /**
+     * Builds the cells of the rows.
+     *
+     * @param textBuffer where the texts of the cells are stored
+     * @return the cells of each row, not repeated
+     */
+    List<List<Cell>> decode(TextBuffer textBuffer) {
+        final List<List<Cell>> rows = new ArrayList<>(rowCount);
+        int cellIndex = 0;
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            final int rowEnd = rowEnds[rowIndex];
+            int size = 0;
+            boolean styled = false;
+            for (int index = cellIndex; index < rowEnd; index++) {
+                size += cellRepeats[index];
+                styled |= cellStyleIds[index] != StyleRegistry.NO_STYLE;
+            }
+            final List<Cell> cells = new ArrayList<>(size);
+            final short[] styleIds = styled ? new short[size] : null;
+            for (; cellIndex < rowEnd; cellIndex++) {
+                final Cell cell = textStarts[cellIndex] < 0 ? EmptyCell.EMPTY_CELL : createCell(cellIndex,
+                        textBuffer.append(texts, textStarts[cellIndex], nextTextStart(cellIndex)));
+                if (styled) {
+                    Arrays.fill(styleIds, cells.size(), cells.size() + cellRepeats[cellIndex],
+                            cellStyleIds[cellIndex]);
+                }
+                for (int repeat = 0; repeat < cellRepeats[cellIndex]; repeat++) {
+                    cells.add(cell);
+                }
+            }
+            rows.add(StyledRow.of(Collections.unmodifiableList(cells), rowStyleIds[rowIndex], styleIds));
+        }
+        return rows;
+    }
+
+    /**
+     * @param rows the rows given by {@link #decode(TextBuffer)}, each added as many times as it is repeated
+     */
+    void appendTo(TableStorage.Appender appender, List<List<Cell>> rows) {
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            final List<Cell> row = rows.get(rowIndex);
+            for (int repeat = 0; repeat < rowRepeats[rowIndex]; repeat++) {
+                appender.addRow(row);
+            }
+        }
+    }
+
+    private Cell createCell(int cellIndex, CharSequence text) {
+        final String valueType = valueTypes[cellIndex];
+        final Double value = numberOf(cellIndex);
+        if (formulas[cellIndex] != null) {
+            return new FormulaCell(text, formulas[cellIndex], valueTypeOf(valueType), value);
+        }
+        if (value != null) {
+            return new FloatCell(text, value);
+        }
+        if ("boolean".equals(valueType) && booleanValues[cellIndex] != null) {
+            return new BooleanCell(text, Boolean.parseBoolean(booleanValues[cellIndex]));
+        }
+        return new TextCell(text);
+    }
+
+    /**
+     * @return the {@code office:value} of a float, currency or percentage cell, null for the other cells and for
+     * values that are not numbers
+     */
+    private Double numberOf(int cellIndex) {
+        final String valueType = valueTypes[cellIndex];
+        if (values[cellIndex] == null
+                || !("float".equals(valueType) || "currency".equals(valueType) || "percentage".equals(valueType))) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(values[cellIndex]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the end of the text of the cell, which is the start of the text of the next cell having one
+     */
+    private int nextTextStart(int cellIndex) {
+        for (int index = cellIndex + 1; index < cellCount; index++) {
+            if (textStarts[index] >= 0) {
+                return textStarts[index];
+            }
+        }
+        return texts.length();
+    }
+
+    private static ValueType valueTypeOf(String valueType) {
+        if (valueType == null) {
+            return ValueType.NONE;
+        }
+        switch (valueType) {
+            case "float":
+                return ValueType.FLOAT;
+            case "string":
+                return ValueType.STRING;
+            case "boolean":
+                return ValueType.BOOLEAN;
+            default:
+                break;
+        }
+        try {
+            return ValueType.valueOf(valueType.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            // date, time, currency... have no dedicated value type
+            return ValueType.NONE;
+        }
+    }
+
+    private void ensureRowCapacity() {
+        if (rowCount == rowRepeats.length) {
+            final int capacity = rowCount * 2;
+            rowRepeats = Arrays.copyOf(rowRepeats, capacity);
+            rowStyleIds = Arrays.copyOf(rowStyleIds, capacity);
+            rowEnds = Arrays.copyOf(rowEnds, capacity);
+        }
+    }
+
+    private void ensureCellCapacity() {
+        if (cellCount == cellRepeats.length) {
+            final int capacity = cellCount * 2;
+            cellRepeats = Arrays.copyOf(cellRepeats, capacity);
+            cellStyleIds = Arrays.copyOf(cellStyleIds, capacity);
+            formulas = Arrays.copyOf(formulas, capacity);
+            valueTypes = Arrays.copyOf(valueTypes, capacity);
+            values = Arrays.copyOf(values, capacity);
+            booleanValues = Arrays.copyOf(booleanValues, capacity);
+            textStarts = Arrays.copyOf(textStarts, capacity);
+        }
+    }
+}
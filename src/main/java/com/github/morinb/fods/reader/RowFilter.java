@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+
+import java.util.function.Predicate;
+
+/**
+ * A condition on the rows of a table, evaluated while each row is read: the rows not matching it are dropped before
+ * any of their cells is built.
+ * <p>
+ * Conditions only look at the columns they name, from the attributes and text of the XML. Kept rows are numbered
+ * from 1 in the loaded table, whatever their position in the document.
+ */
+public final class RowFilter {
+    private final Condition condition;
+
+    private RowFilter(Condition condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * @param column 1-based column number
+     * @param text   the expected text, compared exactly
+     * @return a filter keeping the rows whose cell has the text
+     */
+    public static RowFilter textEquals(int column, String text) {
+        final int columnIndex = columnIndexOf(column);
+        return new RowFilter((row, rowNumber) -> {
+            final int cellIndex = row.findCell(columnIndex);
+            return cellIndex >= 0 && row.textEquals(cellIndex, text);
+        });
+    }
+
+    /**
+     * @param column 1-based column number
+     * @return a filter keeping the rows whose cell has a numeric value greater than the given one
+     */
+    public static RowFilter greaterThan(int column, double value) {
+        final int columnIndex = columnIndexOf(column);
+        return new RowFilter((row, rowNumber) -> numberAt(row, columnIndex) > value);
+    }
+
+    /**
+     * @param column 1-based column number
+     * @return a filter keeping the rows whose cell has a numeric value less than the given one
+     */
+    public static RowFilter lessThan(int column, double value) {
+        final int columnIndex = columnIndexOf(column);
+        return new RowFilter((row, rowNumber) -> numberAt(row, columnIndex) < value);
+    }
+
+    /**
+     * @param column    1-based column number
+     * @param predicate a condition on the cell, an empty cell when the row is shorter
+     * @return a filter keeping the rows whose cell matches the predicate. Only the cell of the column is built.
+     */
+    public static RowFilter cell(int column, Predicate<Cell> predicate) {
+        final int columnIndex = columnIndexOf(column);
+        return new RowFilter((row, rowNumber) -> {
+            final int cellIndex = row.findCell(columnIndex);
+            return predicate.test(cellIndex < 0 ? EmptyCell.EMPTY_CELL : row.cellAt(cellIndex));
+        });
+    }
+
+    /**
+     * @param count the number of rows, such as 1 to keep a header row
+     * @return a filter keeping the first rows of the table in the document, repeated rows included
+     */
+    public static RowFilter firstRows(long count) {
+        return new RowFilter((row, rowNumber) -> rowNumber <= count);
+    }
+
+    public RowFilter and(RowFilter other) {
+        return new RowFilter((row, rowNumber) -> test(row, rowNumber) && other.test(row, rowNumber));
+    }
+
+    public RowFilter or(RowFilter other) {
+        return new RowFilter((row, rowNumber) -> test(row, rowNumber) || other.test(row, rowNumber));
+    }
+
+    public RowFilter negate() {
+        return new RowFilter((row, rowNumber) -> !test(row, rowNumber));
+    }
+
+    /**
+     * @param row       the batch holding the row, still open
+     * @param rowNumber 1-based number of the row in the document table, before filtering
+     */
+    boolean test(RowBatch row, long rowNumber) {
+        return condition.test(row, rowNumber);
+    }
+
+    /**
+     * @return the {@code office:value} of the cell, NaN when the cell has none or the row is shorter
+     */
+    private static double numberAt(RowBatch row, int columnIndex) {
+        final int cellIndex = row.findCell(columnIndex);
+        return cellIndex < 0 ? Double.NaN : row.numberAt(cellIndex);
+    }
+
+    private static int columnIndexOf(int column) {
+        if (column < 1) {
+            throw new IllegalArgumentException("Filter columns are 1-based : " + column);
+        }
+        return column - 1;
+    }
+
+    private interface Condition {
+        boolean test(RowBatch row, long rowNumber);
+    }
+}
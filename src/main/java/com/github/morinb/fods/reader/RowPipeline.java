@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.TextBuffer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Decodes the row batches of a table on worker threads, while the parser thread keeps reading the XML.
+ * <p>
+ * Batches are decoded concurrently, but added to the table in the order they were submitted: each append waits for
+ * the previous one, and runs on the thread completing last. At most {@code maxBatches} batches are in flight, the
+ * parser thread waiting for the oldest to be added beyond, so that a slow decoding bounds the memory instead of
+ * queueing the whole table.
+ * <p>
+ * Each worker decodes into its own text buffer, kept for all the batches of the table: the chunks keep growing
+ * across batches instead of starting again at the smallest size.
+ */
+final class RowPipeline {
+    private final Executor executor;
+    private final TableStorage.Appender rows;
+    private final Semaphore inFlight;
+    private final ThreadLocal<TextBuffer> workerTexts = ThreadLocal.withInitial(TextBuffer::new);
+    private CompletableFuture<Void> appended = CompletableFuture.completedFuture(null);
+    private volatile boolean cancelled;
+
+    RowPipeline(Executor executor, TableStorage.Appender rows, int maxBatches) {
+        this.executor = executor;
+        this.rows = rows;
+        this.inFlight = new Semaphore(maxBatches);
+    }
+
+    /**
+     * @param batch a batch no longer modified by the caller
+     */
+    void submit(RowBatch batch) {
+        if (appended.isCompletedExceptionally()) {
+            await();
+        }
+        inFlight.acquireUninterruptibly();
+        final CompletableFuture<List<List<Cell>>> decoded;
+        try {
+            decoded = CompletableFuture.supplyAsync(() -> batch.decode(workerTexts.get()), executor);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        appended = appended.thenCombine(decoded, (unused, cells) -> {
+            if (!cancelled) {
+                batch.appendTo(rows, cells);
+            }
+            return null;
+        });
+        appended.whenComplete((unused, failure) -> inFlight.release());
+    }
+
+    /**
+     * Waits for the submitted batches to be added.
+     *
+     * @return the rows of the table
+     */
+    TableStorage build() {
+        await();
+        return rows.build();
+    }
+
+    /**
+     * Drops the submitted batches not added yet, and waits for the batches being decoded or added: the rows can then
+     * be discarded. To be called before the decoding threads are stopped.
+     */
+    void cancel() {
+        cancelled = true;
+        try {
+            appended.join();
+        } catch (CompletionException e) {
+            // the rows are given up
+        }
+    }
+
+    /**
+     * Waits for the submitted batches to be added, rethrowing the first decoding or append failure.
+     */
+    private void await() {
+        try {
+            appended.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.exceptions.LoadCancelledException;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Publishes the rows of a document as the subscribers request them, without keeping them.
+ * <p>
+ * Each subscriber gets its own read of the file, on a thread of its own. The read waits while the rows given reach
+ * the rows requested, so that at most a batch of rows is held between the parser and a slow subscriber. Cancelling
+ * stops the read and releases the file.
+ * <p>
+ * The contract is the one of {@code java.util.concurrent.Flow}: on Java 9 and later, {@code FlowRowPublisher} adapts
+ * a publisher to a {@code Flow.Publisher<Row>}.
+ */
+public final class RowPublisher {
+    private final OfficeDocumentReader reader;
+    private final Path path;
+    private final String tableName;
+
+    /**
+     * @param tableName the table whose rows are published, null for all the tables
+     */
+    RowPublisher(OfficeDocumentReader reader, Path path, String tableName) {
+        this.reader = reader;
+        this.path = path;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Starts a read of the document for the subscriber, after {@link RowSubscriber#onSubscribe(RowSubscription)}.
+     * A subscriber throwing from {@link RowSubscriber#onNext(Row)} cancels its subscription.
+     *
+     * @param subscriber the receiver of the rows
+     */
+    public void subscribe(RowSubscriber subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        final Emission emission = new Emission(subscriber);
+        subscriber.onSubscribe(emission);
+        final Thread thread = new Thread(emission::run, "fods-row-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public String toString() {
+        return "RowPublisher(path=" + this.path + ", tableName=" + this.tableName + ")";
+    }
+
+    /**
+     * The read of the document for a subscriber, with the rows it requested.
+     */
+    private final class Emission implements RowSubscription {
+        private final RowSubscriber subscriber;
+        private final LoadMonitor monitor = new LoadMonitor();
+        private long demand;
+        private boolean cancelled;
+        private Throwable requestError;
+        private int tableCount;
+
+        Emission(RowSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("requested rows must be positive : " + n);
+                stop();
+                return;
+            }
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            stop();
+        }
+
+        private void stop() {
+            cancelled = true;
+            monitor.cancel();
+            notifyAll();
+        }
+
+        void run() {
+            Throwable failure = null;
+            try {
+                reader.read(path, monitor, this::appender);
+            } catch (Exception | LinkageError e) {
+                failure = e;
+            }
+            final Throwable error;
+            synchronized (this) {
+                if (cancelled && requestError == null) {
+                    return;
+                }
+                error = cancelled ? requestError : failure;
+                cancelled = true;
+            }
+            if (error == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(error);
+            }
+        }
+
+        private TableStorage.Appender appender(String name) {
+            final int tableIndex = tableCount++;
+            return tableName == null || tableName.equals(name) ? new RowEmitter(this, tableIndex, name)
+                    : new RowEmitter(null, tableIndex, name);
+        }
+
+        /**
+         * @throws LoadCancelledException if cancelled or interrupted while waiting for a request
+         */
+        synchronized void awaitDemand() {
+            while (demand == 0 && !cancelled) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LoadCancelledException("thread interrupted");
+                }
+            }
+            if (cancelled) {
+                throw new LoadCancelledException("subscription cancelled");
+            }
+            if (demand != Long.MAX_VALUE) {
+                demand--;
+            }
+        }
+
+        void emit(Row row) {
+            awaitDemand();
+            try {
+                subscriber.onNext(row);
+            } catch (RuntimeException | Error e) {
+                cancel();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Gives the rows of a table to the subscriber instead of storing them, or skips them.
+     */
+    private static final class RowEmitter implements TableStorage.Appender {
+        private final Emission emission;
+        private final int tableIndex;
+        private final String tableName;
+        private int rowCount;
+
+        /**
+         * @param emission where the rows go, null to skip them
+         */
+        RowEmitter(Emission emission, int tableIndex, String tableName) {
+            this.emission = emission;
+            this.tableIndex = tableIndex;
+            this.tableName = tableName;
+        }
+
+        @Override
+        public void addRow(List<Cell> row) {
+            rowCount++;
+            if (emission != null) {
+                emission.emit(new Row(tableIndex, tableName, rowCount, row));
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public TableStorage build() {
+            return TableStorage.inHeap().build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+/**
+ * Receives the rows of a {@link RowPublisher}, with the contract of {@code java.util.concurrent.Flow.Subscriber}.
+ * <p>
+ * {@link #onSubscribe(RowSubscription)} comes first, then at most the requested number of {@link #onNext(Row)}, then
+ * {@link #onComplete()} or {@link #onError(Throwable)} unless the subscription is cancelled. The signals are never
+ * concurrent.
+ */
+public interface RowSubscriber {
+    void onSubscribe(RowSubscription subscription);
+
+    void onNext(Row row);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+/**
+ * Link between a {@link RowPublisher} and a {@link RowSubscriber}, with the contract of
+ * {@code java.util.concurrent.Flow.Subscription}. Can be used from any thread.
+ */
+public interface RowSubscription {
+    /**
+     * Lets the document be read until {@code n} more rows are given.
+     *
+     * @param n the number of rows, {@link Long#MAX_VALUE} for all of them. The subscriber receives an
+     *          {@link IllegalArgumentException} when not positive.
+     */
+    void request(long n);
+
+    /**
+     * Stops the read at the next row and the signals to the subscriber, possibly after a few in progress.
+     */
+    void cancel();
+}
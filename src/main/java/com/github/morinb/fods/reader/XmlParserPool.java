@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.InputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out StAX parsers.
+ * <p>
+ * Idle factories, each configured to reuse its stream reader instance, are kept in a small pool shared by all the
+ * threads, so that parsing a document does not allocate a new scanner and its buffers, even when every load runs on
+ * a new thread such as a virtual thread. A parser in use holds its factory: nested, interleaved or concurrent reads
+ * take another factory from the pool, or create one.
+ */
+final class XmlParserPool {
+    /**
+     * JDK (SJSXP) specific: the factory returns the same reset reader instance on each call.
+     */
+    private static final String REUSE_INSTANCE = "reuse-instance";
+
+    private static final int MAX_IDLE_FACTORIES = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private final XMLInputFactory sharedFactory;
+    private final boolean reuseParsers;
+    private final Queue<XMLInputFactory> idleFactories = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    XmlParserPool(boolean reuseParsers) {
+        this.sharedFactory = newFactory(false);
+        this.reuseParsers = reuseParsers;
+    }
+
+    /**
+     * Creates a parser over the stream. It must be closed to be handed out again, closing it does not close the
+     * stream.
+     */
+    XMLStreamReader acquire(InputStream inputStream) throws XMLStreamException {
+        if (!reuseParsers) {
+            return sharedFactory.createXMLStreamReader(inputStream);
+        }
+        XMLInputFactory factory = idleFactories.poll();
+        if (factory == null) {
+            factory = newFactory(true);
+        } else {
+            idleCount.decrementAndGet();
+        }
+        try {
+            return new PooledReader(factory.createXMLStreamReader(inputStream), factory);
+        } catch (XMLStreamException | RuntimeException e) {
+            release(factory);
+            throw e;
+        }
+    }
+
+    private void release(XMLInputFactory factory) {
+        if (idleCount.incrementAndGet() <= MAX_IDLE_FACTORIES) {
+            idleFactories.offer(factory);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    private static XMLInputFactory newFactory(boolean reuseInstance) {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        if (reuseInstance && factory.isPropertySupported(REUSE_INSTANCE)) {
+            factory.setProperty(REUSE_INSTANCE, true);
+        }
+        return factory;
+    }
+
+    private final class PooledReader extends StreamReaderDelegate {
+        private final XMLInputFactory factory;
+        private boolean closed;
+
+        private PooledReader(XMLStreamReader reader, XMLInputFactory factory) {
+            super(reader);
+            this.factory = factory;
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            if (!closed) {
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    release(factory);
+                }
+            }
+        }
+    }
+}
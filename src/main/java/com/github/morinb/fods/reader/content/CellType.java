@@ -17,5 +17,5 @@
 package com.github.morinb.fods.reader.content;
 
 public enum CellType {
-    FORMULA, TEXT, EMPTY
+    FORMULA, TEXT, FLOAT, BOOLEAN, EMPTY
 }
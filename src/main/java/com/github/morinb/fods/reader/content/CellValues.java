@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.FormulaCell;
+
+/**
+ * Numeric values of cells, held by float cells and by the formula cells whose result is a number.
+ */
+final class CellValues {
+    private CellValues() {
+        // utility class
+    }
+
+    /**
+     * @return true when the cell holds a number: a float, currency or percentage cell, or a formula computing one
+     */
+    static boolean isNumber(Cell cell) {
+        return cell instanceof FloatCell || cell instanceof FormulaCell && ((FormulaCell) cell).getValue() != null;
+    }
+
+    /**
+     * @param cell a cell for which {@link #isNumber(Cell)} is true
+     */
+    static double numberOf(Cell cell) {
+        return cell instanceof FloatCell ? ((FloatCell) cell).getValue() : ((FormulaCell) cell).getValue();
+    }
+}
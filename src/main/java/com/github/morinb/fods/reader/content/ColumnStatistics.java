@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.Optional;
+import java.util.OptionalDouble;
+
+/**
+ * Statistics of the cells of a column, over a block of rows or over the whole table.
+ * <p>
+ * Numbers are the values of the {@link CellType#FLOAT} cells and of the formula cells computing a number; texts are
+ * the texts of the other cells that are not empty, compared as {@link String#compareTo(String)} does. Cells missing at
+ * the end of a row count as empty.
+ */
+public final class ColumnStatistics {
+    private final DistinctCounter distinctCounter;
+    private int rowCount;
+    private int valueCount;
+    private int numberCount;
+    private double minNumber = Double.POSITIVE_INFINITY;
+    private double maxNumber = Double.NEGATIVE_INFINITY;
+    private String minText;
+    private String maxText;
+
+    ColumnStatistics(int distinctPrecision) {
+        this.distinctCounter = new DistinctCounter(distinctPrecision);
+    }
+
+    /**
+     * Records a cell that is not empty.
+     *
+     * @param hash the content hash of the cell, as given by
+     *             {@link com.github.morinb.fods.reader.content.cell.CellHasher#hashCell(Cell)}
+     */
+    void add(Cell cell, long hash) {
+        count(cell);
+        distinctCounter.add(hash);
+        if (CellValues.isNumber(cell)) {
+            final double value = CellValues.numberOf(cell);
+            if (!Double.isNaN(value)) {
+                minNumber = Math.min(minNumber, value);
+                maxNumber = Math.max(maxNumber, value);
+            }
+        } else {
+            final CharSequence text = cell.getTextSequence();
+            if (text != null) {
+                if (minText == null || compare(text, minText) < 0) {
+                    minText = text.toString();
+                }
+                if (maxText == null || compare(text, maxText) > 0) {
+                    maxText = text.toString();
+                }
+            }
+        }
+    }
+
+    /**
+     * Records again a cell already given to {@link #add(Cell, long)}, as in a repeated row.
+     */
+    void count(Cell cell) {
+        valueCount++;
+        if (CellValues.isNumber(cell)) {
+            numberCount++;
+        }
+    }
+
+    void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of cells that are not empty
+     */
+    public int getValueCount() {
+        return this.valueCount;
+    }
+
+    public int getEmptyCount() {
+        return rowCount - valueCount;
+    }
+
+    public int getNumberCount() {
+        return this.numberCount;
+    }
+
+    public OptionalDouble getMinNumber() {
+        return numberCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(minNumber);
+    }
+
+    public OptionalDouble getMaxNumber() {
+        return numberCount == 0 ? OptionalDouble.empty() : OptionalDouble.of(maxNumber);
+    }
+
+    public Optional<String> getMinText() {
+        return Optional.ofNullable(this.minText);
+    }
+
+    public Optional<String> getMaxText() {
+        return Optional.ofNullable(this.maxText);
+    }
+
+    /**
+     * @return an estimate of the number of distinct cells that are not empty, exact for a few values
+     */
+    public long getDistinctCount() {
+        return Math.min(valueCount, distinctCounter.estimate());
+    }
+
+    /**
+     * @return false when no number of the column is within the bounds, inclusive
+     */
+    public boolean mayContainNumber(double min, double max) {
+        return numberCount > 0 && minNumber <= max && maxNumber >= min;
+    }
+
+    /**
+     * @return false when no text of the column is equal to the text
+     */
+    public boolean mayContainText(CharSequence text) {
+        return minText != null && compare(text, minText) >= 0 && compare(text, maxText) <= 0;
+    }
+
+    /**
+     * @return false when every cell of the column has a value
+     */
+    public boolean mayContainEmpty() {
+        return valueCount < rowCount;
+    }
+
+    private static int compare(CharSequence text, CharSequence other) {
+        final int length = Math.min(text.length(), other.length());
+        for (int index = 0; index < length; index++) {
+            final int difference = text.charAt(index) - other.charAt(index);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return text.length() - other.length();
+    }
+
+    public String toString() {
+        return "ColumnStatistics(rowCount=" + this.rowCount + ", valueCount=" + this.valueCount + ", numberCount="
+                + this.numberCount + ", minNumber=" + getMinNumber() + ", maxNumber=" + getMaxNumber() + ", minText="
+                + this.minText + ", maxText=" + this.maxText + ", distinctCount=" + getDistinctCount() + ")";
+    }
+}
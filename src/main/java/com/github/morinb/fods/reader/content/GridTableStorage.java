@@ -0,0 +1,284 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Rows kept in heap as blocks of 1024 rows, each block being a flat array of cells.
+ * <p>
+ * A cell is found with one array index in its block: {@code cells[physicalRow * width + column]}. Consecutive
+ * repeated rows share one physical row, and trailing empty cells are not stored, so that repeated filler rows cost
+ * next to nothing. Style ids are kept in a parallel array, only for the blocks having styled rows or cells. The
+ * content hash of each physical row is computed when its block is closed, while loading.
+ */
+final class GridTableStorage implements TableStorage, TableStorage.Appender {
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_ROWS = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_ROWS - 1;
+
+    private final int expectedRows;
+    private Block[] blocks;
+    private int blockCount;
+    private List<List<Cell>> currentBlock;
+    private int rowCount;
+
+    GridTableStorage(int expectedRows) {
+        this.expectedRows = expectedRows;
+        this.blocks = new Block[(int) Math.max(1, ((long) expectedRows + BLOCK_MASK) >>> BLOCK_SHIFT)];
+        this.currentBlock = newBlock();
+    }
+
+    @Override
+    public void addRow(List<Cell> row) {
+        currentBlock.add(row);
+        rowCount++;
+        if (currentBlock.size() == BLOCK_ROWS) {
+            closeBlock();
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public TableStorage build() {
+        if (!currentBlock.isEmpty()) {
+            closeBlock();
+        }
+        currentBlock = null;
+        return this;
+    }
+
+    @Override
+    public List<Cell> getRow(int rowIndex) {
+        checkRowIndex(rowIndex);
+        final Block block = blocks[rowIndex >>> BLOCK_SHIFT];
+        if (block == null) {
+            // still loading
+            return currentBlock.get(rowIndex & BLOCK_MASK);
+        }
+        final int physicalRow = block.physicalRow(rowIndex & BLOCK_MASK);
+        return new GridRow(block, physicalRow * block.width, block.rowSizes[physicalRow]);
+    }
+
+    @Override
+    public Cell getCell(int rowIndex, int columnIndex) {
+        checkRowIndex(rowIndex);
+        final Block block = blocks[rowIndex >>> BLOCK_SHIFT];
+        if (block == null) {
+            return TableStorage.super.getCell(rowIndex, columnIndex);
+        }
+        if (columnIndex < 0 || columnIndex >= block.width) {
+            return EmptyCell.EMPTY_CELL;
+        }
+        return block.cells[block.physicalRow(rowIndex & BLOCK_MASK) * block.width + columnIndex];
+    }
+
+    @Override
+    public long getRowHash(int rowIndex) {
+        checkRowIndex(rowIndex);
+        final Block block = blocks[rowIndex >>> BLOCK_SHIFT];
+        if (block == null) {
+            return TableStorage.super.getRowHash(rowIndex);
+        }
+        return block.rowHashes[block.physicalRow(rowIndex & BLOCK_MASK)];
+    }
+
+    @Override
+    public int getRowStyleId(int rowIndex) {
+        checkRowIndex(rowIndex);
+        final Block block = blocks[rowIndex >>> BLOCK_SHIFT];
+        if (block == null) {
+            return TableStorage.super.getRowStyleId(rowIndex);
+        }
+        return block.rowStyleIds == null ? StyleRegistry.NO_STYLE
+                : block.rowStyleIds[block.physicalRow(rowIndex & BLOCK_MASK)];
+    }
+
+    @Override
+    public int getCellStyleId(int rowIndex, int columnIndex) {
+        checkRowIndex(rowIndex);
+        final Block block = blocks[rowIndex >>> BLOCK_SHIFT];
+        if (block == null) {
+            return TableStorage.super.getCellStyleId(rowIndex, columnIndex);
+        }
+        if (block.cellStyleIds == null || columnIndex < 0 || columnIndex >= block.width) {
+            return StyleRegistry.NO_STYLE;
+        }
+        return block.cellStyleIds[block.physicalRow(rowIndex & BLOCK_MASK) * block.width + columnIndex];
+    }
+
+    private void checkRowIndex(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowIndex + ", row count " + rowCount);
+        }
+    }
+
+    /**
+     * @return a list sized for the rows still expected, so that it does not grow while the block fills.
+     */
+    private List<List<Cell>> newBlock() {
+        final int remainingRows = expectedRows - rowCount;
+        return remainingRows > 0 ? new ArrayList<>(Math.min(BLOCK_ROWS, remainingRows)) : new ArrayList<>();
+    }
+
+    private void closeBlock() {
+        final int logicalRows = currentBlock.size();
+        int[] physicalRows = new int[logicalRows];
+        final List<List<Cell>> distinctRows = new ArrayList<>();
+        int width = 0;
+        boolean styled = false;
+        List<Cell> previousRow = null;
+        for (int index = 0; index < logicalRows; index++) {
+            final List<Cell> row = currentBlock.get(index);
+            if (row != previousRow) {
+                distinctRows.add(row);
+                width = Math.max(width, storedLength(row));
+                styled |= row instanceof StyledRow;
+                previousRow = row;
+            }
+            physicalRows[index] = distinctRows.size() - 1;
+        }
+        if (distinctRows.size() == 1) {
+            physicalRows = null;
+        }
+
+        final Cell[] cells = new Cell[distinctRows.size() * width];
+        Arrays.fill(cells, EmptyCell.EMPTY_CELL);
+        final int[] rowSizes = new int[distinctRows.size()];
+        final long[] rowHashes = new long[distinctRows.size()];
+        for (int physicalRow = 0; physicalRow < distinctRows.size(); physicalRow++) {
+            final List<Cell> row = distinctRows.get(physicalRow);
+            rowSizes[physicalRow] = row.size();
+            rowHashes[physicalRow] = CellHasher.hashRow(row);
+            final int storedLength = Math.min(width, row.size());
+            for (int column = 0; column < storedLength; column++) {
+                cells[physicalRow * width + column] = row.get(column);
+            }
+        }
+
+        if (blockCount == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        final Block block = new Block(cells, width, physicalRows, rowSizes, rowHashes);
+        if (styled) {
+            block.setStyles(distinctRows);
+        }
+        blocks[blockCount++] = block;
+        currentBlock = newBlock();
+    }
+
+    /**
+     * @return the length of the row without its trailing empty cells, styled empty cells being kept.
+     */
+    private static int storedLength(List<Cell> row) {
+        int length = row.size();
+        while (length > 0 && row.get(length - 1) == EmptyCell.EMPTY_CELL
+                && StyledRow.cellStyleIdOf(row, length - 1) == StyleRegistry.NO_STYLE) {
+            length--;
+        }
+        return length;
+    }
+
+    private static final class Block {
+        private final Cell[] cells;
+        private final int width;
+        /**
+         * Physical row of each logical row, null when all the rows of the block are the same.
+         */
+        private final int[] physicalRows;
+        private final int[] rowSizes;
+        private final long[] rowHashes;
+        /**
+         * Style id of each physical row and of each cell, null when the block has none.
+         */
+        private short[] rowStyleIds;
+        private short[] cellStyleIds;
+
+        private Block(Cell[] cells, int width, int[] physicalRows, int[] rowSizes, long[] rowHashes) {
+            this.cells = cells;
+            this.width = width;
+            this.physicalRows = physicalRows;
+            this.rowSizes = rowSizes;
+            this.rowHashes = rowHashes;
+        }
+
+        private void setStyles(List<List<Cell>> distinctRows) {
+            for (int physicalRow = 0; physicalRow < distinctRows.size(); physicalRow++) {
+                final List<Cell> row = distinctRows.get(physicalRow);
+                final int rowStyleId = StyledRow.rowStyleIdOf(row);
+                if (rowStyleId != StyleRegistry.NO_STYLE) {
+                    if (rowStyleIds == null) {
+                        rowStyleIds = new short[distinctRows.size()];
+                    }
+                    rowStyleIds[physicalRow] = (short) rowStyleId;
+                }
+                final int storedLength = Math.min(width, row.size());
+                for (int column = 0; column < storedLength; column++) {
+                    final int cellStyleId = StyledRow.cellStyleIdOf(row, column);
+                    if (cellStyleId != StyleRegistry.NO_STYLE) {
+                        if (cellStyleIds == null) {
+                            cellStyleIds = new short[cells.length];
+                        }
+                        cellStyleIds[physicalRow * width + column] = (short) cellStyleId;
+                    }
+                }
+            }
+        }
+
+        private int physicalRow(int indexInBlock) {
+            return physicalRows == null ? 0 : physicalRows[indexInBlock];
+        }
+    }
+
+    private static final class GridRow extends AbstractList<Cell> implements RandomAccess {
+        private final Block block;
+        private final int offset;
+        private final int size;
+
+        private GridRow(Block block, int offset, int size) {
+            this.block = block;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public Cell get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+            return index < block.width ? block.cells[offset + index] : EmptyCell.EMPTY_CELL;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
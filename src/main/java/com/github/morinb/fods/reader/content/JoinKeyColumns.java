@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.List;
+
+/**
+ * Join keys of rows, extracted into one array per key column, in numbered slots.
+ * <p>
+ * Numbers and booleans are kept as {@code double}, so that numeric keys need no object; texts are compared exactly.
+ * A row having an empty key cell matches nothing.
+ */
+final class JoinKeyColumns {
+    private static final byte NUMBER = 0;
+    private static final byte TEXT = 1;
+
+    private final int[] columnIndexes;
+    private final long[] hashes;
+    private final byte[][] kinds;
+    private final double[][] numbers;
+    private final String[][] texts;
+
+    /**
+     * @param columnIndexes the 0-based key columns
+     */
+    JoinKeyColumns(int[] columnIndexes, int capacity) {
+        this.columnIndexes = columnIndexes;
+        this.hashes = new long[capacity];
+        this.kinds = new byte[columnIndexes.length][capacity];
+        this.numbers = new double[columnIndexes.length][capacity];
+        this.texts = new String[columnIndexes.length][capacity];
+    }
+
+    /**
+     * Extracts the keys of a row into a slot.
+     *
+     * @return false when a key cell is empty
+     */
+    boolean set(int slot, List<Cell> row) {
+        long hash = 0;
+        for (int key = 0; key < columnIndexes.length; key++) {
+            final Cell cell = columnIndexes[key] < row.size() ? row.get(columnIndexes[key]) : null;
+            final long keyHash;
+            texts[key][slot] = null;
+            if (CellValues.isNumber(cell) || cell instanceof BooleanCell) {
+                final double value = cell instanceof BooleanCell ? ((BooleanCell) cell).getValue() ? 1 : 0
+                        : CellValues.numberOf(cell);
+                kinds[key][slot] = NUMBER;
+                // 0.0 and -0.0 are the same key
+                numbers[key][slot] = value + 0.0;
+                keyHash = Double.doubleToLongBits(numbers[key][slot]);
+            } else if (cell != null && cell.getText() != null && !cell.getText().isEmpty()) {
+                kinds[key][slot] = TEXT;
+                texts[key][slot] = cell.getText();
+                keyHash = texts[key][slot].hashCode() ^ 0x5bd1e995L << 32;
+            } else {
+                return false;
+            }
+            hash = mix(hash * 31 + keyHash);
+        }
+        hashes[slot] = hash;
+        return true;
+    }
+
+    long getHash(int slot) {
+        return hashes[slot];
+    }
+
+    /**
+     * @return true when the keys of the slot equal the keys of a slot of other columns, extracted the same way
+     */
+    boolean matches(int slot, JoinKeyColumns other, int otherSlot) {
+        if (hashes[slot] != other.hashes[otherSlot]) {
+            return false;
+        }
+        for (int key = 0; key < columnIndexes.length; key++) {
+            if (kinds[key][slot] != other.kinds[key][otherSlot]) {
+                return false;
+            }
+            if (kinds[key][slot] == NUMBER ? numbers[key][slot] != other.numbers[key][otherSlot]
+                    : !texts[key][slot].equals(other.texts[key][otherSlot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Murmur3 finalizer, spreading the bits of the hash.
+     */
+    private static long mix(long hash) {
+        long result = hash;
+        result ^= result >>> 33;
+        result *= 0xff51afd7ed558ccdL;
+        result ^= result >>> 33;
+        result *= 0xc4ceb9fe1a85ec53L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
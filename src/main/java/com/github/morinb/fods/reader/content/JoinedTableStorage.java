@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Rows made of a row of a left storage followed by a row of a right storage, built on access.
+ */
+final class JoinedTableStorage implements TableStorage {
+    private final TableStorage left;
+    private final TableStorage right;
+    private final int leftColumns;
+    private final int rightColumns;
+    private final int[] leftRows;
+    private final int[] rightRows;
+
+    /**
+     * @param leftRows  the 0-based index of the left row of each joined row
+     * @param rightRows the 0-based index of the right row of each joined row, -1 for empty right cells
+     */
+    JoinedTableStorage(TableStorage left, int leftColumns, TableStorage right, int rightColumns, int[] leftRows,
+                       int[] rightRows) {
+        this.left = left;
+        this.right = right;
+        this.leftColumns = leftColumns;
+        this.rightColumns = rightColumns;
+        this.leftRows = leftRows;
+        this.rightRows = rightRows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return leftRows.length;
+    }
+
+    @Override
+    public List<Cell> getRow(int rowIndex) {
+        return new JoinedRow(left.getRow(leftRows[rowIndex]),
+                rightRows[rowIndex] < 0 ? null : right.getRow(rightRows[rowIndex]));
+    }
+
+    @Override
+    public Cell getCell(int rowIndex, int columnIndex) {
+        if (columnIndex < leftColumns) {
+            return left.getCell(leftRows[rowIndex], columnIndex);
+        }
+        return rightRows[rowIndex] < 0 ? EmptyCell.EMPTY_CELL
+                : right.getCell(rightRows[rowIndex], columnIndex - leftColumns);
+    }
+
+    private final class JoinedRow extends AbstractList<Cell> implements RandomAccess {
+        private final List<Cell> leftRow;
+        private final List<Cell> rightRow;
+
+        /**
+         * @param rightRow null for empty right cells
+         */
+        private JoinedRow(List<Cell> leftRow, List<Cell> rightRow) {
+            this.leftRow = leftRow;
+            this.rightRow = rightRow;
+        }
+
+        @Override
+        public Cell get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Column " + index + ", column count " + size());
+            }
+            if (index < leftColumns) {
+                return index < leftRow.size() ? leftRow.get(index) : EmptyCell.EMPTY_CELL;
+            }
+            final int rightIndex = index - leftColumns;
+            return rightRow == null || rightIndex >= rightRow.size() ? EmptyCell.EMPTY_CELL : rightRow.get(rightIndex);
+        }
+
+        @Override
+        public int size() {
+            return leftColumns + rightColumns;
+        }
+    }
+}
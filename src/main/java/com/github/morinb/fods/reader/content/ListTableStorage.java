@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.List;
+
+/**
+ * Rows kept in heap as a list.
+ */
+final class ListTableStorage implements TableStorage {
+    private final List<List<Cell>> rows;
+
+    ListTableStorage(List<List<Cell>> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public List<Cell> getRow(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    List<List<Cell>> getRows() {
+        return rows;
+    }
+}
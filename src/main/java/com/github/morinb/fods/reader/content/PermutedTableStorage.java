@@ -0,0 +1,67 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.List;
+
+/**
+ * Rows of another storage, in a given order.
+ */
+final class PermutedTableStorage implements TableStorage {
+    private final TableStorage source;
+    private final int[] rowIndexes;
+
+    /**
+     * @param rowIndexes the 0-based index in the source of each row
+     */
+    PermutedTableStorage(TableStorage source, int[] rowIndexes) {
+        this.source = source;
+        this.rowIndexes = rowIndexes;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowIndexes.length;
+    }
+
+    @Override
+    public List<Cell> getRow(int rowIndex) {
+        return source.getRow(rowIndexes[rowIndex]);
+    }
+
+    @Override
+    public Cell getCell(int rowIndex, int columnIndex) {
+        return source.getCell(rowIndexes[rowIndex], columnIndex);
+    }
+
+    @Override
+    public int getRowStyleId(int rowIndex) {
+        return source.getRowStyleId(rowIndexes[rowIndex]);
+    }
+
+    @Override
+    public int getCellStyleId(int rowIndex, int columnIndex) {
+        return source.getCellStyleId(rowIndexes[rowIndex], columnIndex);
+    }
+
+    @Override
+    public long getRowHash(int rowIndex) {
+        return source.getRowHash(rowIndexes[rowIndex]);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed cell range address, such as {@code B2:F1000}, {@code Feuille1.A1} or {@code $Feuille1.$A$1:.$B$3}.
+ * <p>
+ * Rows and columns are 1-based and inclusive. Parsed addresses are cached.
+ */
+public final class RangeAddress {
+    private static final int MAX_CACHED_ADDRESSES = 4096;
+    private static final Map<String, RangeAddress> CACHE = new ConcurrentHashMap<>();
+
+    private final String tableName;
+    private final int firstRow;
+    private final int firstColumn;
+    private final int lastRow;
+    private final int lastColumn;
+
+    public RangeAddress(String tableName, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        this.tableName = tableName;
+        this.firstRow = Math.min(firstRow, lastRow);
+        this.firstColumn = Math.min(firstColumn, lastColumn);
+        this.lastRow = Math.max(firstRow, lastRow);
+        this.lastColumn = Math.max(firstColumn, lastColumn);
+    }
+
+    /**
+     * @param address a cell or range address in A1 notation, optionally prefixed with a table name
+     * @return the parsed address
+     * @throws InvalidRangeAddressException if the address cannot be parsed
+     */
+    public static RangeAddress parse(String address) {
+        final RangeAddress cached = CACHE.get(address);
+        if (cached != null) {
+            return cached;
+        }
+        final RangeAddress parsed = doParse(address);
+        if (CACHE.size() >= MAX_CACHED_ADDRESSES) {
+            CACHE.clear();
+        }
+        CACHE.put(address, parsed);
+        return parsed;
+    }
+
+    /**
+     * @param column 1-based column number
+     * @return the column letters, {@code A} for 1, {@code AA} for 27
+     */
+    public static String columnName(int column) {
+        final StringBuilder name = new StringBuilder();
+        for (int remaining = column; remaining > 0; remaining = (remaining - 1) / 26) {
+            name.append((char) ('A' + (remaining - 1) % 26));
+        }
+        return name.reverse().toString();
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public int getFirstRow() {
+        return this.firstRow;
+    }
+
+    public int getFirstColumn() {
+        return this.firstColumn;
+    }
+
+    public int getLastRow() {
+        return this.lastRow;
+    }
+
+    public int getLastColumn() {
+        return this.lastColumn;
+    }
+
+    public String toString() {
+        final String start = columnName(firstColumn) + firstRow;
+        final String end = columnName(lastColumn) + lastRow;
+        final String range = start.equals(end) ? start : start + ":" + end;
+        return tableName == null ? range : tableName + "." + range;
+    }
+
+    private static RangeAddress doParse(String address) {
+        final int separator = indexOutsideQuotes(address, ':', 0);
+        final String start = separator < 0 ? address : address.substring(0, separator);
+        final String end = separator < 0 ? start : address.substring(separator + 1);
+
+        final String tableName = tableName(address, start);
+        final int[] first = cell(address, start);
+        final int[] last = cell(address, end);
+        final String endTableName = tableName(address, end);
+        if (endTableName != null && tableName != null && !endTableName.equals(tableName)) {
+            throw new InvalidRangeAddressException(address);
+        }
+        return new RangeAddress(tableName, first[0], first[1], last[0], last[1]);
+    }
+
+    private static String tableName(String address, String part) {
+        final int dot = lastIndexOutsideQuotes(part, '.');
+        if (dot <= 0) {
+            return null;
+        }
+        String name = part.substring(0, dot);
+        if (name.startsWith("$")) {
+            name = name.substring(1);
+        }
+        if (name.length() >= 2 && name.charAt(0) == '\'' && name.charAt(name.length() - 1) == '\'') {
+            name = name.substring(1, name.length() - 1).replace("''", "'");
+        }
+        if (name.isEmpty()) {
+            throw new InvalidRangeAddressException(address);
+        }
+        return name;
+    }
+
+    /**
+     * @return {row, column}
+     */
+    private static int[] cell(String address, String part) {
+        int index = lastIndexOutsideQuotes(part, '.') + 1;
+        if (index < part.length() && part.charAt(index) == '$') {
+            index++;
+        }
+        int column = 0;
+        final int columnStart = index;
+        while (index < part.length() && Character.isLetter(part.charAt(index))) {
+            final char letter = Character.toUpperCase(part.charAt(index));
+            if (letter < 'A' || letter > 'Z' || column > Integer.MAX_VALUE / 26 - 26) {
+                throw new InvalidRangeAddressException(address);
+            }
+            column = column * 26 + letter - 'A' + 1;
+            index++;
+        }
+        if (index < part.length() && part.charAt(index) == '$') {
+            index++;
+        }
+        final int rowStart = index;
+        int row = 0;
+        while (index < part.length() && Character.isDigit(part.charAt(index))) {
+            if (row > (Integer.MAX_VALUE - 9) / 10) {
+                throw new InvalidRangeAddressException(address);
+            }
+            row = row * 10 + part.charAt(index) - '0';
+            index++;
+        }
+        if (index != part.length() || index == rowStart || rowStart == columnStart || row == 0) {
+            throw new InvalidRangeAddressException(address);
+        }
+        return new int[]{row, column};
+    }
+
+    private static int indexOutsideQuotes(String value, char character, int from) {
+        boolean quoted = false;
+        for (int index = from; index < value.length(); index++) {
+            final char current = value.charAt(index);
+            if (current == '\'') {
+                quoted = !quoted;
+            } else if (current == character && !quoted) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOutsideQuotes(String value, char character) {
+        int last = -1;
+        int index = indexOutsideQuotes(value, character, 0);
+        while (index >= 0) {
+            last = index;
+            index = indexOutsideQuotes(value, character, index + 1);
+        }
+        return last;
+    }
+}
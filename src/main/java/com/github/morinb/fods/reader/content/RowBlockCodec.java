@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.FormulaCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary form of a block of rows.
+ * <p>
+ * Consecutive rows sharing the same list and consecutive identical cells are stored once with a count. The style
+ * ids of {@link StyledRow}s follow their cells, the ones of the cells also stored once per run.
+ */
+final class RowBlockCodec {
+    private static final int SAME_AS_PREVIOUS_ROW = -1;
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+
+    private RowBlockCodec() {
+        // utility class
+    }
+
+    static byte[] encode(List<List<Cell>> rows) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(rows.size());
+            List<Cell> previousRow = null;
+            for (List<Cell> row : rows) {
+                if (row == previousRow) {
+                    output.writeInt(SAME_AS_PREVIOUS_ROW);
+                    continue;
+                }
+                previousRow = row;
+                output.writeInt(row.size());
+                int index = 0;
+                while (index < row.size()) {
+                    final Cell cell = row.get(index);
+                    int repeat = 1;
+                    while (index + repeat < row.size() && row.get(index + repeat) == cell) {
+                        repeat++;
+                    }
+                    output.writeInt(repeat);
+                    writeCell(output, cell);
+                    index += repeat;
+                }
+                writeStyles(output, row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<List<Cell>> decode(byte[] bytes) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            final int rowCount = input.readInt();
+            final List<List<Cell>> rows = new ArrayList<>(rowCount);
+            List<Cell> previousRow = null;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                final int cellCount = input.readInt();
+                if (cellCount == SAME_AS_PREVIOUS_ROW) {
+                    rows.add(previousRow);
+                    continue;
+                }
+                final List<Cell> row = new ArrayList<>(cellCount);
+                while (row.size() < cellCount) {
+                    final int repeat = input.readInt();
+                    final Cell cell = readCell(input);
+                    for (int index = 0; index < repeat; index++) {
+                        row.add(cell);
+                    }
+                }
+                previousRow = readStyles(input, Collections.unmodifiableList(row));
+                rows.add(previousRow);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeStyles(DataOutputStream output, List<Cell> row) throws IOException {
+        output.writeShort(StyledRow.rowStyleIdOf(row));
+        final short[] styleIds = row instanceof StyledRow ? ((StyledRow) row).getCellStyleIds() : null;
+        if (styleIds == null) {
+            output.writeInt(0);
+            return;
+        }
+        output.writeInt(styleIds.length);
+        int index = 0;
+        while (index < styleIds.length) {
+            int repeat = 1;
+            while (index + repeat < styleIds.length && styleIds[index + repeat] == styleIds[index]) {
+                repeat++;
+            }
+            output.writeInt(repeat);
+            output.writeShort(styleIds[index]);
+            index += repeat;
+        }
+    }
+
+    private static List<Cell> readStyles(DataInputStream input, List<Cell> row) throws IOException {
+        final short rowStyleId = input.readShort();
+        final int styleCount = input.readInt();
+        if (styleCount == 0) {
+            return StyledRow.of(row, rowStyleId, null);
+        }
+        final short[] styleIds = new short[styleCount];
+        int index = 0;
+        while (index < styleCount) {
+            final int repeat = input.readInt();
+            Arrays.fill(styleIds, index, index + repeat, input.readShort());
+            index += repeat;
+        }
+        return new StyledRow(row, rowStyleId, styleIds);
+    }
+
+    private static void writeCell(DataOutputStream output, Cell cell) throws IOException {
+        output.writeByte(cell.getCellType().ordinal());
+        switch (cell.getCellType()) {
+            case EMPTY:
+                break;
+            case FORMULA:
+                final FormulaCell formulaCell = (FormulaCell) cell;
+                writeString(output, formulaCell.getText());
+                writeString(output, formulaCell.getFormula());
+                output.writeByte(formulaCell.getValueType() == null ? -1 : formulaCell.getValueType().ordinal());
+                output.writeBoolean(formulaCell.getValue() != null);
+                if (formulaCell.getValue() != null) {
+                    output.writeDouble(formulaCell.getValue());
+                }
+                break;
+            case FLOAT:
+                writeString(output, cell.getText());
+                output.writeDouble(((FloatCell) cell).getValue());
+                break;
+            case BOOLEAN:
+                writeString(output, cell.getText());
+                output.writeBoolean(((BooleanCell) cell).getValue());
+                break;
+            default:
+                writeString(output, cell.getText());
+                break;
+        }
+    }
+
+    private static Cell readCell(DataInputStream input) throws IOException {
+        switch (CellType.values()[input.readByte()]) {
+            case EMPTY:
+                return EmptyCell.EMPTY_CELL;
+            case FORMULA:
+                final String text = readString(input);
+                final String formula = readString(input);
+                final byte valueType = input.readByte();
+                final Double value = input.readBoolean() ? input.readDouble() : null;
+                return new FormulaCell(text, formula, valueType < 0 ? null : VALUE_TYPES[valueType], value);
+            case FLOAT:
+                return new FloatCell(readString(input), input.readDouble());
+            case BOOLEAN:
+                return new BooleanCell(readString(input), input.readBoolean());
+            default:
+                return new TextCell(readString(input));
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+/**
+ * A column to sort the rows of a table by.
+ * <p>
+ * Numbers and booleans come first, ordered by value, then texts ignoring case, then empty cells, which stay last in
+ * descending order too.
+ */
+public final class SortKey {
+    private final int column;
+    private final boolean descending;
+
+    private SortKey(int column, boolean descending) {
+        if (column < 1) {
+            throw new IllegalArgumentException("Sort columns are 1-based : " + column);
+        }
+        this.column = column;
+        this.descending = descending;
+    }
+
+    /**
+     * @param column 1-based column number
+     */
+    public static SortKey ascending(int column) {
+        return new SortKey(column, false);
+    }
+
+    /**
+     * @param column 1-based column number
+     */
+    public static SortKey descending(int column) {
+        return new SortKey(column, true);
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof SortKey)) return false;
+        final SortKey other = (SortKey) o;
+        return this.column == other.column && this.descending == other.descending;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + this.column;
+        result = result * PRIME + (this.descending ? 79 : 97);
+        return result;
+    }
+
+    public String toString() {
+        return "SortKey(column=" + this.column + ", descending=" + this.descending + ")";
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sort keys of rows, extracted once into one array per key, in numbered slots.
+ * <p>
+ * Comparisons never read the cells again: numbers are compared as {@code double}, texts as lower-cased strings. Rows
+ * with equal keys are ordered by row index, so that sorting is stable whatever the algorithm.
+ */
+final class SortKeyColumns {
+    private static final byte NUMBER = 0;
+    private static final byte TEXT = 1;
+    private static final byte EMPTY = 2;
+
+    /**
+     * Estimated heap bytes of a text key, besides its characters.
+     */
+    private static final int TEXT_BYTES = 40;
+
+    private final SortKey[] keys;
+    private final int[] rows;
+    private final byte[][] kinds;
+    private final double[][] numbers;
+    private final String[][] texts;
+
+    SortKeyColumns(SortKey[] keys, int capacity) {
+        this.keys = keys;
+        this.rows = new int[capacity];
+        this.kinds = new byte[keys.length][capacity];
+        this.numbers = new double[keys.length][capacity];
+        this.texts = new String[keys.length][capacity];
+    }
+
+    /**
+     * @return the estimated heap bytes of the keys of a slot, texts excluded
+     */
+    static long slotBytes(int keyCount) {
+        return 4 + keyCount * (1 + 8 + 8L);
+    }
+
+    int capacity() {
+        return rows.length;
+    }
+
+    /**
+     * Extracts the keys of a row into a slot.
+     *
+     * @return the estimated heap bytes of the text keys
+     */
+    long set(int slot, int rowIndex, List<Cell> row) {
+        rows[slot] = rowIndex;
+        long textBytes = 0;
+        for (int key = 0; key < keys.length; key++) {
+            final int columnIndex = keys[key].getColumn() - 1;
+            final Cell cell = columnIndex < row.size() ? row.get(columnIndex) : null;
+            texts[key][slot] = null;
+            if (CellValues.isNumber(cell)) {
+                kinds[key][slot] = NUMBER;
+                numbers[key][slot] = CellValues.numberOf(cell);
+            } else if (cell instanceof BooleanCell) {
+                kinds[key][slot] = NUMBER;
+                numbers[key][slot] = ((BooleanCell) cell).getValue() ? 1 : 0;
+            } else if (cell != null && cell.getTextSequence() != null && cell.getTextSequence().length() > 0) {
+                kinds[key][slot] = TEXT;
+                texts[key][slot] = cell.getText().toLowerCase(Locale.ROOT);
+                textBytes += TEXT_BYTES + 2L * texts[key][slot].length();
+            } else {
+                kinds[key][slot] = EMPTY;
+            }
+        }
+        return textBytes;
+    }
+
+    int getRow(int slot) {
+        return rows[slot];
+    }
+
+    /**
+     * @return the order of the rows of two slots, never 0 for different rows
+     */
+    int compare(int firstSlot, int secondSlot) {
+        for (int key = 0; key < keys.length; key++) {
+            final int result = compareKey(key, firstSlot, secondSlot);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(rows[firstSlot], rows[secondSlot]);
+    }
+
+    private int compareKey(int key, int firstSlot, int secondSlot) {
+        final byte firstKind = kinds[key][firstSlot];
+        final byte secondKind = kinds[key][secondSlot];
+        if (firstKind != secondKind) {
+            // empty cells stay last whatever the direction
+            final int result = Byte.compare(firstKind, secondKind);
+            return keys[key].isDescending() && firstKind != EMPTY && secondKind != EMPTY ? -result : result;
+        }
+        final int result;
+        if (firstKind == NUMBER) {
+            result = Double.compare(numbers[key][firstSlot], numbers[key][secondSlot]);
+        } else if (firstKind == TEXT) {
+            result = texts[key][firstSlot].compareTo(texts[key][secondSlot]);
+        } else {
+            result = 0;
+        }
+        return keys[key].isDescending() ? -result : result;
+    }
+
+    /**
+     * @return the slots from 0 to count, sorted
+     */
+    int[] sortedSlots(int count) {
+        int[] slots = new int[count];
+        for (int slot = 0; slot < count; slot++) {
+            slots[slot] = slot;
+        }
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int start = 0; start < count; start += 2 * width) {
+                merge(slots, buffer, start, Math.min(start + width, count), Math.min(start + 2 * width, count));
+            }
+            final int[] merged = buffer;
+            buffer = slots;
+            slots = merged;
+        }
+        return slots;
+    }
+
+    private void merge(int[] source, int[] target, int start, int middle, int end) {
+        int first = start;
+        int second = middle;
+        for (int position = start; position < end; position++) {
+            if (second >= end || first < middle && compare(source[first], source[second]) <= 0) {
+                target[position] = source[first++];
+            } else {
+                target[position] = source[second++];
+            }
+        }
+    }
+
+    void write(int slot, DataOutput output) throws IOException {
+        output.writeInt(rows[slot]);
+        for (int key = 0; key < keys.length; key++) {
+            output.writeByte(kinds[key][slot]);
+            if (kinds[key][slot] == NUMBER) {
+                output.writeDouble(numbers[key][slot]);
+            } else if (kinds[key][slot] == TEXT) {
+                output.writeInt(texts[key][slot].length());
+                output.writeChars(texts[key][slot]);
+            }
+        }
+    }
+
+    void read(int slot, DataInput input) throws IOException {
+        rows[slot] = input.readInt();
+        for (int key = 0; key < keys.length; key++) {
+            kinds[key][slot] = input.readByte();
+            texts[key][slot] = null;
+            if (kinds[key][slot] == NUMBER) {
+                numbers[key][slot] = input.readDouble();
+            } else if (kinds[key][slot] == TEXT) {
+                final char[] characters = new char[input.readInt()];
+                for (int index = 0; index < characters.length; index++) {
+                    characters[index] = input.readChar();
+                }
+                texts[key][slot] = new String(characters);
+            }
+        }
+    }
+}
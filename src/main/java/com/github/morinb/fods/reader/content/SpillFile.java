@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Append-only temporary file.
+ * <p>
+ * The file is deleted when closed, or once its owner has been garbage collected (checked each time a new file is
+ * created). It is opened with {@link StandardOpenOption#DELETE_ON_CLOSE}, so that the system deletes it as well
+ * when the JVM exits.
+ */
+final class SpillFile {
+    private static final ReferenceQueue<Object> COLLECTED_OWNERS = new ReferenceQueue<>();
+    private static final Set<Cleanup> PENDING_CLEANUPS = Collections.synchronizedSet(new HashSet<>());
+
+    private final FileChannel channel;
+    private final Cleanup cleanup;
+    private long size;
+
+    SpillFile(Object owner, Path directory) {
+        releaseCollected();
+        try {
+            final Path path = directory == null ? Files.createTempFile("fods-", ".spill")
+                    : Files.createTempFile(directory, "fods-", ".spill");
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            this.cleanup = new Cleanup(owner, channel);
+            PENDING_CLEANUPS.add(cleanup);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the position of the written bytes
+     */
+    synchronized long append(byte[] bytes, int length) {
+        final long position = size;
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        size += length;
+        return position;
+    }
+
+    byte[] read(long position, int length) {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of spill file");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Deletes the file now, without waiting for its owner to be collected.
+     */
+    void close() {
+        PENDING_CLEANUPS.remove(cleanup);
+        cleanup.clear();
+        cleanup.close();
+    }
+
+    private static void releaseCollected() {
+        Reference<?> reference;
+        while ((reference = COLLECTED_OWNERS.poll()) != null) {
+            final Cleanup cleanup = (Cleanup) reference;
+            PENDING_CLEANUPS.remove(cleanup);
+            cleanup.close();
+        }
+    }
+
+    private static final class Cleanup extends PhantomReference<Object> {
+        private final FileChannel channel;
+
+        private Cleanup(Object owner, FileChannel channel) {
+            super(owner, COLLECTED_OWNERS);
+            this.channel = channel;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // deleted on exit anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows grouped in blocks, moved to a temporary file once their estimated heap size exceeds a budget.
+ * <p>
+ * A block is closed after {@link #BLOCK_ROWS} rows, or earlier when the rows added cross the budget, so that wide rows
+ * do not overshoot it.
+ * <p>
+ * Spilled blocks are read back on access and kept in a small least recently used cache. The content hashes of the
+ * rows stay in heap, so that comparing tables does not read the rows back.
+ */
+final class SpillingTableStorage implements TableStorage, TableStorage.Appender {
+    static final int BLOCK_ROWS = 1024;
+
+    private static final int REFERENCE_BYTES = 8;
+    private static final int ROW_BYTES = 48;
+    private static final int CELL_BYTES = 40;
+
+    private final long heapBudget;
+    private final Path directory;
+    private final Map<Integer, List<List<Cell>>> cache;
+
+    /**
+     * Full blocks, null once spilled.
+     */
+    private final List<List<List<Cell>>> blocks = new ArrayList<>();
+    private int[] blockFirstRows = new int[16];
+    private long[] blockPositions = new long[16];
+    private int[] blockLengths = new int[16];
+    private List<List<Cell>> currentBlock = new ArrayList<>(BLOCK_ROWS);
+    private long[] rowHashes = new long[BLOCK_ROWS];
+    private long heapBytes;
+    private int rowCount;
+    private SpillFile spillFile;
+
+    SpillingTableStorage(long heapBudget, int cachedBlocks, Path directory) {
+        this.heapBudget = heapBudget;
+        this.directory = directory;
+        this.cache = new LinkedHashMap<Integer, List<List<Cell>>>(cachedBlocks * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<List<Cell>>> eldest) {
+                return size() > cachedBlocks;
+            }
+        };
+    }
+
+    @Override
+    public void addRow(List<Cell> row) {
+        if (rowCount == rowHashes.length) {
+            rowHashes = Arrays.copyOf(rowHashes, rowCount * 2);
+        }
+        if (currentBlock.isEmpty() || currentBlock.get(currentBlock.size() - 1) != row) {
+            heapBytes += estimateBytes(row);
+            rowHashes[rowCount] = CellHasher.hashRow(row);
+        } else {
+            rowHashes[rowCount] = rowHashes[rowCount - 1];
+        }
+        heapBytes += REFERENCE_BYTES;
+        currentBlock.add(row);
+        rowCount++;
+        if (currentBlock.size() == BLOCK_ROWS || heapBytes > heapBudget) {
+            closeBlock();
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public TableStorage build() {
+        if (!currentBlock.isEmpty()) {
+            closeBlock();
+        }
+        return this;
+    }
+
+    @Override
+    public List<Cell> getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowIndex + ", row count " + rowCount);
+        }
+        final int currentFirstRow = rowCount - currentBlock.size();
+        if (rowIndex >= currentFirstRow) {
+            return currentBlock.get(rowIndex - currentFirstRow);
+        }
+        final int found = Arrays.binarySearch(blockFirstRows, 0, blocks.size(), rowIndex);
+        final int blockIndex = found >= 0 ? found : -found - 2;
+        final int indexInBlock = rowIndex - blockFirstRows[blockIndex];
+        final List<List<Cell>> block = blocks.get(blockIndex);
+        if (block != null) {
+            return block.get(indexInBlock);
+        }
+        return readBlock(blockIndex).get(indexInBlock);
+    }
+
+    @Override
+    public long getRowHash(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + rowIndex + ", row count " + rowCount);
+        }
+        return rowHashes[rowIndex];
+    }
+
+    @Override
+    public void discard() {
+        blocks.clear();
+        currentBlock = new ArrayList<>();
+        synchronized (cache) {
+            cache.clear();
+        }
+        if (spillFile != null) {
+            spillFile.close();
+        }
+    }
+
+    /**
+     * @return true if some rows have been moved to the temporary file.
+     */
+    boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    private void closeBlock() {
+        if (blockFirstRows.length == blocks.size()) {
+            blockFirstRows = Arrays.copyOf(blockFirstRows, blocks.size() * 2);
+        }
+        blockFirstRows[blocks.size()] = rowCount - currentBlock.size();
+        blocks.add(currentBlock);
+        currentBlock = new ArrayList<>(BLOCK_ROWS);
+        if (heapBytes > heapBudget) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        if (spillFile == null) {
+            spillFile = new SpillFile(this, directory);
+        }
+        if (blockPositions.length < blocks.size()) {
+            final int capacity = Math.max(blocks.size(), blockPositions.length * 2);
+            blockPositions = Arrays.copyOf(blockPositions, capacity);
+            blockLengths = Arrays.copyOf(blockLengths, capacity);
+        }
+        for (int blockIndex = 0; blockIndex < blocks.size(); blockIndex++) {
+            final List<List<Cell>> block = blocks.get(blockIndex);
+            if (block != null) {
+                final byte[] bytes = RowBlockCodec.encode(block);
+                blockPositions[blockIndex] = spillFile.append(bytes, bytes.length);
+                blockLengths[blockIndex] = bytes.length;
+                blocks.set(blockIndex, null);
+            }
+        }
+        heapBytes = 0;
+    }
+
+    private List<List<Cell>> readBlock(int blockIndex) {
+        synchronized (cache) {
+            final List<List<Cell>> cached = cache.get(blockIndex);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final List<List<Cell>> block = RowBlockCodec.decode(
+                spillFile.read(blockPositions[blockIndex], blockLengths[blockIndex]));
+        synchronized (cache) {
+            cache.put(blockIndex, block);
+        }
+        return block;
+    }
+
+    private static long estimateBytes(List<Cell> row) {
+        long bytes = ROW_BYTES;
+        Cell previous = null;
+        for (Cell cell : row) {
+            bytes += REFERENCE_BYTES;
+            if (cell != previous && cell.getTextSequence() != null) {
+                bytes += CELL_BYTES + cell.getTextSequence().length();
+            }
+            previous = cell;
+        }
+        if (row instanceof StyledRow && ((StyledRow) row).getCellStyleIds() != null) {
+            bytes += 2L * ((StyledRow) row).getCellStyleIds().length;
+        }
+        return bytes;
+    }
+}
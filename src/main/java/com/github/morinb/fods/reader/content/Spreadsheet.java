@@ -16,17 +16,35 @@
 
 package com.github.morinb.fods.reader.content;
 
+import com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException;
+
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class Spreadsheet {
     private final CalculationSettings calculationSettings;
     private final List<Table> tableList;
+    private final Map<String, String> namedRanges;
 
     public Spreadsheet(CalculationSettings calculationSettings, List<Table> tableList) {
+        this(calculationSettings, tableList, Collections.emptyMap());
+    }
+
+    /**
+     * @param namedRanges the cell range addresses of the named ranges, by name
+     */
+    public Spreadsheet(CalculationSettings calculationSettings, List<Table> tableList,
+                       Map<String, String> namedRanges) {
         this.calculationSettings = calculationSettings;
         this.tableList = tableList;
+        this.namedRanges = Collections.unmodifiableMap(namedRanges);
+    }
+
+    public CalculationSettings getCalculationSettings() {
+        return this.calculationSettings;
     }
 
     public List<String> getTableNames() {
@@ -41,4 +59,33 @@ public class Spreadsheet {
         return tableList.get(index);
     }
 
+    /**
+     * @param address a range address prefixed with the table name, such as {@code Feuille1.B2:F1000}
+     * @return a view over the range, empty when the table does not exist
+     * @throws com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException if the address cannot be parsed
+     *                                                                              or has no table name
+     */
+    public Optional<TableRange> range(String address) {
+        final RangeAddress rangeAddress = RangeAddress.parse(address);
+        if (rangeAddress.getTableName() == null) {
+            throw new InvalidRangeAddressException(address);
+        }
+        return getByName(rangeAddress.getTableName()).map(table -> new TableRange(table, rangeAddress));
+    }
+
+    /**
+     * @return a view over the named range, empty when the name or its table does not exist
+     */
+    public Optional<TableRange> getNamedRange(String name) {
+        final String address = namedRanges.get(name);
+        return address == null ? Optional.empty() : range(address);
+    }
+
+    /**
+     * @return the cell range addresses of the named ranges, by name
+     */
+    public Map<String, String> getNamedRanges() {
+        return this.namedRanges;
+    }
+
 }
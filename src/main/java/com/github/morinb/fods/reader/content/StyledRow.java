@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Cells of a row along with the style ids of the row and of its cells, as given by a
+ * {@link com.github.morinb.fods.reader.style.StyleRegistry}.
+ * <p>
+ * The storages keep the style ids next to the cells, rows without any style are stored as plain lists.
+ */
+public final class StyledRow extends AbstractList<Cell> implements RandomAccess {
+    private final List<Cell> cells;
+    private final int rowStyleId;
+    private final short[] cellStyleIds;
+
+    /**
+     * @param cellStyleIds the style id of each cell, null when no cell has a style
+     */
+    public StyledRow(List<Cell> cells, int rowStyleId, short[] cellStyleIds) {
+        this.cells = cells;
+        this.rowStyleId = rowStyleId;
+        this.cellStyleIds = cellStyleIds;
+    }
+
+    /**
+     * @return the row itself when it has no style, else a styled row.
+     */
+    public static List<Cell> of(List<Cell> cells, int rowStyleId, short[] cellStyleIds) {
+        return rowStyleId == StyleRegistry.NO_STYLE && cellStyleIds == null ? cells
+                : new StyledRow(cells, rowStyleId, cellStyleIds);
+    }
+
+    /**
+     * @return the style id of the row, {@link StyleRegistry#NO_STYLE} for plain rows.
+     */
+    public static int rowStyleIdOf(List<Cell> row) {
+        return row instanceof StyledRow ? ((StyledRow) row).rowStyleId : StyleRegistry.NO_STYLE;
+    }
+
+    /**
+     * @param columnIndex 0-based column index
+     * @return the style id of the cell, {@link StyleRegistry#NO_STYLE} for plain rows.
+     */
+    public static int cellStyleIdOf(List<Cell> row, int columnIndex) {
+        if (!(row instanceof StyledRow)) {
+            return StyleRegistry.NO_STYLE;
+        }
+        final short[] styleIds = ((StyledRow) row).cellStyleIds;
+        return styleIds == null || columnIndex < 0 || columnIndex >= styleIds.length ? StyleRegistry.NO_STYLE
+                : styleIds[columnIndex];
+    }
+
+    @Override
+    public Cell get(int index) {
+        return cells.get(index);
+    }
+
+    @Override
+    public int size() {
+        return cells.size();
+    }
+
+    public int getRowStyleId() {
+        return this.rowStyleId;
+    }
+
+    /**
+     * @return the style id of each cell, null when no cell has a style. Not to be modified.
+     */
+    short[] getCellStyleIds() {
+        return this.cellStyleIds;
+    }
+}
@@ -17,42 +17,231 @@
 package com.github.morinb.fods.reader.content;
 
 import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
 import com.github.morinb.fods.reader.exceptions.InvalidCoordinatesException;
+import com.github.morinb.fods.reader.style.ColumnStyles;
+import com.github.morinb.fods.reader.style.Style;
+import com.github.morinb.fods.reader.style.StyleRegistry;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
 
 public class Table {
     private final String name;
     private final long numberOfColumns;
 
+    private final TableStorage storage;
     private final
     List<List<Cell>> rows;
+    private final StyleRegistry styles;
+    private final ColumnStyles columnStyles;
+    private final TableStatistics statistics;
+    private final Map<String, String> namedRanges;
+    private final Long rowsHash;
 
     public Table(String name, long numberOfColumns, List<List<Cell>> rows) {
         this.name = name;
         this.numberOfColumns = numberOfColumns;
+        this.storage = new ListTableStorage(rows);
         this.rows = rows;
+        this.styles = null;
+        this.columnStyles = null;
+        this.statistics = null;
+        this.namedRanges = Collections.emptyMap();
+        this.rowsHash = null;
+    }
+
+    /**
+     * @param storage the rows, possibly not all in heap
+     */
+    public Table(String name, long numberOfColumns, TableStorage storage) {
+        this(name, numberOfColumns, storage, null, null);
+    }
+
+    /**
+     * @param storage      the rows, possibly not all in heap
+     * @param styles       the styles of the document, resolving the style ids of the storage and of the columns
+     * @param columnStyles the style ids of the columns
+     */
+    public Table(String name, long numberOfColumns, TableStorage storage, StyleRegistry styles,
+                 ColumnStyles columnStyles) {
+        this(name, numberOfColumns, storage, styles, columnStyles, null);
+    }
+
+    /**
+     * @param storage      the rows, possibly not all in heap
+     * @param styles       the styles of the document, resolving the style ids of the storage and of the columns
+     * @param columnStyles the style ids of the columns
+     * @param statistics   the statistics of the columns of the rows of the storage, null when not collected
+     */
+    public Table(String name, long numberOfColumns, TableStorage storage, StyleRegistry styles,
+                 ColumnStyles columnStyles, TableStatistics statistics) {
+        this(name, numberOfColumns, storage, styles, columnStyles, statistics, Collections.emptyMap());
+    }
+
+    /**
+     * @param storage      the rows, possibly not all in heap
+     * @param styles       the styles of the document, resolving the style ids of the storage and of the columns
+     * @param columnStyles the style ids of the columns
+     * @param statistics   the statistics of the columns of the rows of the storage, null when not collected
+     * @param namedRanges  the cell range addresses of the named ranges declared by the table, by name
+     */
+    public Table(String name, long numberOfColumns, TableStorage storage, StyleRegistry styles,
+                 ColumnStyles columnStyles, TableStatistics statistics, Map<String, String> namedRanges) {
+        this(name, numberOfColumns, storage, styles, columnStyles, statistics, namedRanges, null);
+    }
+
+    /**
+     * @param storage      the rows, possibly not all in heap
+     * @param styles       the styles of the document, resolving the style ids of the storage and of the columns
+     * @param columnStyles the style ids of the columns
+     * @param statistics   the statistics of the columns of the rows of the storage, null when not collected
+     * @param namedRanges  the cell range addresses of the named ranges declared by the table, by name
+     * @param rowsHash     the hash of the rows given by a {@link TableHasher.Collector} while loading them, null to
+     *                     hash the storage when the content hash is first asked for
+     */
+    public Table(String name, long numberOfColumns, TableStorage storage, StyleRegistry styles,
+                 ColumnStyles columnStyles, TableStatistics statistics, Map<String, String> namedRanges,
+                 Long rowsHash) {
+        this.name = name;
+        this.numberOfColumns = numberOfColumns;
+        this.storage = storage;
+        this.rows = storage instanceof ListTableStorage ? ((ListTableStorage) storage).getRows()
+                : new StorageRows(storage);
+        this.styles = styles;
+        this.columnStyles = columnStyles;
+        this.statistics = statistics;
+        this.namedRanges = Collections.unmodifiableMap(namedRanges);
+        this.rowsHash = rowsHash;
     }
 
     public static TableBuilder builder() {
         return new TableBuilder();
     }
 
+    /**
+     * @param row 1-based row number
+     * @param col 1-based column number
+     * @return the cell, an empty cell when the row is shorter than the table
+     * @throws InvalidCoordinatesException when the coordinates are outside the table
+     */
     public Cell getCellAt(int row, int col) {
-        if (row > rows.size() || col > numberOfColumns) {
-            throw new InvalidCoordinatesException(row, col, rows.size()
+        if (row < 1 || row > storage.getRowCount() || col < 1 || col > numberOfColumns) {
+            throw new InvalidCoordinatesException(row, col, storage.getRowCount()
                     , numberOfColumns);
         }
 
-        return rows.get(row - 1).get(col - 1);
+        return storage.getCell(row - 1, col - 1);
     }
 
     public String getValueAt(int row, int col) {
         return getCellAt(row, col).getText();
     }
 
+    /**
+     * @param row 1-based row number
+     * @param col 1-based column number
+     * @return the style of the cell, or else the default cell style of its column
+     * @throws InvalidCoordinatesException when the coordinates are outside the table
+     */
+    public Optional<Style> getCellStyle(int row, int col) {
+        getCellAt(row, col);
+        if (styles == null) {
+            return Optional.empty();
+        }
+        final int styleId = storage.getCellStyleId(row - 1, col - 1);
+        return styles.getStyle(styleId != StyleRegistry.NO_STYLE || columnStyles == null ? styleId
+                : columnStyles.getDefaultCellStyleId(col));
+    }
+
+    /**
+     * @param col 1-based column number
+     * @return the style of the column, holding its width
+     */
+    public Optional<Style> getColumnStyle(int col) {
+        return styles == null || columnStyles == null ? Optional.empty()
+                : styles.getStyle(columnStyles.getStyleId(col));
+    }
+
+    /**
+     * @param row 1-based row number
+     * @return the style of the row, holding its height
+     * @throws InvalidCoordinatesException when the row is outside the table
+     */
+    public Optional<Style> getRowStyle(int row) {
+        if (row < 1 || row > storage.getRowCount()) {
+            throw new InvalidCoordinatesException(row, 1, storage.getRowCount(), numberOfColumns);
+        }
+        return styles == null ? Optional.empty() : styles.getStyle(storage.getRowStyleId(row - 1));
+    }
+
+    /**
+     * @param a1 a cell or range address such as {@code B2:F1000}, optionally prefixed with this table name
+     * @return a view over the cells of the range, nothing is copied
+     * @throws com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException if the address cannot be parsed
+     *                                                                              or names another table
+     */
+    public TableRange range(String a1) {
+        return new TableRange(this, RangeAddress.parse(a1));
+    }
+
+    /**
+     * @param keys the columns to sort by, the first one being the most significant
+     * @return a view of the rows of this table, sorted
+     * @see TableSorter
+     */
+    public Table sortedBy(SortKey... keys) {
+        return TableSorter.builder().keys(keys).build().sort(this);
+    }
+
+    /**
+     * @param count the number of rows to keep
+     * @param keys  the columns to sort by, the first one being the most significant
+     * @return a view of the first rows of this table once sorted
+     * @see TableSorter
+     */
+    public Table top(int count, SortKey... keys) {
+        return TableSorter.builder().keys(keys).build().top(this, count);
+    }
+
+    /**
+     * @param rowIndexes the 0-based index in this table of each row of the view
+     * @return a view of the rows of this table, in another order
+     */
+    Table withRowOrder(int[] rowIndexes) {
+        return new Table(name, numberOfColumns, new PermutedTableStorage(storage, rowIndexes), styles, columnStyles);
+    }
+
+    /**
+     * Hashes the name, the cells and the style names of the table, not the style ids: tables read from the same
+     * content have the same hash, even when their documents number the styles differently. The rows of a loaded
+     * table are hashed while loading, by runs of repeated rows; the rows of other tables are hashed here, the cost
+     * growing with their area.
+     *
+     * @return the content hash of the table
+     * @see TableHasher
+     */
+    public long getContentHash() {
+        long hash = CellHasher.combine(CellHasher.combine(0L, name), numberOfColumns);
+        for (Map.Entry<String, String> namedRange : namedRanges.entrySet()) {
+            hash = CellHasher.combine(CellHasher.combine(hash, namedRange.getKey()), namedRange.getValue());
+        }
+        if (styles != null && columnStyles != null) {
+            for (int run = 0; run < columnStyles.getRunCount(); run++) {
+                hash = CellHasher.combine(hash, columnStyles.getRunEnd(run));
+                hash = CellHasher.combine(hash, styles.getName(columnStyles.getRunStyleId(run)));
+                hash = CellHasher.combine(hash, styles.getName(columnStyles.getRunDefaultCellStyleId(run)));
+            }
+        }
+        return CellHasher.combine(hash, rowsHash != null ? rowsHash : TableHasher.hash(storage, styles));
+    }
+
     public String getName() {
         return this.name;
     }
@@ -61,10 +250,65 @@ public class Table {
         return this.numberOfColumns;
     }
 
+    /**
+     * @return the rows, read on access when the storage is not in heap.
+     */
     public List<List<Cell>> getRows() {
         return this.rows;
     }
 
+    public TableStorage getStorage() {
+        return this.storage;
+    }
+
+    /**
+     * @return the statistics of the columns, when collected while loading the table
+     */
+    public Optional<TableStatistics> getStatistics() {
+        return Optional.ofNullable(this.statistics);
+    }
+
+    /**
+     * @return the cell range addresses of the named ranges declared by the table, by name. The names of different
+     * tables are independent of each other and of the names of the document.
+     */
+    public Map<String, String> getNamedRanges() {
+        return this.namedRanges;
+    }
+
+    /**
+     * @return a view over the named range of the table, empty when the name does not exist or its range is on
+     * another table, to be read with {@link Spreadsheet#range(String)}
+     * @throws com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException if the address cannot be parsed
+     */
+    public Optional<TableRange> getNamedRange(String name) {
+        final String address = namedRanges.get(name);
+        if (address == null) {
+            return Optional.empty();
+        }
+        final RangeAddress rangeAddress = RangeAddress.parse(address);
+        return rangeAddress.getTableName() == null || rangeAddress.getTableName().equals(this.name)
+                ? Optional.of(new TableRange(this, rangeAddress)) : Optional.empty();
+    }
+
+    private static final class StorageRows extends AbstractList<List<Cell>> implements RandomAccess {
+        private final TableStorage storage;
+
+        private StorageRows(TableStorage storage) {
+            this.storage = storage;
+        }
+
+        @Override
+        public List<Cell> get(int index) {
+            return storage.getRow(index);
+        }
+
+        @Override
+        public int size() {
+            return storage.getRowCount();
+        }
+    }
+
     public static class TableBuilder {
         private String name;
         private long numberOfColumns;
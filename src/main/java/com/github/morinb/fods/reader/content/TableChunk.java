@@ -0,0 +1,203 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A range of rows of a table, stored in a self-contained file: the table name, its number of columns and its header
+ * rows come with the rows, so that the chunk can be processed without the document.
+ * <p>
+ * The rows are stored as the spilled rows of a table are, compressed. The style ids are kept but the styles are not:
+ * the table of a chunk has no styles.
+ */
+public final class TableChunk {
+    private static final int MAGIC = 0x46444348;
+    private static final int VERSION = 1;
+    private static final int BLOCK_ROWS = 1024;
+
+    private final String tableName;
+    private final long numberOfColumns;
+    private final int partitionIndex;
+    private final int firstRow;
+    private final List<List<Cell>> headerRows;
+    private final List<List<Cell>> rows;
+
+    private TableChunk(String tableName, long numberOfColumns, int partitionIndex, int firstRow,
+                       List<List<Cell>> headerRows, List<List<Cell>> rows) {
+        this.tableName = tableName;
+        this.numberOfColumns = numberOfColumns;
+        this.partitionIndex = partitionIndex;
+        this.firstRow = firstRow;
+        this.headerRows = headerRows;
+        this.rows = rows;
+    }
+
+    /**
+     * Writes a chunk file, reading the rows one block at a time: the rows of a table whose storage spills to disk
+     * are not all brought back in heap.
+     *
+     * @param table          the table
+     * @param headerRowCount the number of rows at the top of the table copied in the chunk as its header
+     * @param partitionIndex the 0-based index of the chunk among the chunks of the table
+     * @param firstRow       the 1-based number of the first row of the chunk, after the header
+     * @param rowCount       the number of rows of the chunk
+     */
+    public static void write(Path path, Table table, int headerRowCount, int partitionIndex, int firstRow,
+                             int rowCount) throws IOException {
+        final List<List<Cell>> tableRows = table.getRows();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(path))))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(table.getName());
+            output.writeLong(table.getNumberOfColumns());
+            output.writeInt(partitionIndex);
+            output.writeInt(firstRow);
+            writeRows(output, tableRows.subList(0, Math.min(headerRowCount, tableRows.size())));
+            writeRows(output, tableRows.subList(firstRow - 1, firstRow - 1 + rowCount));
+        }
+    }
+
+    /**
+     * @throws StreamCorruptedException if the file is not a chunk
+     */
+    public static TableChunk read(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return readFrom(inputStream);
+        }
+    }
+
+    private static TableChunk readFrom(InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(inputStream)));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new StreamCorruptedException("Not a table chunk");
+        }
+        final String tableName = input.readUTF();
+        final long numberOfColumns = input.readLong();
+        final int partitionIndex = input.readInt();
+        final int firstRow = input.readInt();
+        final List<List<Cell>> headerRows = readRows(input);
+        final List<List<Cell>> rows = readRows(input);
+        return new TableChunk(tableName, numberOfColumns, partitionIndex, firstRow, headerRows, rows);
+    }
+
+    private static void writeRows(DataOutputStream output, List<List<Cell>> rows) throws IOException {
+        output.writeInt(rows.size());
+        for (int start = 0; start < rows.size(); start += BLOCK_ROWS) {
+            final byte[] block = RowBlockCodec.encode(rows.subList(start, Math.min(rows.size(), start + BLOCK_ROWS)));
+            output.writeInt(block.length);
+            output.write(block);
+        }
+    }
+
+    private static List<List<Cell>> readRows(DataInputStream input) throws IOException {
+        final int rowCount = input.readInt();
+        final List<List<Cell>> rows = new ArrayList<>(rowCount);
+        while (rows.size() < rowCount) {
+            final byte[] block = new byte[input.readInt()];
+            input.readFully(block);
+            rows.addAll(RowBlockCodec.decode(block));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public long getNumberOfColumns() {
+        return this.numberOfColumns;
+    }
+
+    /**
+     * @return the 0-based index of the chunk among the chunks of the table
+     */
+    public int getPartitionIndex() {
+        return this.partitionIndex;
+    }
+
+    /**
+     * @return the 1-based number in the source table of the first row of the chunk, after the header
+     */
+    public int getFirstRow() {
+        return this.firstRow;
+    }
+
+    public int getHeaderRowCount() {
+        return headerRows.size();
+    }
+
+    /**
+     * @return the number of rows of the chunk, header excluded
+     */
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    public List<List<Cell>> getHeaderRows() {
+        return this.headerRows;
+    }
+
+    /**
+     * @return the rows of the chunk, header excluded
+     */
+    public List<List<Cell>> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @return the header rows followed by the rows of the chunk, in a table named as the source table
+     */
+    public Table getTable() {
+        final List<List<Cell>> tableRows = new ArrayList<>(headerRows.size() + rows.size());
+        tableRows.addAll(headerRows);
+        tableRows.addAll(rows);
+        return new Table(tableName, numberOfColumns, Collections.unmodifiableList(tableRows));
+    }
+
+    /**
+     * @param row 1-based row number in the table of the chunk, after the header rows
+     * @return the 1-based number of the row in the source table
+     */
+    public int getSourceRow(int row) {
+        return row <= headerRows.size() ? row : firstRow + row - headerRows.size() - 1;
+    }
+
+    public String toString() {
+        return "TableChunk(tableName=" + this.tableName + ", numberOfColumns=" + this.numberOfColumns
+                + ", partitionIndex=" + this.partitionIndex + ", firstRow=" + this.firstRow + ", headerRowCount="
+                + this.headerRows.size() + ", rowCount=" + this.rows.size() + ")";
+    }
+}
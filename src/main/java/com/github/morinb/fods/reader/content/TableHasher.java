@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+
+import java.util.List;
+
+/**
+ * Content hash of the rows of a table and of their styles, as part of {@link Table#getContentHash()}.
+ * <p>
+ * Each row is hashed with the name of its style and the names of the styles its cells physically have, by column.
+ * Consecutive equal rows are hashed once and combined with their count, so that the rows repeated up to the end of a
+ * sheet cost a single row hash.
+ */
+public final class TableHasher {
+    private final StyleRegistry styles;
+    private long hash;
+    private long runRowHash;
+    private long runLength;
+
+    /**
+     * @param styles the registry naming the style ids of the rows, null to ignore the styles
+     */
+    private TableHasher(StyleRegistry styles) {
+        this.styles = styles;
+    }
+
+    /**
+     * @param rows   the appender receiving the rows of the table
+     * @param styles the registry naming the style ids of the rows
+     * @return an appender hashing the rows while they are added to the storage of a table
+     */
+    public static Collector collecting(TableStorage.Appender rows, StyleRegistry styles) {
+        return new Collector(rows, new TableHasher(styles));
+    }
+
+    /**
+     * Hashes the rows of a storage, reading the style of every cell: the cost grows with the area of the table.
+     */
+    static long hash(TableStorage storage, StyleRegistry styles) {
+        final TableHasher hasher = new TableHasher(styles);
+        for (int rowIndex = 0; rowIndex < storage.getRowCount(); rowIndex++) {
+            long rowHash = storage.getRowHash(rowIndex);
+            if (styles != null) {
+                rowHash = CellHasher.combine(rowHash, styles.getName(storage.getRowStyleId(rowIndex)));
+                final int rowSize = storage.getRow(rowIndex).size();
+                for (int columnIndex = 0; columnIndex < rowSize; columnIndex++) {
+                    rowHash = hasher.combineCellStyle(rowHash, columnIndex,
+                            storage.getCellStyleId(rowIndex, columnIndex));
+                }
+            }
+            hasher.add(rowHash);
+        }
+        return hasher.getHash();
+    }
+
+    private long hashRow(List<Cell> row) {
+        long rowHash = CellHasher.hashRow(row);
+        if (styles != null) {
+            rowHash = CellHasher.combine(rowHash, styles.getName(StyledRow.rowStyleIdOf(row)));
+            final short[] cellStyleIds = row instanceof StyledRow ? ((StyledRow) row).getCellStyleIds() : null;
+            if (cellStyleIds != null) {
+                for (int columnIndex = 0; columnIndex < cellStyleIds.length; columnIndex++) {
+                    rowHash = combineCellStyle(rowHash, columnIndex, cellStyleIds[columnIndex]);
+                }
+            }
+        }
+        return rowHash;
+    }
+
+    /**
+     * @return the hash combined with the column and the style name of a styled cell, unchanged for other cells
+     */
+    private long combineCellStyle(long rowHash, int columnIndex, int styleId) {
+        return styleId == StyleRegistry.NO_STYLE ? rowHash
+                : CellHasher.combine(CellHasher.combine(rowHash, columnIndex), styles.getName(styleId));
+    }
+
+    private void add(long rowHash) {
+        if (runLength > 0 && rowHash == runRowHash) {
+            runLength++;
+        } else {
+            hash = getHash();
+            runRowHash = rowHash;
+            runLength = 1;
+        }
+    }
+
+    private long getHash() {
+        return runLength == 0 ? hash : CellHasher.combine(CellHasher.combine(hash, runRowHash), runLength);
+    }
+
+    /**
+     * Hashes the rows while they are added to the storage of a table. A repeated row is the same instance, it is
+     * counted without being hashed again.
+     */
+    public static final class Collector implements TableStorage.Appender {
+        private final TableStorage.Appender rows;
+        private final TableHasher hasher;
+        private List<Cell> previousRow;
+
+        private Collector(TableStorage.Appender rows, TableHasher hasher) {
+            this.rows = rows;
+            this.hasher = hasher;
+        }
+
+        @Override
+        public void addRow(List<Cell> row) {
+            if (row == previousRow) {
+                hasher.runLength++;
+            } else {
+                hasher.add(hasher.hashRow(row));
+                previousRow = row;
+            }
+            rows.addRow(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.getRowCount();
+        }
+
+        @Override
+        public TableStorage build() {
+            previousRow = null;
+            return rows.build();
+        }
+
+        @Override
+        public void discard() {
+            rows.discard();
+        }
+
+        /**
+         * @return the hash of the rows added so far
+         */
+        public long getHash() {
+            return hasher.getHash();
+        }
+    }
+}
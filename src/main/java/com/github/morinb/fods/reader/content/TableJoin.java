@@ -0,0 +1,262 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Joins the rows of two tables on equal key columns, in linear time.
+ * <p>
+ * A hash table is built over the keys of the smaller table, then the rows of the other table are probed against it,
+ * by chunks of rows processed in parallel. Numeric keys are compared by value, text keys exactly, and empty keys match
+ * nothing. The result is a view: its rows are the left columns followed by the right columns, in the order of the
+ * left rows, then of the right rows matching each of them.
+ */
+public final class TableJoin {
+    private static final int PROBE_CHUNK_ROWS = 4096;
+    private static final int NO_ROW = -1;
+
+    private final int[] leftKeyIndexes;
+    private final int[] rightKeyIndexes;
+    private final JoinType type;
+    private final boolean parallel;
+
+    private TableJoin(TableJoinBuilder builder) {
+        if (builder.leftKeys.isEmpty()) {
+            throw new IllegalArgumentException("A join needs at least one key column");
+        }
+        this.leftKeyIndexes = builder.leftKeys.stream().mapToInt(column -> column - 1).toArray();
+        this.rightKeyIndexes = builder.rightKeys.stream().mapToInt(column -> column - 1).toArray();
+        this.type = builder.type;
+        this.parallel = builder.parallel;
+    }
+
+    public static TableJoinBuilder builder() {
+        return new TableJoinBuilder();
+    }
+
+    /**
+     * @return the joined rows, a view named after the left table with the columns of both tables
+     */
+    public Table join(Table left, Table right) {
+        final int[][] matches = match(left.getStorage(), right.getStorage());
+        final int leftColumns = (int) left.getNumberOfColumns();
+        final int rightColumns = (int) right.getNumberOfColumns();
+        return new Table(left.getName(), leftColumns + rightColumns, new JoinedTableStorage(left.getStorage(),
+                leftColumns, right.getStorage(), rightColumns, matches[0], matches[1]));
+    }
+
+    /**
+     * The matches are computed upfront, as for {@link #join(Table, Table)}: only the rows are built on access.
+     *
+     * @return the joined rows
+     */
+    public Stream<List<Cell>> stream(Table left, Table right) {
+        return join(left, right).getRows().stream();
+    }
+
+    /**
+     * @return the 0-based indexes of the left rows and of the matching right rows, {@link #NO_ROW} for the right row
+     * of unmatched left rows
+     */
+    private int[][] match(TableStorage left, TableStorage right) {
+        final boolean buildLeft = left.getRowCount() < right.getRowCount();
+        final TableStorage build = buildLeft ? left : right;
+        final TableStorage probe = buildLeft ? right : left;
+        final HashIndex index = new HashIndex(build, buildLeft ? leftKeyIndexes : rightKeyIndexes);
+        final int[] probeKeyIndexes = buildLeft ? rightKeyIndexes : leftKeyIndexes;
+        // left join rows are emitted while probing only when the left rows are the probed ones
+        final boolean emitUnmatched = type == JoinType.LEFT && !buildLeft;
+
+        final int chunkCount = (probe.getRowCount() + PROBE_CHUNK_ROWS - 1) / PROBE_CHUNK_ROWS;
+        final IntStream chunks = IntStream.range(0, chunkCount);
+        final List<int[]> chunkPairs = (parallel ? chunks.parallel() : chunks)
+                .mapToObj(chunk -> index.probe(probe, probeKeyIndexes, chunk * PROBE_CHUNK_ROWS,
+                        Math.min(probe.getRowCount(), (chunk + 1) * PROBE_CHUNK_ROWS), emitUnmatched))
+                .collect(Collectors.toList());
+
+        final int pairCount = chunkPairs.stream().mapToInt(pairs -> pairs[0]).sum();
+        final int[] buildRows = new int[pairCount];
+        final int[] probeRows = new int[pairCount];
+        int position = 0;
+        for (int[] pairs : chunkPairs) {
+            for (int pair = 0; pair < pairs[0]; pair++) {
+                buildRows[position] = pairs[1 + 2 * pair];
+                probeRows[position++] = pairs[2 + 2 * pair];
+            }
+        }
+        return buildLeft ? byLeftRow(buildRows, probeRows, left.getRowCount())
+                : new int[][]{probeRows, buildRows};
+    }
+
+    /**
+     * Orders the pairs by left row, keeping the order of the right rows, with a counting sort. Left rows without match
+     * are added for left joins.
+     */
+    private int[][] byLeftRow(int[] leftRows, int[] rightRows, int leftRowCount) {
+        final int[] offsets = new int[leftRowCount + 1];
+        for (int leftRow : leftRows) {
+            offsets[leftRow + 1]++;
+        }
+        if (type == JoinType.LEFT) {
+            for (int leftRow = 0; leftRow < leftRowCount; leftRow++) {
+                offsets[leftRow + 1] = Math.max(1, offsets[leftRow + 1]);
+            }
+        }
+        for (int leftRow = 0; leftRow < leftRowCount; leftRow++) {
+            offsets[leftRow + 1] += offsets[leftRow];
+        }
+        final int[] sortedLeftRows = new int[offsets[leftRowCount]];
+        final int[] sortedRightRows = new int[offsets[leftRowCount]];
+        Arrays.fill(sortedRightRows, NO_ROW);
+        final int[] next = Arrays.copyOf(offsets, leftRowCount);
+        for (int pair = 0; pair < leftRows.length; pair++) {
+            final int position = next[leftRows[pair]]++;
+            sortedLeftRows[position] = leftRows[pair];
+            sortedRightRows[position] = rightRows[pair];
+        }
+        for (int leftRow = 0; leftRow < leftRowCount; leftRow++) {
+            if (next[leftRow] < offsets[leftRow + 1]) {
+                sortedLeftRows[next[leftRow]] = leftRow;
+            }
+        }
+        return new int[][]{sortedLeftRows, sortedRightRows};
+    }
+
+    /**
+     * Chained hash table over the keys of the rows of a storage, in arrays.
+     */
+    private static final class HashIndex {
+        private final JoinKeyColumns keys;
+        private final int[] buckets;
+        private final int[] next;
+        private final int mask;
+
+        private HashIndex(TableStorage storage, int[] keyIndexes) {
+            final int rowCount = storage.getRowCount();
+            int capacity = 16;
+            while (capacity < rowCount * 2L && capacity < (1 << 30)) {
+                capacity <<= 1;
+            }
+            this.keys = new JoinKeyColumns(keyIndexes, rowCount);
+            this.buckets = new int[capacity];
+            this.next = new int[rowCount];
+            this.mask = capacity - 1;
+            Arrays.fill(buckets, NO_ROW);
+            // inserted backwards, so that each chain lists its rows in ascending order
+            for (int rowIndex = rowCount - 1; rowIndex >= 0; rowIndex--) {
+                if (keys.set(rowIndex, storage.getRow(rowIndex))) {
+                    final int bucket = bucketOf(keys.getHash(rowIndex));
+                    next[rowIndex] = buckets[bucket];
+                    buckets[bucket] = rowIndex;
+                }
+            }
+        }
+
+        /**
+         * @return the number of pairs, followed by the pairs of build row and probe row
+         */
+        private int[] probe(TableStorage storage, int[] keyIndexes, int start, int end, boolean emitUnmatched) {
+            final JoinKeyColumns probeKeys = new JoinKeyColumns(keyIndexes, 1);
+            int[] pairs = new int[1 + 2 * (end - start)];
+            int pairCount = 0;
+            for (int rowIndex = start; rowIndex < end; rowIndex++) {
+                final boolean hasKeys = probeKeys.set(0, storage.getRow(rowIndex));
+                boolean matched = false;
+                for (int buildRow = hasKeys ? buckets[bucketOf(probeKeys.getHash(0))] : NO_ROW; buildRow != NO_ROW;
+                     buildRow = next[buildRow]) {
+                    if (keys.matches(buildRow, probeKeys, 0)) {
+                        pairs = add(pairs, pairCount++, buildRow, rowIndex);
+                        matched = true;
+                    }
+                }
+                if (!matched && emitUnmatched) {
+                    pairs = add(pairs, pairCount++, NO_ROW, rowIndex);
+                }
+            }
+            pairs[0] = pairCount;
+            return pairs;
+        }
+
+        private int bucketOf(long hash) {
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private static int[] add(int[] pairs, int pair, int buildRow, int probeRow) {
+            final int[] target = 2 + 2 * pair < pairs.length ? pairs : Arrays.copyOf(pairs, pairs.length * 2 + 2);
+            target[1 + 2 * pair] = buildRow;
+            target[2 + 2 * pair] = probeRow;
+            return target;
+        }
+    }
+
+    public static class TableJoinBuilder {
+        private final List<Integer> leftKeys = new ArrayList<>();
+        private final List<Integer> rightKeys = new ArrayList<>();
+        private JoinType type = JoinType.INNER;
+        private boolean parallel = true;
+
+        TableJoinBuilder() {
+        }
+
+        /**
+         * @param leftColumn  1-based key column of the left table
+         * @param rightColumn 1-based key column of the right table, equal to the left one for matching rows
+         */
+        public TableJoinBuilder on(int leftColumn, int rightColumn) {
+            if (leftColumn < 1 || rightColumn < 1) {
+                throw new IllegalArgumentException("Join columns are 1-based : " + leftColumn + ", " + rightColumn);
+            }
+            this.leftKeys.add(leftColumn);
+            this.rightKeys.add(rightColumn);
+            return this;
+        }
+
+        /**
+         * @param type the kind of join, {@link JoinType#INNER} by default.
+         */
+        public TableJoinBuilder type(JoinType type) {
+            this.type = type;
+            return this;
+        }
+
+        /**
+         * @param parallel whether the chunks of probed rows are processed in parallel, in the common pool. True by
+         *                 default.
+         */
+        public TableJoinBuilder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        public TableJoin build() {
+            return new TableJoin(this);
+        }
+
+        public String toString() {
+            return "TableJoin.TableJoinBuilder(leftKeys=" + this.leftKeys + ", rightKeys=" + this.rightKeys
+                    + ", type=" + this.type + ", parallel=" + this.parallel + ")";
+        }
+    }
+}
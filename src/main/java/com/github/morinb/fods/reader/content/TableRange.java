@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.exceptions.InvalidCoordinatesException;
+import com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.RandomAccess;
+
+import static com.github.morinb.fods.reader.content.cell.EmptyCell.EMPTY_CELL;
+
+/**
+ * Rectangular view over the cells of a {@link Table}. Nothing is copied: every access reads the table storage.
+ * <p>
+ * Coordinates are 1-based and relative to the top left cell of the range. Cells of the range located after the last
+ * row of the table are empty.
+ */
+public class TableRange implements Iterable<List<Cell>> {
+    private final Table table;
+    private final RangeAddress address;
+    private final List<List<Cell>> rows;
+
+    TableRange(Table table, RangeAddress address) {
+        if (address.getTableName() != null && !address.getTableName().equals(table.getName())) {
+            throw new InvalidRangeAddressException(address.toString());
+        }
+        this.table = table;
+        this.address = new RangeAddress(table.getName(), address.getFirstRow(), address.getFirstColumn(),
+                address.getLastRow(), address.getLastColumn());
+        this.rows = new RangeRows();
+    }
+
+    public Table getTable() {
+        return this.table;
+    }
+
+    public RangeAddress getAddress() {
+        return this.address;
+    }
+
+    public int getRowCount() {
+        return address.getLastRow() - address.getFirstRow() + 1;
+    }
+
+    public int getColumnCount() {
+        return address.getLastColumn() - address.getFirstColumn() + 1;
+    }
+
+    /**
+     * @param row 1-based row number, relative to the range
+     * @param col 1-based column number, relative to the range
+     * @throws InvalidCoordinatesException when the coordinates are outside the range
+     */
+    public Cell getCellAt(int row, int col) {
+        if (row < 1 || row > getRowCount() || col < 1 || col > getColumnCount()) {
+            throw new InvalidCoordinatesException(row, col, getRowCount(), getColumnCount());
+        }
+        final int tableRow = address.getFirstRow() + row - 2;
+        if (tableRow >= table.getStorage().getRowCount()) {
+            return EMPTY_CELL;
+        }
+        return table.getStorage().getCell(tableRow, address.getFirstColumn() + col - 2);
+    }
+
+    public String getValueAt(int row, int col) {
+        return getCellAt(row, col).getText();
+    }
+
+    /**
+     * @return the numeric value, empty when the cell is neither a float cell nor a formula computing a number
+     */
+    public OptionalDouble getDoubleAt(int row, int col) {
+        final Cell cell = getCellAt(row, col);
+        return CellValues.isNumber(cell) ? OptionalDouble.of(CellValues.numberOf(cell)) : OptionalDouble.empty();
+    }
+
+    /**
+     * @return the boolean value, empty when the cell is not a boolean cell
+     */
+    public Optional<Boolean> getBooleanAt(int row, int col) {
+        final Cell cell = getCellAt(row, col);
+        return cell instanceof BooleanCell ? Optional.of(((BooleanCell) cell).getValue()) : Optional.empty();
+    }
+
+    /**
+     * @param a1 an address relative to this range, {@code A1} being its top left cell
+     * @return a view over a part of this range
+     * @throws InvalidCoordinatesException when the address is not inside this range
+     */
+    public TableRange range(String a1) {
+        final RangeAddress relative = RangeAddress.parse(a1);
+        if (relative.getLastRow() > getRowCount() || relative.getLastColumn() > getColumnCount()) {
+            throw new InvalidCoordinatesException(relative.getLastRow(), relative.getLastColumn(), getRowCount(),
+                    getColumnCount());
+        }
+        return new TableRange(table, new RangeAddress(table.getName(),
+                address.getFirstRow() + relative.getFirstRow() - 1,
+                address.getFirstColumn() + relative.getFirstColumn() - 1,
+                address.getFirstRow() + relative.getLastRow() - 1,
+                address.getFirstColumn() + relative.getLastColumn() - 1));
+    }
+
+    /**
+     * @return the rows of the range, each one being a view of exactly {@link #getColumnCount()} cells
+     */
+    public List<List<Cell>> getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public Iterator<List<Cell>> iterator() {
+        return rows.iterator();
+    }
+
+    public String toString() {
+        return address.toString();
+    }
+
+    private final class RangeRows extends AbstractList<List<Cell>> implements RandomAccess {
+        @Override
+        public List<Cell> get(int index) {
+            if (index < 0 || index >= getRowCount()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getRowCount());
+            }
+            return new RangeRow(index + 1);
+        }
+
+        @Override
+        public int size() {
+            return getRowCount();
+        }
+    }
+
+    private final class RangeRow extends AbstractList<Cell> implements RandomAccess {
+        private final int row;
+
+        private RangeRow(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Cell get(int index) {
+            if (index < 0 || index >= getColumnCount()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getColumnCount());
+            }
+            return getCellAt(row, index + 1);
+        }
+
+        @Override
+        public int size() {
+            return getColumnCount();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the rows of tables by one or more columns.
+ * <p>
+ * The sort keys of each row are extracted once, then row indexes are sorted, not rows: the sorted table is a view of
+ * the original one. When the keys of a table exceed the memory budget, they are sorted in runs written to temporary
+ * files, then merged a bounded number of runs at a time, in as many passes as needed. Top-N queries only keep the
+ * keys of N rows, in a bounded heap.
+ */
+public final class TableSorter {
+    private static final int MIN_MERGE_BUFFER_BYTES = 4 * 1024;
+    private static final int MAX_MERGE_BUFFER_BYTES = 64 * 1024;
+    private static final int MIN_FAN_IN = 16;
+    private static final int MAX_FAN_IN = 256;
+
+    private final SortKey[] keys;
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    private TableSorter(TableSorterBuilder builder) {
+        this.keys = builder.keys.toArray(new SortKey[0]);
+        this.memoryBudget = builder.memoryBudget;
+        this.tempDirectory = builder.tempDirectory;
+    }
+
+    public static TableSorterBuilder builder() {
+        return new TableSorterBuilder();
+    }
+
+    /**
+     * @return the sorted rows of the table, a view of its rows keeping their styles
+     * @throws UncheckedIOException if the temporary files of an external sort cannot be written or read
+     */
+    public Table sort(Table table) {
+        return table.withRowOrder(sortedRowIndexes(table));
+    }
+
+    /**
+     * @return the first N rows of the sorted table, a view of its rows keeping their styles
+     */
+    public Table top(Table table, int count) {
+        return table.withRowOrder(topRowIndexes(table, count));
+    }
+
+    /**
+     * @return the 0-based index of each row of the table, in sorted order
+     * @throws UncheckedIOException if the temporary files of an external sort cannot be written or read
+     */
+    public int[] sortedRowIndexes(Table table) {
+        final TableStorage storage = table.getStorage();
+        final int rowCount = storage.getRowCount();
+        final long slotBytes = SortKeyColumns.slotBytes(keys.length);
+        final int runCapacity = (int) Math.max(1, Math.min(rowCount, memoryBudget / slotBytes));
+        final SortKeyColumns run = new SortKeyColumns(keys, runCapacity);
+        final List<Path> runFiles = new ArrayList<>();
+        try {
+            final List<Run> runs = new ArrayList<>();
+            int runRows = 0;
+            long runBytes = 0;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                runBytes += slotBytes + run.set(runRows++, rowIndex, storage.getRow(rowIndex));
+                if (rowIndex + 1 < rowCount && (runRows == runCapacity || runBytes >= memoryBudget)) {
+                    runs.add(writeRun(run, runRows, runFiles));
+                    runRows = 0;
+                    runBytes = 0;
+                }
+            }
+            if (runs.isEmpty()) {
+                return rowsOf(run, run.sortedSlots(runRows));
+            }
+            runs.add(writeRun(run, runRows, runFiles));
+            return merge(runs, rowCount, runFiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (Path runFile : runFiles) {
+                try {
+                    Files.deleteIfExists(runFile);
+                } catch (IOException e) {
+                    // best effort, the run stays in the temporary directory
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the 0-based index of the first N rows of the table, in sorted order
+     */
+    public int[] topRowIndexes(Table table, int count) {
+        final TableStorage storage = table.getStorage();
+        final int rowCount = storage.getRowCount();
+        final int kept = Math.max(0, Math.min(count, rowCount));
+        // one more slot than kept rows, for the candidate row
+        final SortKeyColumns slots = new SortKeyColumns(keys, kept + 1);
+        final int[] heap = new int[kept];
+        int size = 0;
+        int spare = kept;
+        for (int rowIndex = 0; rowIndex < rowCount && kept > 0; rowIndex++) {
+            if (size < kept) {
+                slots.set(size, rowIndex, storage.getRow(rowIndex));
+                heap[size] = size;
+                siftUp(slots, heap, size++);
+            } else {
+                slots.set(spare, rowIndex, storage.getRow(rowIndex));
+                if (slots.compare(spare, heap[0]) < 0) {
+                    final int evicted = heap[0];
+                    heap[0] = spare;
+                    spare = evicted;
+                    siftDown(slots, heap, size);
+                }
+            }
+        }
+        final int[] rowIndexes = new int[kept];
+        final int[] sortedSlots = slots.sortedSlots(kept + 1);
+        int position = 0;
+        for (int slot : sortedSlots) {
+            if (slot != spare) {
+                rowIndexes[position++] = slots.getRow(slot);
+            }
+        }
+        return rowIndexes;
+    }
+
+    /**
+     * Moves up the slot at the position of the max-heap, the worst kept row being at the root.
+     */
+    private static void siftUp(SortKeyColumns slots, int[] heap, int position) {
+        int child = position;
+        while (child > 0) {
+            final int parent = (child - 1) / 2;
+            if (slots.compare(heap[child], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, child, parent);
+            child = parent;
+        }
+    }
+
+    private static void siftDown(SortKeyColumns slots, int[] heap, int size) {
+        int parent = 0;
+        while (2 * parent + 1 < size) {
+            int child = 2 * parent + 1;
+            if (child + 1 < size && slots.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (slots.compare(heap[parent], heap[child]) >= 0) {
+                return;
+            }
+            swap(heap, child, parent);
+            parent = child;
+        }
+    }
+
+    private static void swap(int[] values, int first, int second) {
+        final int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+
+    private static int[] rowsOf(SortKeyColumns slots, int[] sortedSlots) {
+        final int[] rowIndexes = new int[sortedSlots.length];
+        for (int position = 0; position < sortedSlots.length; position++) {
+            rowIndexes[position] = slots.getRow(sortedSlots[position]);
+        }
+        return rowIndexes;
+    }
+
+    /**
+     * @param runFiles the temporary files, where the new one is added
+     */
+    private Run writeRun(SortKeyColumns run, int runRows, List<Path> runFiles) throws IOException {
+        final Run sortedRun = newRun(runRows, runFiles);
+        try (DataOutputStream output = sortedRun.write(MAX_MERGE_BUFFER_BYTES)) {
+            for (int slot : run.sortedSlots(runRows)) {
+                run.write(slot, output);
+            }
+        }
+        return sortedRun;
+    }
+
+    private Run newRun(int rows, List<Path> runFiles) throws IOException {
+        final Path runFile = tempDirectory == null ? Files.createTempFile("fods-sort-", ".run")
+                : Files.createTempFile(tempDirectory, "fods-sort-", ".run");
+        runFiles.add(runFile);
+        return new Run(runFile, rows);
+    }
+
+    /**
+     * Merges the sorted runs, at most a fan-in of runs at a time, each merge of an intermediate pass writing a longer
+     * run. The fan-in and the read buffers are sized from the memory budget.
+     *
+     * @param runFiles the temporary files, where the intermediate runs are added
+     */
+    private int[] merge(List<Run> runs, int rowCount, List<Path> runFiles) throws IOException {
+        final int fanIn = (int) Math.max(MIN_FAN_IN, Math.min(MAX_FAN_IN, memoryBudget / MIN_MERGE_BUFFER_BYTES));
+        final int bufferBytes = (int) Math.max(MIN_MERGE_BUFFER_BYTES,
+                Math.min(MAX_MERGE_BUFFER_BYTES, memoryBudget / fanIn));
+        List<Run> pass = runs;
+        while (pass.size() > fanIn) {
+            final List<Run> nextPass = new ArrayList<>();
+            for (int first = 0; first < pass.size(); first += fanIn) {
+                final List<Run> group = pass.subList(first, Math.min(pass.size(), first + fanIn));
+                if (group.size() == 1) {
+                    nextPass.add(group.get(0));
+                    continue;
+                }
+                int rows = 0;
+                for (Run run : group) {
+                    rows += run.rows;
+                }
+                final Run merged = newRun(rows, runFiles);
+                try (DataOutputStream output = merged.write(bufferBytes)) {
+                    merge(group, bufferBytes, (heads, slot) -> heads.write(slot, output));
+                }
+                for (Run run : group) {
+                    Files.deleteIfExists(run.file);
+                }
+                nextPass.add(merged);
+            }
+            pass = nextPass;
+        }
+        final int[] rowIndexes = new int[rowCount];
+        final int[] position = {0};
+        merge(pass, bufferBytes, (heads, slot) -> rowIndexes[position[0]++] = heads.getRow(slot));
+        return rowIndexes;
+    }
+
+    /**
+     * Merges the sorted runs, keeping the current key of each run in heap.
+     */
+    private void merge(List<Run> runs, int bufferBytes, MergeSink sink) throws IOException {
+        final SortKeyColumns heads = new SortKeyColumns(keys, runs.size());
+        final DataInputStream[] inputs = new DataInputStream[runs.size()];
+        final int[] remaining = new int[runs.size()];
+        final PriorityQueue<Integer> queue = new PriorityQueue<>(runs.size(), heads::compare);
+        try {
+            for (int run = 0; run < inputs.length; run++) {
+                inputs[run] = runs.get(run).read(bufferBytes);
+                remaining[run] = inputs[run].readInt();
+                if (remaining[run]-- > 0) {
+                    heads.read(run, inputs[run]);
+                    queue.add(run);
+                }
+            }
+            while (!queue.isEmpty()) {
+                final int run = queue.remove();
+                sink.accept(heads, run);
+                if (remaining[run]-- > 0) {
+                    heads.read(run, inputs[run]);
+                    queue.add(run);
+                }
+            }
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private interface MergeSink {
+        /**
+         * @param slot the slot of the heads holding the smallest key
+         */
+        void accept(SortKeyColumns heads, int slot) throws IOException;
+    }
+
+    /**
+     * A temporary file of sort keys in sorted order, after their number.
+     */
+    private static final class Run {
+        private final Path file;
+        private final int rows;
+
+        Run(Path file, int rows) {
+            this.file = file;
+            this.rows = rows;
+        }
+
+        DataOutputStream write(int bufferBytes) throws IOException {
+            final DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), bufferBytes));
+            output.writeInt(rows);
+            return output;
+        }
+
+        DataInputStream read(int bufferBytes) throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), bufferBytes));
+        }
+    }
+
+    public static class TableSorterBuilder {
+        private final List<SortKey> keys = new ArrayList<>();
+        private long memoryBudget = Long.MAX_VALUE;
+        private Path tempDirectory;
+
+        TableSorterBuilder() {
+        }
+
+        /**
+         * @param key a column to sort by, after the keys already given
+         */
+        public TableSorterBuilder key(SortKey key) {
+            this.keys.add(key);
+            return this;
+        }
+
+        public TableSorterBuilder keys(SortKey... keys) {
+            this.keys.addAll(Arrays.asList(keys));
+            return this;
+        }
+
+        /**
+         * @param memoryBudget estimated number of bytes the sort keys may use in heap. Beyond, sorted runs are written
+         *                     to temporary files and merged. Unbounded by default.
+         */
+        public TableSorterBuilder memoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * @param tempDirectory directory of the temporary files, the default temporary directory when null.
+         */
+        public TableSorterBuilder tempDirectory(Path tempDirectory) {
+            this.tempDirectory = tempDirectory;
+            return this;
+        }
+
+        public TableSorter build() {
+            return new TableSorter(this);
+        }
+
+        public String toString() {
+            return "TableSorter.TableSorterBuilder(keys=" + this.keys + ", memoryBudget=" + this.memoryBudget
+                    + ", tempDirectory=" + this.tempDirectory + ")";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Rows of a table.
+ */
+public interface TableStorage {
+    int getRowCount();
+
+    /**
+     * @param rowIndex 0-based row index
+     * @return the cells of the row
+     */
+    List<Cell> getRow(int rowIndex);
+
+    /**
+     * @param rowIndex    0-based row index
+     * @param columnIndex 0-based column index
+     * @return the cell, an empty cell when the row is shorter
+     */
+    default Cell getCell(int rowIndex, int columnIndex) {
+        final List<Cell> row = getRow(rowIndex);
+        return columnIndex < row.size() ? row.get(columnIndex) : EmptyCell.EMPTY_CELL;
+    }
+
+    /**
+     * @param rowIndex 0-based row index
+     * @return the style id of the row
+     */
+    default int getRowStyleId(int rowIndex) {
+        return StyledRow.rowStyleIdOf(getRow(rowIndex));
+    }
+
+    /**
+     * @param rowIndex    0-based row index
+     * @param columnIndex 0-based column index
+     * @return the style id of the cell, without the default cell style of its column
+     */
+    default int getCellStyleId(int rowIndex, int columnIndex) {
+        return StyledRow.cellStyleIdOf(getRow(rowIndex), columnIndex);
+    }
+
+    /**
+     * @param rowIndex 0-based row index
+     * @return the content hash of the row, as given by {@link CellHasher#hashRow(List)}
+     */
+    default long getRowHash(int rowIndex) {
+        return CellHasher.hashRow(getRow(rowIndex));
+    }
+
+    /**
+     * @return an appender keeping every row in heap, in a flat grid.
+     */
+    static Appender inHeap() {
+        return inHeap(0);
+    }
+
+    /**
+     * @param expectedRows the expected number of rows, to size the storage upfront
+     * @return an appender keeping every row in heap, in a flat grid.
+     */
+    static Appender inHeap(int expectedRows) {
+        return new GridTableStorage(expectedRows);
+    }
+
+    /**
+     * @param heapBudget   estimated number of bytes the rows may use in heap before being moved to a temporary file
+     * @param cachedBlocks number of row blocks read back from the file kept in heap
+     * @param directory    the directory of the temporary file, null for the default temporary directory
+     * @return an appender moving the rows to a temporary file once the heap budget is exceeded.
+     */
+    static Appender spilling(long heapBudget, int cachedBlocks, Path directory) {
+        return new SpillingTableStorage(heapBudget, cachedBlocks, directory);
+    }
+
+    /**
+     * Receives the rows of a table being loaded, in order.
+     */
+    interface Appender {
+        /**
+         * @param row the cells, a {@link StyledRow} to keep their style ids
+         */
+        void addRow(List<Cell> row);
+
+        int getRowCount();
+
+        TableStorage build();
+
+        /**
+         * Releases the rows added so far, before or after {@link #build()}, when the table is given up.
+         */
+        default void discard() {
+            // the rows in heap go with the appender
+        }
+    }
+}
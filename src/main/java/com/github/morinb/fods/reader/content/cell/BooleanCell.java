@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+import com.github.morinb.fods.reader.content.CellType;
+import com.github.morinb.fods.reader.content.ValueType;
+
+public class BooleanCell implements Cell {
+    private final CharSequence text;
+    private final boolean value;
+
+    public BooleanCell(String text, boolean value) {
+        this((CharSequence) text, value);
+    }
+
+    /**
+     * @param text the cell text, possibly a lazily decoded {@link CellText}
+     */
+    public BooleanCell(CharSequence text, boolean value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    @Override
+    public CellType getCellType() {
+        return CellType.BOOLEAN;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.BOOLEAN;
+    }
+
+    public String getText() {
+        return this.text == null ? null : this.text.toString();
+    }
+
+    @Override
+    public CharSequence getTextSequence() {
+        return this.text;
+    }
+
+    public boolean getValue() {
+        return this.value;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof BooleanCell)) return false;
+        final BooleanCell other = (BooleanCell) o;
+        if (!other.canEqual((Object) this)) return false;
+        final Object this$text = this.getText();
+        final Object other$text = other.getText();
+        if (this$text == null ? other$text != null : !this$text.equals(other$text)) return false;
+        return this.getValue() == other.getValue();
+    }
+
+    protected boolean canEqual(final Object other) {
+        return other instanceof BooleanCell;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        final Object $text = this.getText();
+        result = result * PRIME + ($text == null ? 43 : $text.hashCode());
+        result = result * PRIME + (this.getValue() ? 79 : 97);
+        return result;
+    }
+}
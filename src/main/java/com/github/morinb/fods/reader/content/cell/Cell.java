@@ -25,4 +25,11 @@ public interface Cell {
     ValueType getValueType();
 
     String getText();
+
+    /**
+     * @return the text without forcing its decoding to a String.
+     */
+    default CharSequence getTextSequence() {
+        return getText();
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+import com.github.morinb.fods.reader.content.CellType;
+
+import java.util.List;
+
+/**
+ * Stable 64-bit content hashes of cells and rows.
+ * <p>
+ * A hash depends on the cell types, texts, formulas and values only, not on how the texts are stored nor on styles.
+ * Trailing empty cells are ignored, so that rows padded to different lengths have the same hash. The function does
+ * not change from one run to the next: hashes can be stored and compared later.
+ */
+public final class CellHasher {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private CellHasher() {
+        // utility class
+    }
+
+    /**
+     * @return the hash of the row, its trailing empty cells excluded
+     */
+    public static long hashRow(List<Cell> row) {
+        int length = row.size();
+        while (length > 0 && row.get(length - 1).getCellType() == CellType.EMPTY) {
+            length--;
+        }
+        long hash = FNV_OFFSET;
+        for (int index = 0; index < length; index++) {
+            hash = hashCell(hash, row.get(index));
+        }
+        return finish(hash, length);
+    }
+
+    /**
+     * @param columnIndexes the 0-based indexes of the cells to hash, in order
+     * @return the hash of these cells of the row, missing cells being empty
+     */
+    public static long hashColumns(List<Cell> row, int[] columnIndexes) {
+        long hash = FNV_OFFSET;
+        for (int columnIndex : columnIndexes) {
+            hash = hashCell(hash, columnIndex < row.size() ? row.get(columnIndex) : EmptyCell.EMPTY_CELL);
+        }
+        return finish(hash, columnIndexes.length);
+    }
+
+    /**
+     * @return the hash of the cell alone
+     */
+    public static long hashCell(Cell cell) {
+        return finish(hashCell(FNV_OFFSET, cell), 1);
+    }
+
+    /**
+     * @return the hash chained with the value, to hash a larger content
+     */
+    public static long combine(long hash, long value) {
+        return mixLong(hash, value);
+    }
+
+    /**
+     * @return the hash chained with the text, null being distinct from every text
+     */
+    public static long combine(long hash, CharSequence text) {
+        return hashChars(hash, text);
+    }
+
+    static long hashCell(long hash, Cell cell) {
+        long result = mixLong(hash, cell.getCellType().ordinal());
+        result = hashChars(result, cell.getTextSequence());
+        if (cell instanceof FormulaCell) {
+            result = hashChars(result, ((FormulaCell) cell).getFormula());
+        } else if (cell instanceof FloatCell) {
+            result = mixLong(result, Double.doubleToLongBits(((FloatCell) cell).getValue()));
+        } else if (cell instanceof BooleanCell) {
+            result = mixLong(result, ((BooleanCell) cell).getValue() ? 1 : 0);
+        }
+        return result;
+    }
+
+    /**
+     * @return the hash combined with the UTF-16 characters of the text, and with its length
+     */
+    static long hashChars(long hash, CharSequence text) {
+        if (text == null) {
+            return mixLong(hash, -1);
+        }
+        final long result = text instanceof CellText ? ((CellText) text).hashChars(hash)
+                : hashString(hash, text);
+        return mixLong(result, text.length());
+    }
+
+    static long hashString(long hash, CharSequence text) {
+        long result = hash;
+        for (int index = 0; index < text.length(); index++) {
+            result = mixChar(result, text.charAt(index));
+        }
+        return result;
+    }
+
+    static long mixChar(long hash, char character) {
+        return (hash ^ character) * FNV_PRIME;
+    }
+
+    private static long mixLong(long hash, long value) {
+        long result = hash;
+        for (int shift = 0; shift < 64; shift += 16) {
+            result = (result ^ ((value >>> shift) & 0xFFFF)) * FNV_PRIME;
+        }
+        return result;
+    }
+
+    /**
+     * Murmur3 finalizer, spreading the bits of the FNV hash.
+     */
+    private static long finish(long hash, int length) {
+        long result = mixLong(hash, length);
+        result ^= result >>> 33;
+        result *= 0xff51afd7ed558ccdL;
+        result ^= result >>> 33;
+        result *= 0xc4ceb9fe1a85ec53L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cell text stored as a slice of a byte chunk shared by the cells of a table.
+ * <p>
+ * Latin-1 texts take one byte per character, other texts are UTF-8 encoded. The text is decoded to a {@link String}
+ * on the first call to {@link #toString()} only, then cached.
+ */
+public final class CellText implements CharSequence {
+    private final byte[] chunk;
+    private final int offset;
+    private final int byteLength;
+    private final int length;
+    private final boolean latin1;
+    private String decoded;
+
+    CellText(byte[] chunk, int offset, int byteLength, int length, boolean latin1) {
+        this.chunk = chunk;
+        this.offset = offset;
+        this.byteLength = byteLength;
+        this.length = length;
+        this.latin1 = latin1;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (latin1) {
+            if (index < 0 || index >= length) {
+                throw new StringIndexOutOfBoundsException(index);
+            }
+            return (char) (chunk[offset + index] & 0xFF);
+        }
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (latin1) {
+            if (start < 0 || end > length || start > end) {
+                throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+            }
+            return new CellText(chunk, offset + start, end - start, end - start, true);
+        }
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Same as {@link CellHasher#hashChars(long, CharSequence)}, without decoding the text.
+     */
+    long hashChars(long hash) {
+        final String text = decoded;
+        if (text != null) {
+            return CellHasher.hashString(hash, text);
+        }
+        long result = hash;
+        if (latin1) {
+            for (int index = offset; index < offset + byteLength; index++) {
+                result = CellHasher.mixChar(result, (char) (chunk[index] & 0xFF));
+            }
+            return result;
+        }
+        int index = offset;
+        final int end = offset + byteLength;
+        while (index < end) {
+            final int first = chunk[index] & 0xFF;
+            if (first < 0x80) {
+                result = CellHasher.mixChar(result, (char) first);
+                index++;
+            } else if (first < 0xE0) {
+                result = CellHasher.mixChar(result, (char) (((first & 0x1F) << 6) | (chunk[index + 1] & 0x3F)));
+                index += 2;
+            } else if (first < 0xF0) {
+                result = CellHasher.mixChar(result, (char) (((first & 0x0F) << 12)
+                        | ((chunk[index + 1] & 0x3F) << 6) | (chunk[index + 2] & 0x3F)));
+                index += 3;
+            } else {
+                final int codePoint = ((first & 0x07) << 18) | ((chunk[index + 1] & 0x3F) << 12)
+                        | ((chunk[index + 2] & 0x3F) << 6) | (chunk[index + 3] & 0x3F);
+                result = CellHasher.mixChar(result, Character.highSurrogate(codePoint));
+                result = CellHasher.mixChar(result, Character.lowSurrogate(codePoint));
+                index += 4;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        String text = decoded;
+        if (text == null) {
+            text = new String(chunk, offset, byteLength, latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            decoded = text;
+        }
+        return text;
+    }
+}
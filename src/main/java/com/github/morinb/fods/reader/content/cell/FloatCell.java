@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+import com.github.morinb.fods.reader.content.CellType;
+import com.github.morinb.fods.reader.content.ValueType;
+
+public class FloatCell implements Cell {
+    private final CharSequence text;
+    private final double value;
+
+    public FloatCell(String text, double value) {
+        this((CharSequence) text, value);
+    }
+
+    /**
+     * @param text the cell text, possibly a lazily decoded {@link CellText}
+     */
+    public FloatCell(CharSequence text, double value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    @Override
+    public CellType getCellType() {
+        return CellType.FLOAT;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.FLOAT;
+    }
+
+    public String getText() {
+        return this.text == null ? null : this.text.toString();
+    }
+
+    @Override
+    public CharSequence getTextSequence() {
+        return this.text;
+    }
+
+    public double getValue() {
+        return this.value;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof FloatCell)) return false;
+        final FloatCell other = (FloatCell) o;
+        if (!other.canEqual((Object) this)) return false;
+        final Object this$text = this.getText();
+        final Object other$text = other.getText();
+        if (this$text == null ? other$text != null : !this$text.equals(other$text)) return false;
+        return Double.compare(this.getValue(), other.getValue()) == 0;
+    }
+
+    protected boolean canEqual(final Object other) {
+        return other instanceof FloatCell;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        final Object $text = this.getText();
+        result = result * PRIME + ($text == null ? 43 : $text.hashCode());
+        final long $value = Double.doubleToLongBits(this.getValue());
+        result = result * PRIME + (int) ($value >>> 32 ^ $value);
+        return result;
+    }
+}
@@ -18,15 +18,41 @@ package com.github.morinb.fods.reader.content.cell;
 
 import com.github.morinb.fods.reader.content.CellType;
 import com.github.morinb.fods.reader.content.ValueType;
+
 public class FormulaCell implements Cell {
-    private final String text;
+    private final CharSequence text;
     private final String formula;
     private final ValueType valueType;
+    private final Double value;
 
     public FormulaCell(String text, String formula, ValueType valueType) {
+        this((CharSequence) text, formula, valueType, null);
+    }
+
+    /**
+     * @param text the cell text, possibly a lazily decoded {@link CellText}
+     */
+    public FormulaCell(CharSequence text, String formula, ValueType valueType) {
+        this(text, formula, valueType, null);
+    }
+
+    /**
+     * @param value the numeric result of the formula, null when it is not a number
+     */
+    public FormulaCell(String text, String formula, ValueType valueType, Double value) {
+        this((CharSequence) text, formula, valueType, value);
+    }
+
+    /**
+     * @param text  the cell text, possibly a lazily decoded {@link CellText}
+     * @param value the numeric result of the formula, as in the {@code office:value} of a float, currency or
+     *              percentage cell, null when it is not a number
+     */
+    public FormulaCell(CharSequence text, String formula, ValueType valueType, Double value) {
         this.text = text;
         this.formula = formula;
         this.valueType = valueType;
+        this.value = value;
     }
 
     @Override
@@ -36,6 +62,11 @@ public class FormulaCell implements Cell {
 
 
     public String getText() {
+        return this.text == null ? null : this.text.toString();
+    }
+
+    @Override
+    public CharSequence getTextSequence() {
         return this.text;
     }
 
@@ -46,4 +77,48 @@ public class FormulaCell implements Cell {
     public ValueType getValueType() {
         return this.valueType;
     }
+
+    /**
+     * @return the numeric result of the formula, null when it is not a number
+     */
+    public Double getValue() {
+        return this.value;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof FormulaCell)) return false;
+        final FormulaCell other = (FormulaCell) o;
+        if (!other.canEqual((Object) this)) return false;
+        final Object this$text = this.getText();
+        final Object other$text = other.getText();
+        if (this$text == null ? other$text != null : !this$text.equals(other$text)) return false;
+        final Object this$formula = this.getFormula();
+        final Object other$formula = other.getFormula();
+        if (this$formula == null ? other$formula != null : !this$formula.equals(other$formula)) return false;
+        final Object this$valueType = this.getValueType();
+        final Object other$valueType = other.getValueType();
+        if (this$valueType == null ? other$valueType != null : !this$valueType.equals(other$valueType)) return false;
+        final Object this$value = this.getValue();
+        final Object other$value = other.getValue();
+        return this$value == null ? other$value == null : this$value.equals(other$value);
+    }
+
+    protected boolean canEqual(final Object other) {
+        return other instanceof FormulaCell;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        final Object $text = this.getText();
+        result = result * PRIME + ($text == null ? 43 : $text.hashCode());
+        final Object $formula = this.getFormula();
+        result = result * PRIME + ($formula == null ? 43 : $formula.hashCode());
+        final Object $valueType = this.getValueType();
+        result = result * PRIME + ($valueType == null ? 43 : $valueType.hashCode());
+        final Object $value = this.getValue();
+        result = result * PRIME + ($value == null ? 43 : $value.hashCode());
+        return result;
+    }
 }
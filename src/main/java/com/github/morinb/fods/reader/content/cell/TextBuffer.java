@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+/**
+ * Append-only storage of the texts of a table.
+ * <p>
+ * Texts are encoded into byte chunks growing from 1 KiB to 64 KiB, a text never spans two chunks. Not thread-safe.
+ */
+public final class TextBuffer {
+    private static final int FIRST_CHUNK_SIZE = 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024;
+
+    private byte[] chunk = new byte[0];
+    private int position;
+    private int nextChunkSize = FIRST_CHUNK_SIZE;
+
+    /**
+     * Stores a copy of the text.
+     *
+     * @param text the text to store
+     * @return a view of the stored text
+     */
+    public CellText append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    /**
+     * Stores a copy of a part of the text.
+     *
+     * @param text  the text holding the part to store
+     * @param start index of the first character of the part
+     * @param end   index after the last character of the part
+     * @return a view of the stored part
+     */
+    public CellText append(CharSequence text, int start, int end) {
+        final int length = end - start;
+        boolean latin1 = true;
+        for (int index = start; index < end && latin1; index++) {
+            latin1 = text.charAt(index) <= 0xFF;
+        }
+        final int byteLength = latin1 ? length : utf8Length(text, start, end);
+
+        final byte[] target;
+        final int offset;
+        if (byteLength > MAX_CHUNK_SIZE) {
+            // large texts get their own chunk, the current one stays open for the next small texts
+            target = new byte[byteLength];
+            offset = 0;
+        } else {
+            if (position + byteLength > chunk.length) {
+                chunk = new byte[nextChunkSize];
+                position = 0;
+                nextChunkSize = Math.min(nextChunkSize * 2, MAX_CHUNK_SIZE);
+            }
+            target = chunk;
+            offset = position;
+            position += byteLength;
+        }
+
+        if (latin1) {
+            for (int index = 0; index < length; index++) {
+                target[offset + index] = (byte) text.charAt(start + index);
+            }
+        } else {
+            encodeUtf8(text, start, end, target, offset);
+        }
+        return new CellText(target, offset, byteLength, length, latin1);
+    }
+
+    private static int utf8Length(CharSequence text, int start, int end) {
+        int byteLength = 0;
+        for (int index = start; index < end; index++) {
+            final char character = text.charAt(index);
+            if (character < 0x80) {
+                byteLength++;
+            } else if (character < 0x800) {
+                byteLength += 2;
+            } else if (!Character.isSurrogate(character)) {
+                byteLength += 3;
+            } else if (isSurrogatePair(text, index, end)) {
+                byteLength += 4;
+                index++;
+            } else {
+                // unpaired surrogate, encoded as '?'
+                byteLength++;
+            }
+        }
+        return byteLength;
+    }
+
+    private static void encodeUtf8(CharSequence text, int start, int end, byte[] target, int offset) {
+        int position = offset;
+        for (int index = start; index < end; index++) {
+            final char character = text.charAt(index);
+            if (character < 0x80) {
+                target[position++] = (byte) character;
+            } else if (character < 0x800) {
+                target[position++] = (byte) (0xC0 | character >> 6);
+                target[position++] = (byte) (0x80 | character & 0x3F);
+            } else if (!Character.isSurrogate(character)) {
+                target[position++] = (byte) (0xE0 | character >> 12);
+                target[position++] = (byte) (0x80 | character >> 6 & 0x3F);
+                target[position++] = (byte) (0x80 | character & 0x3F);
+            } else if (isSurrogatePair(text, index, end)) {
+                final int codePoint = Character.toCodePoint(character, text.charAt(++index));
+                target[position++] = (byte) (0xF0 | codePoint >> 18);
+                target[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                target[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                target[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                target[position++] = '?';
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(CharSequence text, int index, int end) {
+        return Character.isHighSurrogate(text.charAt(index)) && index + 1 < end
+                && Character.isLowSurrogate(text.charAt(index + 1));
+    }
+}
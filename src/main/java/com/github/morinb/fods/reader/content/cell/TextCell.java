@@ -20,9 +20,16 @@ import com.github.morinb.fods.reader.content.CellType;
 import com.github.morinb.fods.reader.content.ValueType;
 
 public class TextCell implements Cell {
-    private final String text;
+    private final CharSequence text;
 
     public TextCell(String text) {
+        this((CharSequence) text);
+    }
+
+    /**
+     * @param text the cell text, possibly a lazily decoded {@link CellText}
+     */
+    public TextCell(CharSequence text) {
         this.text = text;
     }
 
@@ -38,6 +45,33 @@ public class TextCell implements Cell {
     }
 
     public String getText() {
+        return this.text == null ? null : this.text.toString();
+    }
+
+    @Override
+    public CharSequence getTextSequence() {
         return this.text;
     }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof TextCell)) return false;
+        final TextCell other = (TextCell) o;
+        if (!other.canEqual((Object) this)) return false;
+        final Object this$text = this.getText();
+        final Object other$text = other.getText();
+        return this$text == null ? other$text == null : this$text.equals(other$text);
+    }
+
+    protected boolean canEqual(final Object other) {
+        return other instanceof TextCell;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        final Object $text = this.getText();
+        result = result * PRIME + ($text == null ? 43 : $text.hashCode());
+        return result;
+    }
 }
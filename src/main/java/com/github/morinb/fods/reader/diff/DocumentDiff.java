@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Changes between two versions of a document: tables added or removed, and row changes of the tables of both.
+ */
+public class DocumentDiff {
+    private final List<String> addedTables;
+    private final List<String> removedTables;
+    private final Map<String, TableDiff> tableDiffs;
+
+    public DocumentDiff(List<String> addedTables, List<String> removedTables, Map<String, TableDiff> tableDiffs) {
+        this.addedTables = Collections.unmodifiableList(addedTables);
+        this.removedTables = Collections.unmodifiableList(removedTables);
+        this.tableDiffs = Collections.unmodifiableMap(tableDiffs);
+    }
+
+    public List<String> getAddedTables() {
+        return this.addedTables;
+    }
+
+    public List<String> getRemovedTables() {
+        return this.removedTables;
+    }
+
+    /**
+     * @return the row changes of each table found in both versions, changed or not
+     */
+    public Map<String, TableDiff> getTableDiffs() {
+        return this.tableDiffs;
+    }
+
+    public Optional<TableDiff> getTableDiff(String tableName) {
+        return Optional.ofNullable(tableDiffs.get(tableName));
+    }
+
+    public boolean isEmpty() {
+        return addedTables.isEmpty() && removedTables.isEmpty()
+                && tableDiffs.values().stream().allMatch(TableDiff::isEmpty);
+    }
+
+    public String toString() {
+        return "DocumentDiff(addedTables=" + this.addedTables + ", removedTables=" + this.removedTables
+                + ", tableDiffs=" + this.tableDiffs + ")";
+    }
+}
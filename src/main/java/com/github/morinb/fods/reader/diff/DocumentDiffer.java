@@ -0,0 +1,276 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import com.github.morinb.fods.reader.OfficeDocument;
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.CellHasher;
+import com.github.morinb.fods.reader.exceptions.IncompatibleFingerprintException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the rows added, removed and modified between two versions of a document, comparing row hashes only.
+ * <p>
+ * Without key columns, rows are matched by content: rows found once in each version anchor the alignment, and the
+ * rows between two anchors are paired in order, a differing pair being a modified row. With key columns, a row of the
+ * new version is matched with the next unmatched row of the old version having the same key, and is modified when
+ * its other cells differ.
+ * <p>
+ * Rows are compared by their 64-bit hashes: two different rows reported as equal is possible, but improbable.
+ */
+public final class DocumentDiffer {
+    private static final int NONE = -1;
+    private static final int DUPLICATE = -2;
+
+    private final int[] keyColumns;
+    private final Map<String, int[]> tableKeyColumns;
+
+    private DocumentDiffer(DocumentDifferBuilder builder) {
+        this.keyColumns = builder.keyColumns;
+        this.tableKeyColumns = new HashMap<>(builder.tableKeyColumns);
+    }
+
+    public static DocumentDifferBuilder builder() {
+        return new DocumentDifferBuilder();
+    }
+
+    public DocumentFingerprint fingerprint(OfficeDocument document) {
+        return fingerprint(document.getBody().getSpreadsheet());
+    }
+
+    public DocumentFingerprint fingerprint(Spreadsheet spreadsheet) {
+        final Map<String, TableFingerprint> tables = new LinkedHashMap<>();
+        final int tableCount = spreadsheet.getTableNames().size();
+        for (int index = 0; index < tableCount; index++) {
+            final Table table = spreadsheet.getByIndex(index);
+            tables.putIfAbsent(table.getName(), fingerprint(table));
+        }
+        return new DocumentFingerprint(tables);
+    }
+
+    public TableFingerprint fingerprint(Table table) {
+        final TableStorage storage = table.getStorage();
+        final int rowCount = storage.getRowCount();
+        final long[] rowHashes = new long[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            rowHashes[rowIndex] = storage.getRowHash(rowIndex);
+        }
+        final int[] columns = keyColumnsOf(table.getName());
+        if (columns.length == 0) {
+            return new TableFingerprint(table.getName(), rowHashes, columns, null);
+        }
+        final int[] columnIndexes = Arrays.stream(columns).map(column -> column - 1).toArray();
+        final long[] keyHashes = new long[rowCount];
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            keyHashes[rowIndex] = CellHasher.hashColumns(storage.getRow(rowIndex), columnIndexes);
+        }
+        return new TableFingerprint(table.getName(), rowHashes, columns, keyHashes);
+    }
+
+    public DocumentDiff diff(OfficeDocument oldDocument, OfficeDocument newDocument) {
+        return diff(fingerprint(oldDocument), fingerprint(newDocument));
+    }
+
+    /**
+     * @param oldFingerprint the fingerprint of the old version, possibly read back from a file
+     */
+    public DocumentDiff diff(DocumentFingerprint oldFingerprint, OfficeDocument newDocument) {
+        return diff(oldFingerprint, fingerprint(newDocument));
+    }
+
+    /**
+     * @throws IncompatibleFingerprintException if the fingerprints of a table were taken with different key columns
+     */
+    public DocumentDiff diff(DocumentFingerprint oldFingerprint, DocumentFingerprint newFingerprint) {
+        final List<String> addedTables = new ArrayList<>();
+        final List<String> removedTables = new ArrayList<>();
+        final Map<String, TableDiff> tableDiffs = new LinkedHashMap<>();
+        for (Map.Entry<String, TableFingerprint> entry : newFingerprint.getTables().entrySet()) {
+            final TableFingerprint oldTable = oldFingerprint.getTables().get(entry.getKey());
+            if (oldTable == null) {
+                addedTables.add(entry.getKey());
+            } else {
+                tableDiffs.put(entry.getKey(), diff(oldTable, entry.getValue()));
+            }
+        }
+        for (String tableName : oldFingerprint.getTables().keySet()) {
+            if (!newFingerprint.getTables().containsKey(tableName)) {
+                removedTables.add(tableName);
+            }
+        }
+        return new DocumentDiff(addedTables, removedTables, tableDiffs);
+    }
+
+    /**
+     * @throws IncompatibleFingerprintException if the fingerprints were taken with different key columns
+     */
+    public TableDiff diff(TableFingerprint oldTable, TableFingerprint newTable) {
+        if (!oldTable.hasSameKeyColumns(newTable)) {
+            throw new IncompatibleFingerprintException(newTable.getTableName(), oldTable.getKeyColumns(),
+                    newTable.getKeyColumns());
+        }
+        final List<RowChange> changes = new ArrayList<>();
+        if (newTable.hasKeyColumns()) {
+            diffByKey(oldTable, newTable, changes);
+        } else {
+            diffByContent(oldTable.rowHashes(), newTable.rowHashes(), changes);
+        }
+        return new TableDiff(newTable.getTableName(), changes);
+    }
+
+    private int[] keyColumnsOf(String tableName) {
+        return tableKeyColumns.getOrDefault(tableName, keyColumns);
+    }
+
+    private static void diffByKey(TableFingerprint oldTable, TableFingerprint newTable, List<RowChange> changes) {
+        final long[] oldKeys = oldTable.keyHashes();
+        final long[] newKeys = newTable.keyHashes();
+        // first unmatched old row of each key, the next rows of the same key being chained in ascending order
+        final LongIntMap heads = new LongIntMap(oldKeys.length);
+        final int[] next = new int[oldKeys.length];
+        for (int oldIndex = oldKeys.length - 1; oldIndex >= 0; oldIndex--) {
+            next[oldIndex] = heads.put(oldKeys[oldIndex], oldIndex, NONE);
+        }
+        final boolean[] matched = new boolean[oldKeys.length];
+        for (int newIndex = 0; newIndex < newKeys.length; newIndex++) {
+            final int oldIndex = heads.get(newKeys[newIndex], NONE);
+            if (oldIndex == NONE) {
+                changes.add(new RowChange(RowChange.Type.ADDED, 0, newIndex + 1));
+                continue;
+            }
+            heads.put(newKeys[newIndex], next[oldIndex], NONE);
+            matched[oldIndex] = true;
+            if (oldTable.getRowHash(oldIndex) != newTable.getRowHash(newIndex)) {
+                changes.add(new RowChange(RowChange.Type.MODIFIED, oldIndex + 1, newIndex + 1));
+            }
+        }
+        for (int oldIndex = 0; oldIndex < matched.length; oldIndex++) {
+            if (!matched[oldIndex]) {
+                changes.add(new RowChange(RowChange.Type.REMOVED, oldIndex + 1, 0));
+            }
+        }
+    }
+
+    private static void diffByContent(long[] oldHashes, long[] newHashes, List<RowChange> changes) {
+        final LongIntMap oldRows = uniqueRows(oldHashes);
+        final LongIntMap newRows = uniqueRows(newHashes);
+        int oldStart = 0;
+        int newStart = 0;
+        for (int newIndex = 0; newIndex < newHashes.length; newIndex++) {
+            final long hash = newHashes[newIndex];
+            final int oldIndex = oldRows.get(hash, NONE);
+            // an anchor: a row found once in each version, after the previous anchor
+            if (oldIndex >= oldStart && newRows.get(hash, NONE) == newIndex) {
+                diffGap(oldHashes, oldStart, oldIndex, newHashes, newStart, newIndex, changes);
+                oldStart = oldIndex + 1;
+                newStart = newIndex + 1;
+            }
+        }
+        diffGap(oldHashes, oldStart, oldHashes.length, newHashes, newStart, newHashes.length, changes);
+    }
+
+    /**
+     * @return the index of each row hash found once, {@link #DUPLICATE} for the others
+     */
+    private static LongIntMap uniqueRows(long[] hashes) {
+        final LongIntMap rows = new LongIntMap(hashes.length);
+        for (int index = 0; index < hashes.length; index++) {
+            if (rows.put(hashes[index], index, NONE) != NONE) {
+                rows.put(hashes[index], DUPLICATE, NONE);
+            }
+        }
+        return rows;
+    }
+
+    private static void diffGap(long[] oldHashes, int oldStart, int oldEnd, long[] newHashes, int newStart, int newEnd,
+                                List<RowChange> changes) {
+        int oldFrom = oldStart;
+        int newFrom = newStart;
+        while (oldFrom < oldEnd && newFrom < newEnd && oldHashes[oldFrom] == newHashes[newFrom]) {
+            oldFrom++;
+            newFrom++;
+        }
+        int oldTo = oldEnd;
+        int newTo = newEnd;
+        while (oldTo > oldFrom && newTo > newFrom && oldHashes[oldTo - 1] == newHashes[newTo - 1]) {
+            oldTo--;
+            newTo--;
+        }
+        final int paired = Math.min(oldTo - oldFrom, newTo - newFrom);
+        for (int offset = 0; offset < paired; offset++) {
+            if (oldHashes[oldFrom + offset] != newHashes[newFrom + offset]) {
+                changes.add(new RowChange(RowChange.Type.MODIFIED, oldFrom + offset + 1, newFrom + offset + 1));
+            }
+        }
+        for (int oldIndex = oldFrom + paired; oldIndex < oldTo; oldIndex++) {
+            changes.add(new RowChange(RowChange.Type.REMOVED, oldIndex + 1, 0));
+        }
+        for (int newIndex = newFrom + paired; newIndex < newTo; newIndex++) {
+            changes.add(new RowChange(RowChange.Type.ADDED, 0, newIndex + 1));
+        }
+    }
+
+    public static class DocumentDifferBuilder {
+        private int[] keyColumns = new int[0];
+        private final Map<String, int[]> tableKeyColumns = new HashMap<>();
+
+        DocumentDifferBuilder() {
+        }
+
+        /**
+         * @param keyColumns 1-based columns identifying the rows of every table, none by default.
+         */
+        public DocumentDifferBuilder keyColumns(int... keyColumns) {
+            this.keyColumns = checkedColumns(keyColumns);
+            return this;
+        }
+
+        /**
+         * @param keyColumns 1-based columns identifying the rows of the table, instead of the default ones.
+         */
+        public DocumentDifferBuilder keyColumns(String tableName, int... keyColumns) {
+            this.tableKeyColumns.put(tableName, checkedColumns(keyColumns));
+            return this;
+        }
+
+        public DocumentDiffer build() {
+            return new DocumentDiffer(this);
+        }
+
+        private static int[] checkedColumns(int[] columns) {
+            for (int column : columns) {
+                if (column < 1) {
+                    throw new IllegalArgumentException("Key columns are 1-based : " + column);
+                }
+            }
+            return columns.clone();
+        }
+
+        public String toString() {
+            return "DocumentDiffer.DocumentDifferBuilder(keyColumns=" + Arrays.toString(this.keyColumns)
+                    + ", tableKeyColumns=" + this.tableKeyColumns.keySet() + ")";
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fingerprints of the tables of a document, by table name. Can be stored, to compute later on the changes made to
+ * the document without keeping it.
+ */
+public final class DocumentFingerprint {
+    private static final int MAGIC = 0x46445046;
+    private static final int VERSION = 1;
+
+    private final Map<String, TableFingerprint> tables;
+
+    public DocumentFingerprint(Map<String, TableFingerprint> tables) {
+        this.tables = Collections.unmodifiableMap(new LinkedHashMap<>(tables));
+    }
+
+    public Map<String, TableFingerprint> getTables() {
+        return this.tables;
+    }
+
+    public Optional<TableFingerprint> getTable(String tableName) {
+        return Optional.ofNullable(tables.get(tableName));
+    }
+
+    /**
+     * Writes the fingerprint in a compact binary form. The stream is not closed.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(tables.size());
+        for (TableFingerprint table : tables.values()) {
+            output.writeUTF(table.getTableName());
+            final int[] keyColumns = table.getKeyColumns();
+            output.writeInt(keyColumns.length);
+            for (int keyColumn : keyColumns) {
+                output.writeInt(keyColumn);
+            }
+            output.writeInt(table.getRowCount());
+            for (int rowIndex = 0; rowIndex < table.getRowCount(); rowIndex++) {
+                output.writeLong(table.getRowHash(rowIndex));
+                if (keyColumns.length > 0) {
+                    output.writeLong(table.getKeyHash(rowIndex));
+                }
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a fingerprint written by {@link #writeTo(OutputStream)}. The stream is neither buffered, so that nothing is
+     * read after the fingerprint, nor closed.
+     *
+     * @throws StreamCorruptedException if the stream does not hold a fingerprint
+     */
+    public static DocumentFingerprint readFrom(InputStream inputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(inputStream);
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new StreamCorruptedException("Not a document fingerprint");
+        }
+        final int tableCount = input.readInt();
+        final Map<String, TableFingerprint> tables = new LinkedHashMap<>();
+        for (int tableIndex = 0; tableIndex < tableCount; tableIndex++) {
+            final String tableName = input.readUTF();
+            final int[] keyColumns = new int[input.readInt()];
+            for (int index = 0; index < keyColumns.length; index++) {
+                keyColumns[index] = input.readInt();
+            }
+            final int rowCount = input.readInt();
+            final long[] rowHashes = new long[rowCount];
+            final long[] keyHashes = keyColumns.length > 0 ? new long[rowCount] : null;
+            for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                rowHashes[rowIndex] = input.readLong();
+                if (keyHashes != null) {
+                    keyHashes[rowIndex] = input.readLong();
+                }
+            }
+            tables.put(tableName, new TableFingerprint(tableName, rowHashes, keyColumns, keyHashes));
+        }
+        return new DocumentFingerprint(tables);
+    }
+}
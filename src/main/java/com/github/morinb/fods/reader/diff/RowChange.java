@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+public class RowChange {
+    public enum Type {
+        ADDED,
+        REMOVED,
+        MODIFIED,
+    }
+
+    private final Type type;
+    private final int oldRow;
+    private final int newRow;
+
+    /**
+     * @param oldRow 1-based row number in the old table, 0 for added rows
+     * @param newRow 1-based row number in the new table, 0 for removed rows
+     */
+    public RowChange(Type type, int oldRow, int newRow) {
+        this.type = type;
+        this.oldRow = oldRow;
+        this.newRow = newRow;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public int getOldRow() {
+        return this.oldRow;
+    }
+
+    public int getNewRow() {
+        return this.newRow;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof RowChange)) return false;
+        final RowChange other = (RowChange) o;
+        return this.type == other.type && this.oldRow == other.oldRow && this.newRow == other.newRow;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + this.type.hashCode();
+        result = result * PRIME + this.oldRow;
+        result = result * PRIME + this.newRow;
+        return result;
+    }
+
+    public String toString() {
+        return "RowChange(type=" + this.type + ", oldRow=" + this.oldRow + ", newRow=" + this.newRow + ")";
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Rows added, removed and modified in a table.
+ */
+public class TableDiff {
+    private final String tableName;
+    private final List<RowChange> changes;
+
+    public TableDiff(String tableName, List<RowChange> changes) {
+        this.tableName = tableName;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public List<RowChange> getChanges() {
+        return this.changes;
+    }
+
+    public List<RowChange> getChanges(RowChange.Type type) {
+        return changes.stream().filter(change -> change.getType() == type).collect(Collectors.toList());
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public String toString() {
+        return "TableDiff(tableName=" + this.tableName + ", changes=" + this.changes + ")";
+    }
+}
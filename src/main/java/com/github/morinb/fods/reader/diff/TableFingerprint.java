@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import java.util.Arrays;
+
+/**
+ * Content hashes of the rows of a table, enough to compute the changes made to the table later on.
+ */
+public final class TableFingerprint {
+    private final String tableName;
+    private final long[] rowHashes;
+    private final int[] keyColumns;
+    private final long[] keyHashes;
+
+    /**
+     * @param keyColumns the 1-based key columns, empty when the rows are identified by their position
+     * @param keyHashes  the hash of the key columns of each row, null without key columns
+     */
+    public TableFingerprint(String tableName, long[] rowHashes, int[] keyColumns, long[] keyHashes) {
+        this.tableName = tableName;
+        this.rowHashes = rowHashes;
+        this.keyColumns = keyColumns;
+        this.keyHashes = keyHashes;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public int getRowCount() {
+        return rowHashes.length;
+    }
+
+    /**
+     * @param rowIndex 0-based row index
+     */
+    public long getRowHash(int rowIndex) {
+        return rowHashes[rowIndex];
+    }
+
+    /**
+     * @param rowIndex 0-based row index
+     */
+    public long getKeyHash(int rowIndex) {
+        return keyHashes[rowIndex];
+    }
+
+    public int[] getKeyColumns() {
+        return keyColumns.clone();
+    }
+
+    public boolean hasKeyColumns() {
+        return keyColumns.length > 0;
+    }
+
+    boolean hasSameKeyColumns(TableFingerprint other) {
+        return Arrays.equals(keyColumns, other.keyColumns);
+    }
+
+    long[] rowHashes() {
+        return rowHashes;
+    }
+
+    long[] keyHashes() {
+        return keyHashes;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.exceptions;
+
+import java.util.Arrays;
+
+public class IncompatibleFingerprintException extends RuntimeException {
+    public IncompatibleFingerprintException(String tableName, int[] oldKeyColumns, int[] newKeyColumns) {
+        super(String.format("Fingerprints of table '%s' have different key columns : %s and %s", tableName,
+                Arrays.toString(oldKeyColumns), Arrays.toString(newKeyColumns)));
+    }
+}
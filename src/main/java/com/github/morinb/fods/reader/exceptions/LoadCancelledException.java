@@ -0,0 +1,31 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.exceptions;
+
+/**
+ * A document load stopped before its end, by a {@link com.github.morinb.fods.reader.LoadMonitor} or by an interrupt of
+ * the loading thread. The interrupt status of the thread is kept.
+ */
+public class LoadCancelledException extends RuntimeException {
+    public LoadCancelledException(String reason) {
+        super(String.format("Load cancelled : %s", reason));
+    }
+
+    public LoadCancelledException(String reason, Throwable cause) {
+        super(String.format("Load cancelled : %s", reason), cause);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.exceptions;
+
+import java.nio.file.Path;
+
+public class PartitionFailedException extends RuntimeException {
+    public PartitionFailedException(Path chunk, int exitCode, String errorOutput) {
+        super(String.format("Worker of chunk '%s' failed with exit code %d : %s", chunk, exitCode, errorOutput));
+    }
+}
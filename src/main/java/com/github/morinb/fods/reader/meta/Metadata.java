@@ -17,6 +17,33 @@
 package com.github.morinb.fods.reader.meta;
 
 import java.util.HashMap;
+import java.util.OptionalLong;
 
+/**
+ * Document metadata, by qualified name such as {@code dc:title} or {@code meta:generator}.
+ * <p>
+ * The {@code meta:document-statistic} attributes are stored as {@link Long}, under their own qualified name such as
+ * {@link #TABLE_COUNT}. User defined fields are stored under their name.
+ */
 public class Metadata extends HashMap<String, Object> {
+    public static final String TABLE_COUNT = "meta:table-count";
+    public static final String CELL_COUNT = "meta:cell-count";
+    public static final String ROW_COUNT = "meta:row-count";
+
+    public OptionalLong getTableCount() {
+        return getStatistic(TABLE_COUNT);
+    }
+
+    public OptionalLong getCellCount() {
+        return getStatistic(CELL_COUNT);
+    }
+
+    /**
+     * @param name the qualified name of a {@code meta:document-statistic} attribute
+     * @return the statistic, empty when the document does not provide it
+     */
+    public OptionalLong getStatistic(String name) {
+        final Object value = get(name);
+        return value instanceof Long ? OptionalLong.of((Long) value) : OptionalLong.empty();
+    }
 }
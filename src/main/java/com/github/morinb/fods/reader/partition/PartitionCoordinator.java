@@ -0,0 +1,329 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.partition;
+
+import com.github.morinb.fods.reader.exceptions.PartitionFailedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+
+/**
+ * Runs a {@link PartitionTask} on each chunk of a table in child JVMs of this host, then merges their results.
+ * <p>
+ * Each chunk is processed by its own {@link PartitionWorker} process, with at most {@code workers} processes at the
+ * same time: the heap of a single JVM only has to hold one chunk. The result of a chunk is written next to it, in a
+ * {@code .result} file.
+ * <p>
+ * Results are deserialized with an allowlist: the result type and its serializable superclasses, the strings, the
+ * boxed primitives, the arrays of those, and the classes allowed through
+ * {@link PartitionCoordinatorBuilder#allowResultClass(Class)}, such as the collections and elements of a result.
+ * Any other class in a result file fails the merge.
+ */
+public final class PartitionCoordinator {
+    private static final String RESULT_SUFFIX = ".result";
+    private static final String ERROR_SUFFIX = ".err";
+    private static final int MAX_ERROR_OUTPUT = 4096;
+
+    private final int workers;
+    private final String javaCommand;
+    private final String classPath;
+    private final List<String> jvmOptions;
+    private final List<Class<?>> allowedResultClasses;
+
+    private PartitionCoordinator(PartitionCoordinatorBuilder builder) {
+        this.workers = builder.workers;
+        this.javaCommand = builder.javaCommand;
+        this.classPath = builder.classPath;
+        this.jvmOptions = Collections.unmodifiableList(new ArrayList<>(builder.jvmOptions));
+        this.allowedResultClasses = Collections.unmodifiableList(new ArrayList<>(builder.allowedResultClasses));
+    }
+
+    public static PartitionCoordinatorBuilder builder() {
+        return new PartitionCoordinatorBuilder();
+    }
+
+    /**
+     * @param chunks    the chunk files, as written by {@link TablePartitioner}
+     * @param taskClass  the task run on each chunk, on the class path of the workers
+     * @param resultType the class of the results of the task
+     * @param merge      combines the results of two chunks, called in the order of the chunks
+     * @return the merged result of the chunks
+     * @throws PartitionFailedException if a worker fails, the other workers being stopped
+     * @throws IOException              if a worker cannot be started, or its result cannot be read or holds a class
+     *                                  not allowed
+     * @throws InterruptedException     if interrupted while waiting for the workers, which are then stopped
+     */
+    public <R extends Serializable> R run(List<Path> chunks, Class<? extends PartitionTask<R>> taskClass,
+                                          Class<R> resultType, BinaryOperator<R> merge)
+            throws IOException, InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            final Thread thread = new Thread(runnable, "fods-partition-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Future<Path>> results = new ArrayList<>(chunks.size());
+            for (Path chunk : chunks) {
+                results.add(executor.submit(() -> runWorker(chunk, taskClass)));
+            }
+            final List<Path> resultFiles = new ArrayList<>(chunks.size());
+            for (Future<Path> result : results) {
+                resultFiles.add(await(result));
+            }
+            return merge(resultFiles, resultType, merge, allowedResultClasses.toArray(new Class<?>[0]));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Merges the results written by workers, possibly run on other hosts.
+     *
+     * @param resultFiles    the result files, in the order of the chunks
+     * @param resultType     the class of the results
+     * @param merge          combines the results of two chunks
+     * @param allowedClasses the other classes a result may hold, such as its collections and their elements
+     * @return the merged result
+     * @throws IOException if a result file cannot be read, holds a class not allowed or a result of another type
+     */
+    public static <R> R merge(List<Path> resultFiles, Class<R> resultType, BinaryOperator<R> merge,
+                              Class<?>... allowedClasses) throws IOException {
+        if (resultFiles.isEmpty()) {
+            throw new IllegalArgumentException("no result to merge");
+        }
+        final List<Class<?>> allowed = new ArrayList<>(Arrays.asList(allowedClasses));
+        allowed.add(resultType);
+        R merged = null;
+        for (Path resultFile : resultFiles) {
+            try (InputStream inputStream = Files.newInputStream(resultFile);
+                 ObjectInputStream input = new ResultInputStream(inputStream, allowed)) {
+                final Object object = input.readObject();
+                if (!resultType.isInstance(object)) {
+                    throw new InvalidClassException(object == null ? "null" : object.getClass().getName(),
+                            "not a " + resultType.getName() + " result in " + resultFile);
+                }
+                final R result = resultType.cast(object);
+                merged = merged == null ? result : merge.apply(merged, result);
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unknown result class in " + resultFile, e);
+            }
+        }
+        return merged;
+    }
+
+    private Path runWorker(Path chunk, Class<?> taskClass) throws IOException, InterruptedException {
+        final Path resultFile = chunk.resolveSibling(chunk.getFileName() + RESULT_SUFFIX);
+        final Path errorFile = chunk.resolveSibling(chunk.getFileName() + ERROR_SUFFIX);
+        final List<String> command = new ArrayList<>();
+        command.add(javaCommand);
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(PartitionWorker.class.getName());
+        command.add(taskClass.getName());
+        command.add(chunk.toString());
+        command.add(resultFile.toString());
+        Files.deleteIfExists(resultFile);
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(errorFile.toFile()).start();
+        try {
+            final int exitCode = process.waitFor();
+            if (exitCode != 0 || !Files.exists(resultFile)) {
+                throw new PartitionFailedException(chunk, exitCode, errorOutput(errorFile));
+            }
+            Files.deleteIfExists(errorFile);
+            return resultFile;
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static Path await(Future<Path> result) throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return the end of the output of a failed worker
+     */
+    private static String errorOutput(Path errorFile) {
+        try {
+            final String output = new String(Files.readAllBytes(errorFile), Charset.defaultCharset()).trim();
+            return output.length() <= MAX_ERROR_OUTPUT ? output
+                    : output.substring(output.length() - MAX_ERROR_OUTPUT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getWorkers() {
+        return this.workers;
+    }
+
+    public String getJavaCommand() {
+        return this.javaCommand;
+    }
+
+    public String getClassPath() {
+        return this.classPath;
+    }
+
+    public List<String> getJvmOptions() {
+        return this.jvmOptions;
+    }
+
+    public static class PartitionCoordinatorBuilder {
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private String javaCommand = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        private String classPath = System.getProperty("java.class.path");
+        private final List<String> jvmOptions = new ArrayList<>();
+        private final List<Class<?>> allowedResultClasses = new ArrayList<>();
+
+        PartitionCoordinatorBuilder() {
+        }
+
+        /**
+         * @param workers maximum number of worker processes at the same time, one per available processor by default.
+         */
+        public PartitionCoordinatorBuilder workers(int workers) {
+            if (workers < 1) {
+                throw new IllegalArgumentException("workers must be positive : " + workers);
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * @param javaCommand the java executable of the workers, the one running this JVM by default.
+         */
+        public PartitionCoordinatorBuilder javaCommand(String javaCommand) {
+            this.javaCommand = javaCommand;
+            return this;
+        }
+
+        /**
+         * @param classPath the class path of the workers, holding the task classes, the one of this JVM by default.
+         */
+        public PartitionCoordinatorBuilder classPath(List<Path> classPath) {
+            final List<String> entries = new ArrayList<>(classPath.size());
+            classPath.forEach(entry -> entries.add(entry.toString()));
+            this.classPath = String.join(File.pathSeparator, entries);
+            return this;
+        }
+
+        /**
+         * @param jvmOption an option of the worker JVMs, such as {@code -Xmx2g}
+         */
+        public PartitionCoordinatorBuilder jvmOption(String jvmOption) {
+            this.jvmOptions.add(jvmOption);
+            return this;
+        }
+
+        /**
+         * @param allowedResultClass a class the results may hold besides their own type, such as
+         *                           {@code java.util.HashMap} for a map result
+         */
+        public PartitionCoordinatorBuilder allowResultClass(Class<?> allowedResultClass) {
+            this.allowedResultClasses.add(allowedResultClass);
+            return this;
+        }
+
+        public PartitionCoordinator build() {
+            return new PartitionCoordinator(this);
+        }
+
+        public String toString() {
+            return "PartitionCoordinator.PartitionCoordinatorBuilder(workers=" + this.workers + ", javaCommand="
+                    + this.javaCommand + ", classPath=" + this.classPath + ", jvmOptions=" + this.jvmOptions
+                    + ", allowedResultClasses=" + this.allowedResultClasses + ")";
+        }
+    }
+
+    /**
+     * Deserializes a result, only resolving the allowed classes.
+     */
+    private static final class ResultInputStream extends ObjectInputStream {
+        private static final List<Class<?>> ALWAYS_ALLOWED = Arrays.asList(String.class, Number.class,
+                Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+                Double.class, Enum.class);
+
+        private final Set<String> allowedClassNames = new HashSet<>();
+
+        ResultInputStream(InputStream inputStream, List<Class<?>> allowedClasses) throws IOException {
+            super(inputStream);
+            ALWAYS_ALLOWED.forEach(type -> allowedClassNames.add(type.getName()));
+            for (Class<?> allowedClass : allowedClasses) {
+                for (Class<?> type = allowedClass; type != null && Serializable.class.isAssignableFrom(type);
+                     type = type.getSuperclass()) {
+                    allowedClassNames.add(type.getName());
+                }
+            }
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            final String name = description.getName();
+            int dimensions = 0;
+            while (name.charAt(dimensions) == '[') {
+                dimensions++;
+            }
+            final boolean primitiveArray = dimensions > 0 && name.length() == dimensions + 1;
+            final String elementName = dimensions == 0 || primitiveArray ? name
+                    : name.substring(dimensions + 1, name.length() - 1);
+            if (!primitiveArray && !allowedClassNames.contains(elementName)) {
+                throw new InvalidClassException(name, "class not allowed in a partition result");
+            }
+            return super.resolveClass(description);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException {
+            throw new InvalidClassException(String.join(", ", interfaces), "proxy not allowed in a partition result");
+        }
+    }
+}
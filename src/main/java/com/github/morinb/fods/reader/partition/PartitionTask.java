@@ -0,0 +1,33 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.partition;
+
+import com.github.morinb.fods.reader.content.TableChunk;
+
+import java.io.Serializable;
+
+/**
+ * Processing of one chunk of a table by a worker process.
+ * <p>
+ * Implementations are instantiated by the worker through their public no-argument constructor: they must be on the
+ * class path of the workers. The results of the chunks are sent back serialized, and merged by the coordinator.
+ *
+ * @param <R> the result of a chunk
+ */
+public interface PartitionTask<R extends Serializable> {
+    R process(TableChunk chunk) throws Exception;
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.partition;
+
+import com.github.morinb.fods.reader.content.TableChunk;
+
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Entry point of a worker process: {@code PartitionWorker <task class> <chunk file> <result file>}.
+ * <p>
+ * The worker reads the chunk, gives it to a new instance of the task, and writes the serialized result. The result
+ * file only appears once complete. Workers can run on other hosts, the chunk and result files being shared or copied:
+ * the results are then merged with {@link PartitionCoordinator#merge}.
+ */
+public final class PartitionWorker {
+    private PartitionWorker() {
+        // entry point
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3) {
+            System.err.println("Usage: PartitionWorker <task class> <chunk file> <result file>");
+            System.exit(2);
+        }
+        run(args[0], Paths.get(args[1]), Paths.get(args[2]));
+    }
+
+    static void run(String taskClassName, Path chunkFile, Path resultFile) throws Exception {
+        final PartitionTask<?> task = (PartitionTask<?>) Class.forName(taskClassName).getConstructor().newInstance();
+        final Serializable result = task.process(TableChunk.read(chunkFile));
+        final Path partialFile = resultFile.resolveSibling(resultFile.getFileName() + ".part");
+        try (OutputStream outputStream = Files.newOutputStream(partialFile);
+             ObjectOutputStream output = new ObjectOutputStream(outputStream)) {
+            output.writeObject(result);
+        }
+        Files.move(partialFile, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.partition;
+
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableChunk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a table into chunk files of consecutive rows, each one holding a copy of the header rows of the table.
+ * <p>
+ * To split a table larger than the heap, read it with a
+ * {@link com.github.morinb.fods.reader.OfficeDocumentReader.OfficeDocumentReaderBuilder#tableHeapBudget(long)}: the
+ * rows are then read back from disk one block at a time while the chunks are written.
+ */
+public final class TablePartitioner {
+    private static final String CHUNK_SUFFIX = ".chunk";
+
+    private final int rowsPerPartition;
+    private final int headerRows;
+
+    private TablePartitioner(TablePartitionerBuilder builder) {
+        this.rowsPerPartition = builder.rowsPerPartition;
+        this.headerRows = builder.headerRows;
+    }
+
+    public static TablePartitionerBuilder builder() {
+        return new TablePartitionerBuilder();
+    }
+
+    /**
+     * @param directory where the chunk files are created, named after the table and the index of the chunk
+     * @return the chunk files, in the order of the rows
+     * @throws IOException if a chunk cannot be written
+     */
+    public List<Path> partition(Table table, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final int rowCount = table.getRows().size();
+        final int firstRow = Math.min(headerRows, rowCount) + 1;
+        final String prefix = table.getName().replaceAll("[^\\w.-]", "_");
+        final List<Path> chunks = new ArrayList<>();
+        for (int start = firstRow; start <= rowCount || chunks.isEmpty(); start += rowsPerPartition) {
+            final Path chunk = directory.resolve(String.format("%s-%05d%s", prefix, chunks.size(), CHUNK_SUFFIX));
+            TableChunk.write(chunk, table, headerRows, chunks.size(), start,
+                    Math.max(0, Math.min(rowsPerPartition, rowCount - start + 1)));
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    public int getRowsPerPartition() {
+        return this.rowsPerPartition;
+    }
+
+    public int getHeaderRows() {
+        return this.headerRows;
+    }
+
+    public static class TablePartitionerBuilder {
+        private int rowsPerPartition = 100_000;
+        private int headerRows = 1;
+
+        TablePartitionerBuilder() {
+        }
+
+        /**
+         * @param rowsPerPartition maximum number of rows of a chunk, header excluded, 100 000 by default.
+         */
+        public TablePartitionerBuilder rowsPerPartition(int rowsPerPartition) {
+            if (rowsPerPartition < 1) {
+                throw new IllegalArgumentException("rowsPerPartition must be positive : " + rowsPerPartition);
+            }
+            this.rowsPerPartition = rowsPerPartition;
+            return this;
+        }
+
+        /**
+         * @param headerRows number of rows at the top of the table copied in every chunk, 1 by default.
+         */
+        public TablePartitionerBuilder headerRows(int headerRows) {
+            if (headerRows < 0) {
+                throw new IllegalArgumentException("headerRows must not be negative : " + headerRows);
+            }
+            this.headerRows = headerRows;
+            return this;
+        }
+
+        public TablePartitioner build() {
+            return new TablePartitioner(this);
+        }
+
+        public String toString() {
+            return "TablePartitioner.TablePartitionerBuilder(rowsPerPartition=" + this.rowsPerPartition
+                    + ", headerRows=" + this.headerRows + ")";
+        }
+    }
+}
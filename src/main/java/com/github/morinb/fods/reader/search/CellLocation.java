@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.search;
+
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+/**
+ * A cell found by a search.
+ */
+public final class CellLocation {
+    private final Table table;
+    private final int row;
+    private final int column;
+
+    /**
+     * @param row    1-based row number
+     * @param column 1-based column number
+     */
+    public CellLocation(Table table, int row, int column) {
+        this.table = table;
+        this.row = row;
+        this.column = column;
+    }
+
+    public Table getTable() {
+        return this.table;
+    }
+
+    public String getTableName() {
+        return this.table.getName();
+    }
+
+    public int getRow() {
+        return this.row;
+    }
+
+    public int getColumn() {
+        return this.column;
+    }
+
+    public Cell getCell() {
+        return table.getCellAt(row, column);
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof CellLocation)) return false;
+        final CellLocation other = (CellLocation) o;
+        return this.table == other.table && this.row == other.row && this.column == other.column;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + System.identityHashCode(this.table);
+        result = result * PRIME + this.row;
+        result = result * PRIME + this.column;
+        return result;
+    }
+
+    public String toString() {
+        return "CellLocation(table=" + getTableName() + ", row=" + this.row + ", column=" + this.column + ")";
+    }
+}
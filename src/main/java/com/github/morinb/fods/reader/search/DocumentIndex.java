@@ -0,0 +1,261 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.search;
+
+import com.github.morinb.fods.reader.OfficeDocument;
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.Cell;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index of the cell texts of a document, for searches answered without scanning the tables.
+ * <p>
+ * Two dictionaries are built: the whole text of each cell, lower-cased, and the words of the texts, lower-cased and
+ * stripped of their accents. A word is a run of letters and digits: {@code INV-2021/0042} is made of the words
+ * {@code inv}, {@code 2021} and {@code 0042}. Terms are sorted, so exact and prefix lookups are binary searches, and
+ * their postings are kept in flat {@code int} arrays.
+ * <p>
+ * The index is a snapshot of the document content, immutable and safe to share between threads.
+ */
+public final class DocumentIndex {
+    private final List<Table> tables;
+    private final TermDictionary values;
+    private final TermDictionary words;
+
+    private DocumentIndex(List<Table> tables, TermDictionary values, TermDictionary words) {
+        this.tables = tables;
+        this.values = values;
+        this.words = words;
+    }
+
+    public static DocumentIndex of(OfficeDocument document) {
+        return of(document.getBody().getSpreadsheet());
+    }
+
+    /**
+     * Indexes every non-empty cell text of the spreadsheet, reading each table once.
+     */
+    public static DocumentIndex of(Spreadsheet spreadsheet) {
+        final int tableCount = spreadsheet.getTableNames().size();
+        final List<Table> tables = new ArrayList<>(tableCount);
+        final TermDictionary.Builder values = new TermDictionary.Builder();
+        final TermDictionary.Builder words = new TermDictionary.Builder();
+        for (int tableIndex = 0; tableIndex < tableCount; tableIndex++) {
+            final Table table = spreadsheet.getByIndex(tableIndex);
+            tables.add(table);
+            final TableStorage storage = table.getStorage();
+            for (int rowIndex = 0; rowIndex < storage.getRowCount(); rowIndex++) {
+                final List<Cell> row = storage.getRow(rowIndex);
+                for (int columnIndex = 0; columnIndex < row.size(); columnIndex++) {
+                    final String text = row.get(columnIndex).getText();
+                    if (text == null || text.isEmpty()) {
+                        continue;
+                    }
+                    final int cellTable = tableIndex;
+                    final int cellRow = rowIndex;
+                    final int cellColumn = columnIndex;
+                    values.add(text.toLowerCase(Locale.ROOT), cellTable, cellRow, cellColumn);
+                    forEachWord(text, word -> words.add(word, cellTable, cellRow, cellColumn));
+                }
+            }
+        }
+        return new DocumentIndex(Collections.unmodifiableList(tables), values.build(), words.build());
+    }
+
+    /**
+     * @return the cells whose text is the value, in document order
+     */
+    public List<CellLocation> findValue(String value) {
+        final List<CellLocation> locations = new ArrayList<>();
+        final int index = values.indexOf(value.toLowerCase(Locale.ROOT));
+        if (index >= 0) {
+            for (int posting = values.getFirstPosting(index); posting < values.getEndPosting(index); posting++) {
+                final CellLocation location = locationOf(values, posting);
+                if (value.equals(location.getCell().getText())) {
+                    locations.add(location);
+                }
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * @return the cells whose text is the value, ignoring case, in document order
+     */
+    public List<CellLocation> findValueIgnoreCase(String value) {
+        final List<CellLocation> locations = new ArrayList<>();
+        addPostings(values, values.indexOf(value.toLowerCase(Locale.ROOT)), locations);
+        return locations;
+    }
+
+    /**
+     * @param word a single word, matched ignoring case and accents
+     * @return the cells whose text holds the word, in document order
+     */
+    public List<CellLocation> findWord(String word) {
+        final List<CellLocation> locations = new ArrayList<>();
+        addPostings(words, words.indexOf(normalize(word)), locations);
+        return locations;
+    }
+
+    /**
+     * @param prefix the start of a word, matched ignoring case and accents
+     * @return the cells whose text holds a word starting with the prefix, in document order
+     */
+    public List<CellLocation> findWordPrefix(String prefix) {
+        final String normalizedPrefix = normalize(prefix);
+        final int firstWord = words.firstIndexFrom(normalizedPrefix);
+        int endWord = firstWord;
+        while (endWord < words.size() && words.getTerm(endWord).startsWith(normalizedPrefix)) {
+            endWord++;
+        }
+        if (firstWord == endWord) {
+            return new ArrayList<>();
+        }
+
+        // the matching words are consecutive, so are their postings, each word's being already in document order
+        final int firstPosting = words.getFirstPosting(firstWord);
+        final int[] postings = new int[words.getEndPosting(endWord - 1) - firstPosting];
+        for (int position = 0; position < postings.length; position++) {
+            postings[position] = firstPosting + position;
+        }
+        final int[] runStarts = new int[endWord - firstWord + 1];
+        for (int word = firstWord; word < endWord; word++) {
+            runStarts[word - firstWord] = words.getFirstPosting(word) - firstPosting;
+        }
+        runStarts[runStarts.length - 1] = postings.length;
+        final int[] sorted = mergeRuns(postings, runStarts);
+
+        final List<CellLocation> locations = new ArrayList<>(sorted.length);
+        for (int position = 0; position < sorted.length; position++) {
+            // a cell may hold several of the words
+            if (position == 0 || compare(sorted[position - 1], sorted[position]) != 0) {
+                locations.add(locationOf(words, sorted[position]));
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * @return the number of distinct words of the document
+     */
+    public int getWordCount() {
+        return words.size();
+    }
+
+    /**
+     * @return the number of distinct cell texts of the document, ignoring case
+     */
+    public int getValueCount() {
+        return values.size();
+    }
+
+    private void addPostings(TermDictionary dictionary, int index, List<CellLocation> locations) {
+        if (index < 0) {
+            return;
+        }
+        for (int posting = dictionary.getFirstPosting(index); posting < dictionary.getEndPosting(index); posting++) {
+            locations.add(locationOf(dictionary, posting));
+        }
+    }
+
+    private CellLocation locationOf(TermDictionary dictionary, int posting) {
+        return new CellLocation(tables.get(dictionary.getTable(posting)), dictionary.getRow(posting) + 1,
+                dictionary.getColumn(posting) + 1);
+    }
+
+    /**
+     * Merges sorted runs of word postings pairwise, until a single run is left.
+     *
+     * @param postings  the runs, one after the other
+     * @param runStarts the start of each run in the postings, followed by their length; overwritten
+     * @return the postings in document order, either array given or a new one
+     */
+    private int[] mergeRuns(int[] postings, int[] runStarts) {
+        int[] source = postings;
+        int[] target = new int[postings.length];
+        int runCount = runStarts.length - 1;
+        while (runCount > 1) {
+            int mergedCount = 0;
+            for (int run = 0; run < runCount; run += 2) {
+                final int start = runStarts[run];
+                final int middle = runStarts[Math.min(run + 1, runCount)];
+                final int end = runStarts[Math.min(run + 2, runCount)];
+                int left = start;
+                int right = middle;
+                int position = start;
+                while (left < middle && right < end) {
+                    target[position++] = compare(source[left], source[right]) <= 0 ? source[left++] : source[right++];
+                }
+                System.arraycopy(source, left, target, position, middle - left);
+                System.arraycopy(source, right, target, position + middle - left, end - right);
+                runStarts[mergedCount++] = start;
+            }
+            runStarts[mergedCount] = runStarts[runCount];
+            runCount = mergedCount;
+            final int[] merged = target;
+            target = source;
+            source = merged;
+        }
+        return source;
+    }
+
+    /**
+     * Compares the cells of two postings of the words in document order.
+     */
+    private int compare(int firstPosting, int secondPosting) {
+        int result = Integer.compare(words.getTable(firstPosting), words.getTable(secondPosting));
+        if (result == 0) {
+            result = Integer.compare(words.getRow(firstPosting), words.getRow(secondPosting));
+        }
+        return result != 0 ? result : Integer.compare(words.getColumn(firstPosting), words.getColumn(secondPosting));
+    }
+
+    private static void forEachWord(String text, Consumer<String> action) {
+        int start = -1;
+        for (int index = 0; index <= text.length(); index++) {
+            final boolean wordCharacter = index < text.length() && Character.isLetterOrDigit(text.charAt(index));
+            if (wordCharacter && start < 0) {
+                start = index;
+            } else if (!wordCharacter && start >= 0) {
+                action.accept(normalize(text.substring(start, index)));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * @return the word, lower-cased and without accents
+     */
+    static String normalize(String word) {
+        final String lowerCase = word.toLowerCase(Locale.ROOT);
+        for (int index = 0; index < lowerCase.length(); index++) {
+            if (lowerCase.charAt(index) >= 0x80) {
+                return Normalizer.normalize(lowerCase, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return lowerCase;
+    }
+}
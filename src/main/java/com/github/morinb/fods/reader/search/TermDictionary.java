@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sorted terms, each with the cells holding it, in flat arrays.
+ * <p>
+ * The postings of a term are {@code (table, row, column)} triples of 0-based indexes, sorted in document order, in
+ * {@code postings[3 * offsets[term]]} to {@code postings[3 * offsets[term + 1]]}.
+ */
+final class TermDictionary {
+    private final String[] terms;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private TermDictionary(String[] terms, int[] offsets, int[] postings) {
+        this.terms = terms;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    int size() {
+        return terms.length;
+    }
+
+    /**
+     * @return the index of the term, negative when absent
+     */
+    int indexOf(String term) {
+        return Arrays.binarySearch(terms, term);
+    }
+
+    /**
+     * @return the index of the first term starting with the prefix, or following it when none does
+     */
+    int firstIndexFrom(String prefix) {
+        final int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    String getTerm(int index) {
+        return terms[index];
+    }
+
+    int getFirstPosting(int index) {
+        return offsets[index];
+    }
+
+    int getEndPosting(int index) {
+        return offsets[index + 1];
+    }
+
+    int getTable(int posting) {
+        return postings[3 * posting];
+    }
+
+    int getRow(int posting) {
+        return postings[3 * posting + 1];
+    }
+
+    int getColumn(int posting) {
+        return postings[3 * posting + 2];
+    }
+
+    /**
+     * Collects the occurrences of the terms, cells being added in document order.
+     */
+    static final class Builder {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private String[] termsById = new String[256];
+        private int[] lastOccurrences = new int[256];
+        private int[] occurrences = new int[1024];
+        private int occurrenceCount;
+
+        void add(String term, int table, int row, int column) {
+            final Integer existingId = termIds.get(term);
+            final int termId;
+            if (existingId == null) {
+                termId = termIds.size();
+                termIds.put(term, termId);
+                if (termId == termsById.length) {
+                    termsById = Arrays.copyOf(termsById, termId * 2);
+                    lastOccurrences = Arrays.copyOf(lastOccurrences, termId * 2);
+                }
+                termsById[termId] = term;
+            } else {
+                termId = existingId;
+                // a term found twice in a cell gets a single posting
+                final int last = 4 * lastOccurrences[termId];
+                if (occurrences[last + 1] == table && occurrences[last + 2] == row
+                        && occurrences[last + 3] == column) {
+                    return;
+                }
+            }
+            if (4 * occurrenceCount == occurrences.length) {
+                occurrences = Arrays.copyOf(occurrences, occurrences.length * 2);
+            }
+            final int position = 4 * occurrenceCount;
+            occurrences[position] = termId;
+            occurrences[position + 1] = table;
+            occurrences[position + 2] = row;
+            occurrences[position + 3] = column;
+            lastOccurrences[termId] = occurrenceCount;
+            occurrenceCount++;
+        }
+
+        TermDictionary build() {
+            final int termCount = termIds.size();
+            final String[] terms = Arrays.copyOf(termsById, termCount);
+            Arrays.sort(terms);
+            final int[] ranks = new int[termCount];
+            for (int rank = 0; rank < termCount; rank++) {
+                ranks[termIds.get(terms[rank])] = rank;
+            }
+
+            final int[] offsets = new int[termCount + 1];
+            for (int occurrence = 0; occurrence < occurrenceCount; occurrence++) {
+                offsets[ranks[occurrences[4 * occurrence]] + 1]++;
+            }
+            for (int rank = 0; rank < termCount; rank++) {
+                offsets[rank + 1] += offsets[rank];
+            }
+            final int[] next = Arrays.copyOf(offsets, termCount);
+            final int[] postings = new int[3 * occurrenceCount];
+            for (int occurrence = 0; occurrence < occurrenceCount; occurrence++) {
+                final int posting = 3 * next[ranks[occurrences[4 * occurrence]]]++;
+                System.arraycopy(occurrences, 4 * occurrence + 1, postings, posting, 3);
+            }
+            return new TermDictionary(terms, offsets, postings);
+        }
+    }
+}
@@ -17,6 +17,12 @@
 package com.github.morinb.fods.reader.settings;
 
 
+/**
+ * A {@code config:config-item}, whose value is given by {@link ConfigType#parse(String)}.
+ * <p>
+ * Nested sets, named maps and their entries have no type and hold their items as a {@code Map<String, ConfigItem>};
+ * indexed maps have no type and hold their entries as a {@code List<Map<String, ConfigItem>>}.
+ */
 public class ConfigItem {
     private final String name;
     private final ConfigType type;
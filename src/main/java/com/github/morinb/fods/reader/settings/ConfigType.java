@@ -18,27 +18,65 @@ package com.github.morinb.fods.reader.settings;
 
 import com.github.morinb.fods.reader.exceptions.InvalidConfigTypeValueException;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 public enum ConfigType {
     INT("int"),
     SHORT("short"),
+    LONG("long"),
+    DOUBLE("double"),
     BOOLEAN("boolean"),
     STRING("string"),
-    BASE64_BINARY("base64binary"),
+    DATETIME("datetime"),
+    BASE64_BINARY("base64Binary"),
     ;
 
+    private static final Map<String, ConfigType> BY_LABEL = new HashMap<>();
+
+    static {
+        for (ConfigType configType : values()) {
+            BY_LABEL.put(configType.label, configType);
+            BY_LABEL.put(configType.label.toLowerCase(Locale.ROOT), configType);
+        }
+    }
+
     private final String label;
 
     private ConfigType(String label) {
         this.label = label;
     }
 
-    public ConfigType fromValue(String value) {
-        for (ConfigType configType : values()) {
-            if (value.equals(configType.getLabel())) {
-                return configType;
-            }
+    public static ConfigType fromValue(String value) {
+        final ConfigType configType = value == null ? null : BY_LABEL.get(value);
+        if (configType == null) {
+            throw new InvalidConfigTypeValueException(value);
+        }
+        return configType;
+    }
+
+    /**
+     * @param text the text of a {@code config:config-item} of this type
+     * @return the value as {@link Integer}, {@link Short}, {@link Long}, {@link Double}, {@link Boolean}, or the text
+     * itself for strings, date times and binaries
+     * @throws NumberFormatException if a numeric text is not a number
+     */
+    public Object parse(String text) {
+        switch (this) {
+            case INT:
+                return Integer.valueOf(text.trim());
+            case SHORT:
+                return Short.valueOf(text.trim());
+            case LONG:
+                return Long.valueOf(text.trim());
+            case DOUBLE:
+                return Double.valueOf(text.trim());
+            case BOOLEAN:
+                return Boolean.valueOf(text.trim());
+            default:
+                return text;
         }
-        throw new InvalidConfigTypeValueException(value);
     }
 
     public String getLabel() {
@@ -17,8 +17,37 @@
 package com.github.morinb.fods.reader.settings;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 
+/**
+ * The {@code config:config-item-set} elements of the document settings, in document order, each one being its
+ * items by name. The sets are also indexed by name.
+ */
 public class Settings extends ArrayList<HashMap<String, ConfigItem>> {
+    private final Map<String, HashMap<String, ConfigItem>> itemSetsByName = new HashMap<>();
+
+    /**
+     * @param name  the name of the set, such as {@code ooo:view-settings}
+     * @param items the items of the set, by name
+     */
+    public void addItemSet(String name, HashMap<String, ConfigItem> items) {
+        add(items);
+        itemSetsByName.put(name, items);
+    }
+
+    /**
+     * @return the items of the set, by name, empty when there is no such set
+     */
+    public Map<String, ConfigItem> getItemSet(String name) {
+        final Map<String, ConfigItem> items = itemSetsByName.get(name);
+        return items == null ? Collections.emptyMap() : items;
+    }
+
+    public Optional<ConfigItem> getItem(String setName, String itemName) {
+        return Optional.ofNullable(getItemSet(setName).get(itemName));
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.style;
+
+import java.util.Arrays;
+
+/**
+ * Style ids of the columns of a table, stored once per run of repeated columns.
+ */
+public final class ColumnStyles {
+    private long[] runEnds = new long[8];
+    private int[] styleIds = new int[8];
+    private int[] defaultCellStyleIds = new int[8];
+    private int runCount;
+    private long columnCount;
+
+    /**
+     * @param repeat             number of columns of the run
+     * @param styleId            id of the {@code table:style-name} of the columns
+     * @param defaultCellStyleId id of the {@code table:default-cell-style-name}, used by the cells without style
+     */
+    public void add(long repeat, int styleId, int defaultCellStyleId) {
+        if (repeat <= 0) {
+            return;
+        }
+        columnCount += repeat;
+        if (runCount > 0 && styleIds[runCount - 1] == styleId
+                && defaultCellStyleIds[runCount - 1] == defaultCellStyleId) {
+            runEnds[runCount - 1] = columnCount;
+            return;
+        }
+        if (runCount == runEnds.length) {
+            runEnds = Arrays.copyOf(runEnds, runCount * 2);
+            styleIds = Arrays.copyOf(styleIds, runCount * 2);
+            defaultCellStyleIds = Arrays.copyOf(defaultCellStyleIds, runCount * 2);
+        }
+        runEnds[runCount] = columnCount;
+        styleIds[runCount] = styleId;
+        defaultCellStyleIds[runCount] = defaultCellStyleId;
+        runCount++;
+    }
+
+    /**
+     * @param column 1-based column number
+     */
+    public int getStyleId(long column) {
+        final int run = runOf(column);
+        return run < 0 ? StyleRegistry.NO_STYLE : styleIds[run];
+    }
+
+    /**
+     * @param column 1-based column number
+     */
+    public int getDefaultCellStyleId(long column) {
+        final int run = runOf(column);
+        return run < 0 ? StyleRegistry.NO_STYLE : defaultCellStyleIds[run];
+    }
+
+    /**
+     * @return the number of runs of consecutive columns sharing their styles
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * @param run 0-based run index
+     * @return the 1-based number of the last column of the run
+     */
+    public long getRunEnd(int run) {
+        return runEnds[run];
+    }
+
+    /**
+     * @param run 0-based run index
+     */
+    public int getRunStyleId(int run) {
+        return styleIds[run];
+    }
+
+    /**
+     * @param run 0-based run index
+     */
+    public int getRunDefaultCellStyleId(int run) {
+        return defaultCellStyleIds[run];
+    }
+
+    private int runOf(long column) {
+        if (column < 1 || column > columnCount) {
+            return -1;
+        }
+        final int found = Arrays.binarySearch(runEnds, 0, runCount, column);
+        return found >= 0 ? found : -found - 1;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.style;
+
+/**
+ * A number, currency, percentage, date, time, boolean or text format, such as {@code number:number-style}.
+ */
+public final class DataStyle {
+    private final String name;
+    private final String kind;
+    private final String formatCode;
+    private final int decimalPlaces;
+
+    /**
+     * @param kind          the local name of the element, such as {@code number-style} or {@code date-style}
+     * @param formatCode    the format, written as a spreadsheet application format code such as {@code #,##0.00}
+     * @param decimalPlaces the number of decimal places, -1 when the format has no number
+     */
+    public DataStyle(String name, String kind, String formatCode, int decimalPlaces) {
+        this.name = name;
+        this.kind = kind;
+        this.formatCode = formatCode;
+        this.decimalPlaces = decimalPlaces;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getKind() {
+        return this.kind;
+    }
+
+    public String getFormatCode() {
+        return this.formatCode;
+    }
+
+    public int getDecimalPlaces() {
+        return this.decimalPlaces;
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof DataStyle)) return false;
+        final DataStyle other = (DataStyle) o;
+        if (this.name == null ? other.name != null : !this.name.equals(other.name)) return false;
+        if (this.kind == null ? other.kind != null : !this.kind.equals(other.kind)) return false;
+        if (this.formatCode == null ? other.formatCode != null
+                : !this.formatCode.equals(other.formatCode)) return false;
+        return this.decimalPlaces == other.decimalPlaces;
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + (this.name == null ? 43 : this.name.hashCode());
+        result = result * PRIME + (this.kind == null ? 43 : this.kind.hashCode());
+        result = result * PRIME + (this.formatCode == null ? 43 : this.formatCode.hashCode());
+        result = result * PRIME + this.decimalPlaces;
+        return result;
+    }
+
+    public String toString() {
+        return "DataStyle(name=" + this.name + ", kind=" + this.kind + ", formatCode=" + this.formatCode + ")";
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.style;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A cell, column, row or table style. Styles are shared: every cell using a style references the same instance.
+ * <p>
+ * The styles given by a {@link StyleRegistry} are resolved: they include the properties and the data style inherited
+ * from their parent styles and from the default style of their family.
+ */
+public final class Style {
+    public static final String COLUMN_WIDTH = "style:column-width";
+    public static final String ROW_HEIGHT = "style:row-height";
+
+    private final String name;
+    private final StyleFamily family;
+    private final String parentStyleName;
+    private final String dataStyleName;
+    private final Map<String, String> properties;
+    private final DataStyle dataStyle;
+
+    /**
+     * @param properties the attributes of the {@code style:*-properties} elements, by qualified name such as
+     *                   {@code fo:background-color}
+     */
+    public Style(String name, StyleFamily family, String parentStyleName, String dataStyleName,
+                 Map<String, String> properties, DataStyle dataStyle) {
+        this.name = name;
+        this.family = family;
+        this.parentStyleName = parentStyleName;
+        this.dataStyleName = dataStyleName;
+        this.properties = Collections.unmodifiableMap(properties);
+        this.dataStyle = dataStyle;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public StyleFamily getFamily() {
+        return this.family;
+    }
+
+    public String getParentStyleName() {
+        return this.parentStyleName;
+    }
+
+    public String getDataStyleName() {
+        return this.dataStyleName;
+    }
+
+    public Map<String, String> getProperties() {
+        return this.properties;
+    }
+
+    public Optional<String> getProperty(String qualifiedName) {
+        return Optional.ofNullable(properties.get(qualifiedName));
+    }
+
+    /**
+     * @return the number format of a cell style
+     */
+    public Optional<DataStyle> getDataStyle() {
+        return Optional.ofNullable(this.dataStyle);
+    }
+
+    /**
+     * @return the width of a column style, such as {@code 2.258cm}
+     */
+    public Optional<String> getColumnWidth() {
+        return getProperty(COLUMN_WIDTH);
+    }
+
+    /**
+     * @return the height of a row style, such as {@code 0.452cm}
+     */
+    public Optional<String> getRowHeight() {
+        return getProperty(ROW_HEIGHT);
+    }
+
+    public boolean equals(final Object o) {
+        if (o == this) return true;
+        if (!(o instanceof Style)) return false;
+        final Style other = (Style) o;
+        if (this.name == null ? other.name != null : !this.name.equals(other.name)) return false;
+        if (this.family == null ? other.family != null : !this.family.equals(other.family)) return false;
+        if (this.parentStyleName == null ? other.parentStyleName != null
+                : !this.parentStyleName.equals(other.parentStyleName)) return false;
+        if (this.dataStyleName == null ? other.dataStyleName != null
+                : !this.dataStyleName.equals(other.dataStyleName)) return false;
+        if (this.properties == null ? other.properties != null
+                : !this.properties.equals(other.properties)) return false;
+        return this.dataStyle == null ? other.dataStyle == null : this.dataStyle.equals(other.dataStyle);
+    }
+
+    public int hashCode() {
+        final int PRIME = 59;
+        int result = 1;
+        result = result * PRIME + (this.name == null ? 43 : this.name.hashCode());
+        result = result * PRIME + (this.family == null ? 43 : this.family.hashCode());
+        result = result * PRIME + (this.parentStyleName == null ? 43 : this.parentStyleName.hashCode());
+        result = result * PRIME + (this.dataStyleName == null ? 43 : this.dataStyleName.hashCode());
+        result = result * PRIME + (this.properties == null ? 43 : this.properties.hashCode());
+        result = result * PRIME + (this.dataStyle == null ? 43 : this.dataStyle.hashCode());
+        return result;
+    }
+
+    public String toString() {
+        return "Style(name=" + this.name + ", family=" + this.family + ", parentStyleName=" + this.parentStyleName
+                + ", dataStyleName=" + this.dataStyleName + ", properties=" + this.properties + ")";
+    }
+}
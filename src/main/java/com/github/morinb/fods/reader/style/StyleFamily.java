@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.style;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum StyleFamily {
+    TABLE_CELL("table-cell"),
+    TABLE_COLUMN("table-column"),
+    TABLE_ROW("table-row"),
+    TABLE("table"),
+    /**
+     * Paragraph, text, graphic and page styles, which the reader does not use.
+     */
+    OTHER(null),
+    ;
+
+    private static final Map<String, StyleFamily> BY_LABEL = new HashMap<>();
+
+    static {
+        for (StyleFamily styleFamily : values()) {
+            if (styleFamily.label != null) {
+                BY_LABEL.put(styleFamily.label, styleFamily);
+            }
+        }
+    }
+
+    private final String label;
+
+    private StyleFamily(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the family of the {@code style:family} attribute value, {@link #OTHER} when not a table family
+     */
+    public static StyleFamily fromValue(String value) {
+        final StyleFamily styleFamily = value == null ? null : BY_LABEL.get(value);
+        return styleFamily == null ? OTHER : styleFamily;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.style;
+
+import com.github.morinb.fods.reader.exceptions.LimitExceededException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Styles of a document, by compact id.
+ * <p>
+ * Cells, columns and rows only hold the id of their style, {@link #NO_STYLE} when they have none. An id is given to a
+ * style name on its first reference, before or after the style definition is read. Each style is resolved once, on
+ * first access, and the resolved instance is shared.
+ * <p>
+ * The registry is filled by the thread loading the document, and can then be read concurrently.
+ */
+public final class StyleRegistry {
+    public static final int NO_STYLE = 0;
+
+    /**
+     * Ids are stored as {@code short} in the tables.
+     */
+    public static final int MAX_STYLES = Short.MAX_VALUE;
+
+    private static final int MAX_PARENT_DEPTH = 32;
+
+    private final Map<StyleFamily, Map<String, Integer>> idsByName = new EnumMap<>(StyleFamily.class);
+    private final List<String> names = new ArrayList<>();
+    private final List<Style> definitions = new ArrayList<>();
+    private final Map<StyleFamily, Style> defaultStyles = new EnumMap<>(StyleFamily.class);
+    private final Map<String, DataStyle> dataStyles = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+    private Style[] resolvedStyles = new Style[0];
+
+    public StyleRegistry() {
+        names.add(null);
+        definitions.add(null);
+    }
+
+    /**
+     * @param family the family of the style
+     * @param name   the style name, possibly not defined yet
+     * @return the id of the style, {@link #NO_STYLE} when the name is null
+     * @throws LimitExceededException if the document has more than {@link #MAX_STYLES} styles
+     */
+    public int idOf(StyleFamily family, String name) {
+        if (name == null) {
+            return NO_STYLE;
+        }
+        final Map<String, Integer> familyIds = idsByName.computeIfAbsent(family, unused -> new HashMap<>());
+        final Integer id = familyIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (names.size() > MAX_STYLES) {
+            throw new LimitExceededException("styles", MAX_STYLES);
+        }
+        final int newId = names.size();
+        names.add(name);
+        definitions.add(null);
+        familyIds.put(name, newId);
+        return newId;
+    }
+
+    /**
+     * Records the definition of a style, as read from the document: its properties do not include the inherited ones.
+     */
+    public synchronized void define(Style style) {
+        definitions.set(idOf(style.getFamily(), style.getName()), style);
+        resolvedStyles = new Style[0];
+    }
+
+    /**
+     * Records the {@code style:default-style} of a family, inherited by all the styles of that family.
+     */
+    public synchronized void defineDefault(Style style) {
+        defaultStyles.put(style.getFamily(), style);
+        resolvedStyles = new Style[0];
+    }
+
+    public synchronized void defineDataStyle(DataStyle dataStyle) {
+        dataStyles.put(dataStyle.getName(), dataStyle);
+        resolvedStyles = new Style[0];
+    }
+
+    /**
+     * @return the same instance for equal property names and values, so that styles share them
+     */
+    public String intern(String value) {
+        final String interned = strings.putIfAbsent(value, value);
+        return interned == null ? value : interned;
+    }
+
+    /**
+     * @return the resolved style, empty for {@link #NO_STYLE} and for styles referenced but not defined
+     */
+    public synchronized Optional<Style> getStyle(int id) {
+        if (id <= NO_STYLE || id >= definitions.size()) {
+            return Optional.empty();
+        }
+        if (resolvedStyles.length != definitions.size()) {
+            resolvedStyles = new Style[definitions.size()];
+        }
+        if (resolvedStyles[id] == null) {
+            resolvedStyles[id] = resolve(definitions.get(id));
+        }
+        return Optional.ofNullable(resolvedStyles[id]);
+    }
+
+    public Optional<Style> getStyle(StyleFamily family, String name) {
+        final Map<String, Integer> familyIds = idsByName.get(family);
+        final Integer id = familyIds == null ? null : familyIds.get(name);
+        return id == null ? Optional.empty() : getStyle(id);
+    }
+
+    public synchronized Optional<DataStyle> getDataStyle(String name) {
+        return Optional.ofNullable(dataStyles.get(name));
+    }
+
+    /**
+     * @return the name of the style, null for {@link #NO_STYLE} and unknown ids
+     */
+    public String getName(int id) {
+        return id <= NO_STYLE || id >= names.size() ? null : names.get(id);
+    }
+
+    /**
+     * Compares the styles as read from the documents, whatever the ids given to them.
+     *
+     * @return true when both registries define the same styles, default styles and data styles
+     */
+    public boolean hasSameDefinitions(StyleRegistry other) {
+        return definitionsByName().equals(other.definitionsByName());
+    }
+
+    private synchronized List<Object> definitionsByName() {
+        final Map<StyleFamily, Map<String, Style>> stylesByName = new EnumMap<>(StyleFamily.class);
+        for (Style definition : definitions) {
+            if (definition != null) {
+                stylesByName.computeIfAbsent(definition.getFamily(), unused -> new HashMap<>())
+                        .put(definition.getName(), definition);
+            }
+        }
+        return Arrays.asList(stylesByName, new EnumMap<>(defaultStyles), new HashMap<>(dataStyles));
+    }
+
+    /**
+     * @return the number of style names, defined or only referenced
+     */
+    public int size() {
+        return names.size() - 1;
+    }
+
+    private Style resolve(Style definition) {
+        if (definition == null) {
+            return null;
+        }
+        final Deque<Style> lineage = new ArrayDeque<>();
+        for (Style style = definition; style != null && lineage.size() < MAX_PARENT_DEPTH; style = parentOf(style)) {
+            lineage.push(style);
+        }
+        final Map<String, String> properties = new HashMap<>();
+        final Style defaultStyle = defaultStyles.get(definition.getFamily());
+        String dataStyleName = null;
+        if (defaultStyle != null) {
+            properties.putAll(defaultStyle.getProperties());
+            dataStyleName = defaultStyle.getDataStyleName();
+        }
+        for (Style style : lineage) {
+            properties.putAll(style.getProperties());
+            if (style.getDataStyleName() != null) {
+                dataStyleName = style.getDataStyleName();
+            }
+        }
+        return new Style(definition.getName(), definition.getFamily(), definition.getParentStyleName(),
+                dataStyleName, properties, dataStyleName == null ? null : dataStyles.get(dataStyleName));
+    }
+
+    private Style parentOf(Style style) {
+        if (style.getParentStyleName() == null) {
+            return null;
+        }
+        final Map<String, Integer> familyIds = idsByName.get(style.getFamily());
+        final Integer parentId = familyIds == null ? null : familyIds.get(style.getParentStyleName());
+        return parentId == null ? null : definitions.get(parentId);
+    }
+}
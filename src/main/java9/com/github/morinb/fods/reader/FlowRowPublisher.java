@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link RowPublisher} as a {@code java.util.concurrent.Flow.Publisher}, for reactive libraries.
+ * <p>
+ * Only in the Java 9 part of the multi-release jar: the signals and the demand go straight to the row publisher,
+ * whose contract is the one of {@link Flow}.
+ */
+public final class FlowRowPublisher implements Flow.Publisher<Row> {
+    private final RowPublisher publisher;
+
+    public FlowRowPublisher(RowPublisher publisher) {
+        this.publisher = Objects.requireNonNull(publisher, "publisher");
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Row> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        publisher.subscribe(new RowSubscriber() {
+            @Override
+            public void onSubscribe(RowSubscription subscription) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        subscription.request(n);
+                    }
+
+                    @Override
+                    public void cancel() {
+                        subscription.cancel();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(Row row) {
+                subscriber.onNext(row);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+    }
+
+    public String toString() {
+        return "FlowRowPublisher(publisher=" + this.publisher + ")";
+    }
+}
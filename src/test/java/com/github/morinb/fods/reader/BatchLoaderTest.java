@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.exceptions.InvalidDocumentException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    @Test
+    void testLoadDirectory(@TempDir Path directory) throws Exception {
+        for (int index = 0; index < 20; index++) {
+            copyResource("/fods/simple/TwoSheets.fods", directory.resolve("TwoSheets" + index + ".fods"));
+            copyResource("/ods/simple/TwoSheets.ods", directory.resolve("TwoSheets" + index + ".ods"));
+        }
+        Files.createFile(directory.resolve("ignored.txt"));
+
+        final Map<Path, OfficeDocument> loaded = new ConcurrentHashMap<>();
+        final Map<Path, Throwable> failed = new ConcurrentHashMap<>();
+        try (BatchLoader batchLoader = new BatchLoader(3)) {
+            batchLoader.loadDirectory(directory, loaded::put, failed::put).get();
+        }
+
+        assertEquals(40, loaded.size());
+        assertTrue(failed.isEmpty());
+        for (OfficeDocument officeDocument : loaded.values()) {
+            assertEquals("Sp2D5", officeDocument.getBody().getSpreadsheet().getByIndex(1).getValueAt(5, 4));
+        }
+    }
+
+    @Test
+    void testFailureIsReportedPerFile(@TempDir Path directory) throws Exception {
+        final Path existing = directory.resolve("TwoSheets.fods");
+        copyResource("/fods/simple/TwoSheets.fods", existing);
+
+        try (BatchLoader batchLoader = new BatchLoader(2)) {
+            final List<CompletableFuture<OfficeDocument>> results =
+                    batchLoader.submitAll(Arrays.asList(directory.resolve("missing.fods"), existing));
+
+            final ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(0).get());
+            assertTrue(failure.getCause() instanceof NoSuchFileException);
+            assertEquals(2, results.get(1).get().getBody().getSpreadsheet().getTableNames().size());
+        }
+    }
+
+    @Test
+    void testInvalidDocumentIsReported(@TempDir Path directory) throws Exception {
+        Files.write(directory.resolve("broken.fods"), "<office:document>".getBytes(StandardCharsets.UTF_8));
+
+        final Map<Path, Throwable> failed = new ConcurrentHashMap<>();
+        try (BatchLoader batchLoader = new BatchLoader(OfficeDocumentReader.builder().build(), 1)) {
+            batchLoader.loadDirectory(directory, (path, document) -> {
+            }, failed::put).get();
+        }
+
+        assertEquals(1, failed.size());
+        assertTrue(failed.values().iterator().next() instanceof InvalidDocumentException);
+    }
+
+    @Test
+    void testCloseRestoresTheInterruptStatus(@TempDir Path directory) throws Exception {
+        final Path document = directory.resolve("TwoSheets.fods");
+        copyResource("/fods/simple/TwoSheets.fods", document);
+
+        final BatchLoader batchLoader = new BatchLoader(1);
+        final CompletableFuture<OfficeDocument> result = batchLoader.submit(document);
+        Thread.currentThread().interrupt();
+        batchLoader.close();
+
+        assertTrue(Thread.interrupted());
+        assertTrue(result.isDone());
+    }
+
+    private void copyResource(String resource, Path target) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(resource)) {
+            Files.copy(inputStream, target);
+        }
+    }
+}
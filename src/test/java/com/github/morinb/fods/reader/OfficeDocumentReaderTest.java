@@ -0,0 +1,500 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.ColumnStatistics;
+import com.github.morinb.fods.reader.content.SortKey;
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableJoin;
+import com.github.morinb.fods.reader.content.TableRange;
+import com.github.morinb.fods.reader.content.TableStatistics;
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.exceptions.InvalidDocumentException;
+import com.github.morinb.fods.reader.exceptions.LimitExceededException;
+import com.github.morinb.fods.reader.exceptions.LoadCancelledException;
+import com.github.morinb.fods.reader.style.StyleRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfficeDocumentReaderTest {
+    private static final String DOCUMENT_START = "<office:document"
+            + " xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+            + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+            + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\">"
+            + "<office:body><office:spreadsheet><table:table table:name=\"Bomb\">"
+            + "<table:table-column table:number-columns-repeated=\"16384\"/>"
+            + "<table:table-row><table:table-cell office:value-type=\"string\"><text:p>A1</text:p></table:table-cell>"
+            + "<table:table-cell table:number-columns-repeated=\"16383\"/></table:table-row>";
+    private static final String DOCUMENT_END = "</table:table></office:spreadsheet></office:body></office:document>";
+
+    private static final String REPEAT_BOMB = DOCUMENT_START
+            + "<table:table-row table:number-rows-repeated=\"1048575\">"
+            + "<table:table-cell table:number-columns-repeated=\"16384\"/></table:table-row>"
+            + DOCUMENT_END;
+
+    @Test
+    void testRepeatBombFailsFast() {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().maxRows(1000).maxColumns(100).build();
+
+        final LimitExceededException exception = assertThrows(LimitExceededException.class,
+                () -> read(reader, REPEAT_BOMB));
+        assertEquals("Limit exceeded : columns is limited to 100", exception.getMessage());
+    }
+
+    @Test
+    void testRepeatBombIsClamped() throws IOException {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder()
+                .maxRows(1000).maxColumns(100).maxCells(50_000).clampEmptyRepeats(true).build();
+
+        final Table table = read(reader, REPEAT_BOMB).getBody().getSpreadsheet().getByIndex(0);
+        assertEquals(100, table.getNumberOfColumns());
+        assertEquals(500, table.getRows().size());
+        assertEquals(100, table.getRows().get(0).size());
+        assertEquals("A1", table.getValueAt(1, 1));
+    }
+
+    @Test
+    void testContentOverLimitFailsEvenWhenClamping() {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder()
+                .maxRows(2).maxColumns(16384).clampEmptyRepeats(true).build();
+        final String document = DOCUMENT_START
+                + "<table:table-row table:number-rows-repeated=\"5\"><table:table-cell/></table:table-row>"
+                + "<table:table-row><table:table-cell office:value-type=\"string\"><text:p>A7</text:p>"
+                + "</table:table-cell></table:table-row>"
+                + DOCUMENT_END;
+
+        assertThrows(LimitExceededException.class, () -> read(reader, document));
+    }
+
+    @Test
+    void testInputBytesAndTextLengthLimits() {
+        assertThrows(LimitExceededException.class,
+                () -> read(OfficeDocumentReader.builder().maxInputBytes(100).build(), REPEAT_BOMB));
+        assertThrows(LimitExceededException.class,
+                () -> read(OfficeDocumentReader.builder().maxTextLength(1).build(), REPEAT_BOMB));
+        final String tabs = DOCUMENT_START + "<table:table-row><table:table-cell office:value-type=\"string\"><text:p>"
+                + "<text:tab/><text:tab/><text:line-break/><text:tab/></text:p></table:table-cell></table:table-row>"
+                + DOCUMENT_END;
+        assertThrows(LimitExceededException.class,
+                () -> read(OfficeDocumentReader.builder().maxTextLength(3).build(), tabs));
+    }
+
+    @Test
+    void testRepeatCountMustBePositive() {
+        for (String repeat : Arrays.asList("table:number-rows-repeated=\"0\"", "table:number-rows-repeated=\"-3\"")) {
+            final String document = DOCUMENT_START + "<table:table-row " + repeat + "><table:table-cell/>"
+                    + "</table:table-row>" + DOCUMENT_END;
+            assertThrows(InvalidDocumentException.class, () -> read(OfficeDocumentReader.builder().build(), document));
+        }
+        final String columns = DOCUMENT_START + "<table:table-row>"
+                + "<table:table-cell table:number-columns-repeated=\"-1\"/></table:table-row>" + DOCUMENT_END;
+        assertThrows(InvalidDocumentException.class, () -> read(OfficeDocumentReader.builder().build(), columns));
+    }
+
+    @Test
+    void testRowsSpillToDisk(@TempDir Path spillDirectory) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OfficeDocumentWriter writer = new OfficeDocumentWriter(outputStream)) {
+            writer.startTable("Large", 3);
+            for (int index = 0; index < 5000; index++) {
+                writer.writeRow(Arrays.asList(new TextCell("row" + index), new FloatCell(null, index),
+                        index % 7 == 0 ? EmptyCell.EMPTY_CELL : new BooleanCell("VRAI", true)));
+            }
+        }
+        final OfficeDocumentReader heapReader = OfficeDocumentReader.builder().build();
+        final OfficeDocumentReader spillingReader = OfficeDocumentReader.builder()
+                .tableHeapBudget(10_000).spillCachedBlocks(2).spillDirectory(spillDirectory).build();
+
+        final Table inHeap = heapReader.read(new ByteArrayInputStream(outputStream.toByteArray()))
+                .getBody().getSpreadsheet().getByIndex(0);
+        final Table spilled = spillingReader.read(new ByteArrayInputStream(outputStream.toByteArray()))
+                .getBody().getSpreadsheet().getByIndex(0);
+
+        assertEquals(5000, spilled.getRows().size());
+        assertEquals("row4999", spilled.getValueAt(5000, 1));
+        assertEquals("row0", spilled.getValueAt(1, 1));
+        assertEquals(inHeap.getRows(), spilled.getRows());
+        if (!System.getProperty("os.name").startsWith("Windows")) {
+            // the temporary file is unlinked as soon as it is opened
+            try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+                assertEquals(0, spillFiles.count());
+            }
+        }
+    }
+
+    @Test
+    void testNamedRanges() throws IOException {
+        final String document = DOCUMENT_START
+                + "<table:table-row><table:table-cell office:value-type=\"float\" office:value=\"2\">"
+                + "<text:p>2</text:p></table:table-cell></table:table-row>"
+                + "<table:named-expressions><table:named-range table:name=\"Header\""
+                + " table:cell-range-address=\"$Bomb.$B$1:.$B$1\"/></table:named-expressions>"
+                + "</table:table><table:table table:name=\"Other\"><table:table-row>"
+                + "<table:table-cell office:value-type=\"string\"><text:p>O1</text:p></table:table-cell>"
+                + "</table:table-row><table:named-expressions><table:named-range table:name=\"Header\""
+                + " table:cell-range-address=\"$Other.$A$1\"/><table:named-range table:name=\"Elsewhere\""
+                + " table:cell-range-address=\"$Bomb.$A$1\"/></table:named-expressions>"
+                + "</table:table><table:named-expressions>"
+                + "<table:named-range table:name=\"Values\" table:cell-range-address=\"$Bomb.$A$1:.$A$3\"/>"
+                + "<table:named-range table:name=\"Header\" table:cell-range-address=\"$Bomb.$A$1\"/>"
+                + "</table:named-expressions></office:spreadsheet></office:body></office:document>";
+
+        final Spreadsheet spreadsheet = read(OfficeDocumentReader.builder().build(), document)
+                .getBody().getSpreadsheet();
+
+        final TableRange values = spreadsheet.getNamedRange("Values").orElseThrow(AssertionError::new);
+        assertEquals(3, values.getRowCount());
+        assertEquals("A1", values.getValueAt(1, 1));
+        assertEquals(2.0, values.getDoubleAt(2, 1).getAsDouble());
+        assertSame(EmptyCell.EMPTY_CELL, values.getCellAt(3, 1));
+        assertEquals("A1", spreadsheet.getNamedRange("Header").orElseThrow(AssertionError::new).getValueAt(1, 1));
+        assertFalse(spreadsheet.getNamedRange("Missing").isPresent());
+        assertEquals(2, spreadsheet.getNamedRanges().size());
+
+        final Table bomb = spreadsheet.getByIndex(0);
+        final Table other = spreadsheet.getByIndex(1);
+        assertEquals(1, bomb.getNamedRanges().size());
+        assertEquals("$Bomb.$B$1:.$B$1", bomb.getNamedRanges().get("Header"));
+        assertEquals(1, bomb.getNamedRange("Header").orElseThrow(AssertionError::new).getColumnCount());
+        assertEquals("O1", other.getNamedRange("Header").orElseThrow(AssertionError::new).getValueAt(1, 1));
+        assertEquals("$Bomb.$A$1", other.getNamedRanges().get("Elsewhere"));
+        assertFalse(other.getNamedRange("Elsewhere").isPresent());
+        assertFalse(other.getNamedRange("Values").isPresent());
+    }
+
+    @Test
+    void testPipelinedParsing() throws IOException {
+        final StringBuilder document = new StringBuilder(DOCUMENT_START);
+        for (int index = 0; index < 5000; index++) {
+            document.append(index % 3 == 0 ? "<table:table-row table:number-rows-repeated=\"2\">"
+                            : "<table:table-row>")
+                    .append("<table:table-cell office:value-type=\"float\" office:value=\"").append(index)
+                    .append("\"><text:p>").append(index).append("</text:p></table:table-cell>")
+                    .append("<table:table-cell table:number-columns-repeated=\"2\"/>")
+                    .append(index % 5 == 0 ? "<table:table-cell table:style-name=\"ce1\"" : "<table:table-cell")
+                    .append(" table:formula=\"of:=[.A1]\" office:value-type=\"string\"><text:p>r\u00E9sultat ")
+                    .append(index).append("</text:p></table:table-cell></table:table-row>");
+        }
+        document.append(DOCUMENT_END);
+        final OfficeDocumentReader pipelinedReader = OfficeDocumentReader.builder().pipelineWorkers(3).build();
+
+        final Table sequential = read(OfficeDocumentReader.builder().build(), document.toString())
+                .getBody().getSpreadsheet().getByIndex(0);
+        final Table pipelined = read(pipelinedReader, document.toString()).getBody().getSpreadsheet().getByIndex(0);
+
+        assertEquals(1 + 5000 + 1667, pipelined.getRows().size());
+        assertEquals(sequential.getRows(), pipelined.getRows());
+        assertEquals("r\u00E9sultat 4999", pipelined.getValueAt(6668, 4));
+        assertNotEquals(StyleRegistry.NO_STYLE, pipelined.getStorage().getCellStyleId(1, 3));
+        assertEquals(StyleRegistry.NO_STYLE, pipelined.getStorage().getCellStyleId(3, 3));
+        for (int rowIndex = 0; rowIndex < 20; rowIndex++) {
+            assertEquals(sequential.getStorage().getCellStyleId(rowIndex, 3),
+                    pipelined.getStorage().getCellStyleId(rowIndex, 3));
+        }
+        assertThrows(LimitExceededException.class,
+                () -> read(OfficeDocumentReader.builder().pipelineWorkers(2).maxRows(1000).build(),
+                        document.toString()));
+    }
+
+    @Test
+    void testRowFilter() throws IOException {
+        final StringBuilder document = new StringBuilder(DOCUMENT_START);
+        for (int index = 0; index < 1000; index++) {
+            document.append("<table:table-row><table:table-cell office:value-type=\"float\" office:value=\"")
+                    .append(index * 10).append("\"><text:p>").append(index * 10).append("</text:p></table:table-cell>")
+                    .append("<table:table-cell table:number-columns-repeated=\"2\"/>")
+                    .append("<table:table-cell office:value-type=\"string\"><text:p>")
+                    .append(index % 4 == 0 ? "ACTIVE" : "CLOSED").append("</text:p></table:table-cell>")
+                    .append("</table:table-row>");
+        }
+        document.append(DOCUMENT_END);
+        final RowFilter active = RowFilter.textEquals(4, "ACTIVE").and(RowFilter.greaterThan(1, 5000));
+
+        for (int pipelineWorkers = 0; pipelineWorkers <= 2; pipelineWorkers += 2) {
+            final Table table = read(OfficeDocumentReader.builder().pipelineWorkers(pipelineWorkers)
+                    .rowFilter(RowFilter.firstRows(1).or(active)).build(), document.toString())
+                    .getBody().getSpreadsheet().getByIndex(0);
+            assertEquals(1 + 124, table.getRows().size());
+            assertEquals("A1", table.getValueAt(1, 1));
+            assertEquals("5040", table.getValueAt(2, 1));
+            assertEquals("ACTIVE", table.getValueAt(125, 4));
+        }
+        final Table closed = read(OfficeDocumentReader.builder().rowFilter(active)
+                .rowFilter("Bomb", RowFilter.cell(4, cell -> "CLOSED".equals(cell.getText()))
+                        .and(RowFilter.lessThan(1, 100))).build(), document.toString())
+                .getBody().getSpreadsheet().getByIndex(0);
+        assertEquals(Arrays.asList("10", "20", "30", "50", "60", "70", "90"),
+                closed.getRows().stream().map(row -> row.get(0).getText()).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testColumnStatistics() throws IOException {
+        final StringBuilder document = new StringBuilder(DOCUMENT_START);
+        for (int index = 0; index < 2500; index++) {
+            document.append("<table:table-row><table:table-cell office:value-type=\"float\" office:value=\"")
+                    .append(index * 10).append("\"><text:p>").append(index * 10).append("</text:p></table:table-cell>")
+                    .append("<table:table-cell/><table:table-cell office:value-type=\"string\"><text:p>K")
+                    .append(index % 50).append("</text:p></table:table-cell></table:table-row>");
+        }
+        document.append("<table:table-row table:number-rows-repeated=\"3\"><table:table-cell")
+                .append(" office:value-type=\"float\" office:value=\"30000\"><text:p>30000</text:p></table:table-cell>")
+                .append("</table:table-row>").append(DOCUMENT_END);
+
+        for (int pipelineWorkers = 0; pipelineWorkers <= 2; pipelineWorkers += 2) {
+            final TableStatistics statistics = read(OfficeDocumentReader.builder().pipelineWorkers(pipelineWorkers)
+                    .collectStatistics(true).build(), document.toString())
+                    .getBody().getSpreadsheet().getByIndex(0).getStatistics().orElseThrow(AssertionError::new);
+            assertEquals(2504, statistics.getRowCount());
+            assertEquals(3, statistics.getBlockCount());
+            assertEquals(3, statistics.getColumnCount());
+
+            final ColumnStatistics numbers = statistics.getColumn(1);
+            assertEquals(2504, numbers.getValueCount());
+            assertEquals(2503, numbers.getNumberCount());
+            assertEquals(0, numbers.getMinNumber().getAsDouble());
+            assertEquals(30000, numbers.getMaxNumber().getAsDouble());
+            assertEquals("A1", numbers.getMinText().orElse(null));
+            assertEquals(2504, statistics.getColumn(2).getEmptyCount());
+            final long distinctKeys = statistics.getColumn(3).getDistinctCount();
+            assertTrue(distinctKeys >= 48 && distinctKeys <= 52, "distinct count " + distinctKeys);
+            assertEquals(4, statistics.getColumn(3).getEmptyCount());
+
+            assertArrayEquals(new int[]{1}, statistics.findBlocks(1, column -> column.mayContainNumber(15000, 16000)));
+            assertArrayEquals(new int[]{0, 2}, statistics.findBlocks(3, ColumnStatistics::mayContainEmpty));
+            assertEquals(1025, statistics.getBlockFirstRow(1));
+            assertEquals(456, statistics.getBlockRowCount(2));
+            assertEquals(456, statistics.getBlock(2, 1).getNumberCount());
+        }
+        assertFalse(read(OfficeDocumentReader.builder().build(), document.toString())
+                .getBody().getSpreadsheet().getByIndex(0).getStatistics().isPresent());
+    }
+
+    @Test
+    void testComputedAndCurrencyCellsAreNumbers() throws IOException {
+        final String document = DOCUMENT_START
+                + numberRow("table:formula=\"of:=[.C2]*10\" office:value-type=\"float\" office:value=\"10\"", "10")
+                + numberRow("office:value-type=\"currency\" office:currency=\"EUR\" office:value=\"9.5\"",
+                "9,50 EUR")
+                + numberRow("table:formula=\"of:=SUM([.B2:.B3])\" office:value-type=\"currency\""
+                + " office:value=\"100\"", "100,00 EUR")
+                + numberRow("office:value-type=\"percentage\" office:value=\"0.25\"", "25%")
+                + numberRow("table:formula=\"of:=&quot;9&quot;\" office:value-type=\"string\"", "9")
+                + DOCUMENT_END;
+        final Table table = read(OfficeDocumentReader.builder().collectStatistics(true).build(), document)
+                .getBody().getSpreadsheet().getByIndex(0);
+
+        // numbers before texts, then empty cells
+        assertEquals(Arrays.asList("25%", "9,50 EUR", "10", "100,00 EUR", "9"),
+                table.top(5, SortKey.ascending(2)).getRows().stream().map(row -> row.get(1).getText())
+                        .collect(Collectors.toList()));
+        assertEquals(100, table.range("B4").getDoubleAt(1, 1).getAsDouble());
+        assertFalse(table.range("B6").getDoubleAt(1, 1).isPresent());
+        final ColumnStatistics column = table.getStatistics().orElseThrow(AssertionError::new).getColumn(2);
+        assertEquals(4, column.getNumberCount());
+        assertEquals(0.25, column.getMinNumber().getAsDouble());
+        assertEquals(100, column.getMaxNumber().getAsDouble());
+
+        final Table keys = Table.builder().name("Keys").numberOfColumns(1)
+                .row(Arrays.asList(new FloatCell("10.0", 10))).row(Arrays.asList(new FloatCell("100", 100))).build();
+        assertEquals(2, TableJoin.builder().on(2, 1).build().join(table, keys).getRows().size());
+    }
+
+    @Test
+    void testLoadProgressAndCancellation(@TempDir Path directory) throws IOException {
+        final StringBuilder document = new StringBuilder(DOCUMENT_START);
+        for (int index = 0; index < 5000; index++) {
+            document.append("<table:table-row><table:table-cell office:value-type=\"string\"><text:p>Row")
+                    .append(index).append("</text:p></table:table-cell></table:table-row>");
+        }
+        document.append(DOCUMENT_END);
+        final Path file = directory.resolve("rows.fods");
+        Files.write(file, document.toString().getBytes(StandardCharsets.UTF_8));
+        final Path spillDirectory = Files.createDirectory(directory.resolve("spill"));
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().tableHeapBudget(10_000)
+                .spillDirectory(spillDirectory).pipelineWorkers(2).build();
+
+        final List<LoadProgress> progresses = new ArrayList<>();
+        final LoadMonitor monitor = new LoadMonitor(progresses::add, Duration.ZERO);
+        assertEquals(5001, reader.read(file, monitor).getBody().getSpreadsheet().getByIndex(0).getRows().size());
+        final LoadProgress done = progresses.get(progresses.size() - 1);
+        assertTrue(done.isDone());
+        assertEquals(Files.size(file), done.getBytesRead());
+        assertEquals(Files.size(file), done.getTotalBytes().getAsLong());
+        assertEquals("Bomb", done.getTableName().orElse(null));
+        assertEquals(5001, done.getRows());
+        assertSame(done, monitor.getProgress().orElse(null));
+
+        final AtomicReference<LoadMonitor> cancelling = new AtomicReference<>();
+        cancelling.set(new LoadMonitor(progress -> {
+            if (progress.getRows() >= 2000) {
+                cancelling.get().cancel();
+            }
+        }, Duration.ZERO));
+        assertThrows(LoadCancelledException.class, () -> reader.read(file, cancelling.get()));
+        assertEquals(2000, cancelling.get().getProgress().map(LoadProgress::getRows).orElse(0L));
+        try (Stream<Path> spillFiles = Files.list(spillDirectory)) {
+            assertEquals(0, spillFiles.count());
+        }
+
+        Thread.currentThread().interrupt();
+        assertThrows(LoadCancelledException.class, () -> reader.read(file));
+        assertTrue(Thread.interrupted());
+        Thread.currentThread().interrupt();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            assertThrows(LoadCancelledException.class, () -> reader.read(inputStream));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    void testRowPublisher(@TempDir Path directory) throws Exception {
+        final StringBuilder document = new StringBuilder(DOCUMENT_START);
+        for (int index = 0; index < 5000; index++) {
+            document.append("<table:table-row><table:table-cell office:value-type=\"string\"><text:p>Row")
+                    .append(index).append("</text:p></table:table-cell></table:table-row>");
+        }
+        document.append("</table:table><table:table table:name=\"Second\">");
+        for (int index = 0; index < 3; index++) {
+            document.append("<table:table-row><table:table-cell office:value-type=\"float\" office:value=\"")
+                    .append(index).append("\"/></table:table-row>");
+        }
+        document.append(DOCUMENT_END);
+        final Path file = directory.resolve("rows.fods");
+        Files.write(file, document.toString().getBytes(StandardCharsets.UTF_8));
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().build();
+
+        final CollectingSubscriber partial = new CollectingSubscriber(10);
+        reader.publish(file, "Bomb").subscribe(partial);
+        while (partial.rows.size() < 10) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        assertEquals(10, partial.rows.size());
+        assertEquals("Bomb", partial.rows.get(9).getTableName());
+        assertEquals(10, partial.rows.get(9).getRowNumber());
+        assertEquals(new TextCell("Row8"), partial.rows.get(9).getCells().get(0));
+        partial.subscription.cancel();
+        assertFalse(partial.terminated.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(10, partial.rows.size());
+
+        final CollectingSubscriber all = new CollectingSubscriber(Long.MAX_VALUE);
+        reader.publish(file).subscribe(all);
+        assertTrue(all.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(all.completed);
+        assertEquals(5004, all.rows.size());
+        final Row firstOfSecond = all.rows.get(5001);
+        assertEquals(1, firstOfSecond.getTableIndex());
+        assertEquals("Second", firstOfSecond.getTableName());
+        assertEquals(1, firstOfSecond.getRowNumber());
+        assertEquals(5001, all.rows.get(5000).getRowNumber());
+
+        final CollectingSubscriber second = new CollectingSubscriber(Long.MAX_VALUE);
+        reader.publish(file, "Second").subscribe(second);
+        assertTrue(second.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(3, second.rows.size());
+        assertEquals(1, second.rows.get(0).getTableIndex());
+
+        final CollectingSubscriber invalid = new CollectingSubscriber(0);
+        reader.publish(file).subscribe(invalid);
+        assertTrue(invalid.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+        assertTrue(invalid.rows.isEmpty());
+
+        assertThrows(NullPointerException.class, () -> reader.publish(file).subscribe(null));
+    }
+
+    /**
+     * @return a row whose second cell has the attributes and the text
+     */
+    private static String numberRow(String attributes, String text) {
+        return "<table:table-row><table:table-cell/><table:table-cell " + attributes + "><text:p>" + text
+                + "</text:p></table:table-cell></table:table-row>";
+    }
+
+    private static OfficeDocument read(OfficeDocumentReader reader, String document) throws IOException {
+        try (InputStream inputStream = new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8))) {
+            return reader.read(inputStream);
+        }
+    }
+
+    private static final class CollectingSubscriber implements RowSubscriber {
+        private final long initialRequest;
+        private final List<Row> rows = new CopyOnWriteArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile RowSubscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(RowSubscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(Row row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+    }
+}
@@ -19,13 +19,30 @@ package com.github.morinb.fods.reader;
 import com.github.morinb.fods.reader.content.Table;
 import com.github.morinb.fods.reader.content.cell.FormulaCell;
 import com.github.morinb.fods.reader.exceptions.Logger;
+import com.github.morinb.fods.reader.meta.Metadata;
+import com.github.morinb.fods.reader.settings.ConfigItem;
+import com.github.morinb.fods.reader.settings.ConfigType;
+import com.github.morinb.fods.reader.settings.Settings;
+import com.github.morinb.fods.reader.style.DataStyle;
+import com.github.morinb.fods.reader.style.Style;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OfficeDocumentTest {
     private static final Logger LOGGER = new Logger();
@@ -92,4 +109,106 @@ class OfficeDocumentTest {
             LOGGER.error(unused -> "", e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testZippedPackage() throws IOException {
+        try (InputStream twoSheetsOds = getClass().getResourceAsStream("/ods/simple/TwoSheets.ods")) {
+            assertTwoSheets(new OfficeDocument(twoSheetsOds));
+        }
+    }
+
+    @Test
+    void testZippedPackagePath() throws IOException, URISyntaxException {
+        assertTwoSheets(new OfficeDocument(Paths.get(getClass().getResource("/ods/simple/TwoSheets.ods").toURI())));
+        assertTwoSheets(new OfficeDocument(Paths.get(getClass().getResource("/fods/simple/TwoSheets.fods").toURI())));
+    }
+
+    @Test
+    void testSharedReader() throws Exception {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().build();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<OfficeDocument>> results = new ArrayList<>();
+            for (int index = 0; index < 100; index++) {
+                results.add(executor.submit(() -> {
+                    try (InputStream twoSheetsFods = getClass().getResourceAsStream("/fods/simple/TwoSheets.fods")) {
+                        return reader.read(twoSheetsFods);
+                    }
+                }));
+            }
+            for (Future<OfficeDocument> result : results) {
+                assertTwoSheets(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testHeaderOnlyMetadata() throws IOException, URISyntaxException {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().build();
+        final Metadata flatMetadata;
+        try (InputStream twoSheetsFods = getClass().getResourceAsStream("/fods/simple/TwoSheets.fods")) {
+            flatMetadata = reader.readMetadata(twoSheetsFods);
+        }
+        assertEquals(7, flatMetadata.getCellCount().getAsLong());
+        assertEquals(0L, flatMetadata.get("meta:object-count"));
+        assertEquals("PT4M5S", flatMetadata.get("meta:editing-duration"));
+        assertEquals("2021-02-15T18:10:00.778000000", flatMetadata.get("dc:date"));
+
+        final Metadata zippedMetadata = reader.readMetadata(
+                Paths.get(getClass().getResource("/ods/simple/TwoSheets.ods").toURI()));
+        assertEquals(2, zippedMetadata.getTableCount().getAsLong());
+        try (InputStream twoSheetsOds = getClass().getResourceAsStream("/ods/simple/TwoSheets.ods")) {
+            assertEquals(zippedMetadata, reader.readMetadata(twoSheetsOds));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSettings() throws IOException, URISyntaxException {
+        final OfficeDocumentReader reader = OfficeDocumentReader.builder().build();
+        final Settings flatSettings = reader.read(
+                Paths.get(getClass().getResource("/fods/simple/TwoSheets.fods").toURI())).getSettings();
+
+        assertEquals(new ConfigItem("VisibleAreaWidth", ConfigType.INT, 9031),
+                flatSettings.getItem("ooo:view-settings", "VisibleAreaWidth").orElseThrow(AssertionError::new));
+        final List<Map<String, ConfigItem>> views = (List<Map<String, ConfigItem>>) flatSettings
+                .getItemSet("ooo:view-settings").get("Views").getValue();
+        assertEquals("view1", views.get(0).get("ViewId").getValue());
+        final Map<String, ConfigItem> tables = (Map<String, ConfigItem>) views.get(0).get("Tables").getValue();
+        final Map<String, ConfigItem> feuille1 = (Map<String, ConfigItem>) tables.get("Feuille1").getValue();
+        assertEquals(3, feuille1.get("CursorPositionX").getValue());
+        assertTrue(flatSettings.getItemSet("ooo:configuration-settings").size() > 0);
+
+        try (InputStream twoSheetsFods = getClass().getResourceAsStream("/fods/simple/TwoSheets.fods")) {
+            assertEquals(flatSettings, reader.read(twoSheetsFods).getSettings());
+        }
+        final Settings zippedSettings = reader.read(
+                Paths.get(getClass().getResource("/ods/simple/TwoSheets.ods").toURI())).getSettings();
+        try (InputStream twoSheetsOds = getClass().getResourceAsStream("/ods/simple/TwoSheets.ods")) {
+            assertEquals(zippedSettings, reader.read(twoSheetsOds).getSettings());
+        }
+        assertEquals(9031, zippedSettings.getItem("ooo:view-settings", "VisibleAreaWidth")
+                .orElseThrow(AssertionError::new).getValue());
+    }
+
+    private void assertTwoSheets(OfficeDocument officeDocument) {
+        assertNotNull(officeDocument.getBody());
+        assertEquals(2, officeDocument.getMetadata().getTableCount().getAsLong());
+        assertEquals(Arrays.asList("Feuille1", "Feuille2"), officeDocument.getBody().getSpreadsheet().getTableNames());
+        final Table feuille2 = officeDocument.getBody().getSpreadsheet().getByIndex(1);
+        assertEquals(5, feuille2.getRows().size());
+        assertEquals("of:=3+2", ((FormulaCell) feuille2.getCellAt(1, 1)).getFormula());
+        assertEquals("Sp2D5", feuille2.getValueAt(5, 4));
+
+        final Style booleanStyle = feuille2.getCellStyle(1, 2).orElseThrow(AssertionError::new);
+        assertSame(booleanStyle, feuille2.getCellStyle(1, 2).orElseThrow(AssertionError::new));
+        assertEquals("BOOLEAN", booleanStyle.getDataStyle().map(DataStyle::getFormatCode).orElse(null));
+        assertEquals("Liberation Sans", booleanStyle.getProperty("style:font-name").orElse(null));
+        assertEquals("Default", feuille2.getCellStyle(1, 1).map(Style::getName).orElse(null));
+        assertEquals("2.258cm", feuille2.getColumnStyle(4).flatMap(Style::getColumnWidth).orElse(null));
+        assertEquals("0.452cm", feuille2.getRowStyle(5).flatMap(Style::getRowHeight).orElse(null));
+        assertEquals("0.00", officeDocument.getStyles().getDataStyle("N2").map(DataStyle::getFormatCode).orElse(null));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.CellType;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.ValueType;
+import com.github.morinb.fods.reader.content.cell.BooleanCell;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.FormulaCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfficeDocumentWriterTest {
+
+    @Test
+    void testWriteAndReadBack() throws IOException {
+        final List<Cell> header = Arrays.asList(new TextCell("Name"), new TextCell("Price"),
+                new TextCell("Active"), new TextCell("Total"));
+        final List<Cell> line = Arrays.asList(new TextCell("a < b & \"c\""), new FloatCell("12,5", 12.5),
+                new BooleanCell("VRAI", true), new FormulaCell("25", "of:=[.B2]*2", ValueType.FLOAT));
+        final List<Cell> empty = Arrays.asList(EmptyCell.EMPTY_CELL, EmptyCell.EMPTY_CELL,
+                EmptyCell.EMPTY_CELL, EmptyCell.EMPTY_CELL);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OfficeDocumentWriter writer = new OfficeDocumentWriter(outputStream)) {
+            writer.startTable("Sheet & Co", 4);
+            writer.writeRow(header);
+            writer.writeRow(line);
+            for (int index = 0; index < 1000; index++) {
+                writer.writeRow(empty);
+            }
+            writer.writeRow(line);
+        }
+
+        final String xml = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(xml.contains("table:number-rows-repeated=\"1000\""));
+        assertTrue(xml.contains("<table:table-cell table:number-columns-repeated=\"4\"/>"));
+
+        final OfficeDocument officeDocument = new OfficeDocument(new ByteArrayInputStream(outputStream.toByteArray()));
+        final Table table = officeDocument.getBody().getSpreadsheet().getByName("Sheet & Co").orElse(null);
+        assertNotNull(table);
+        assertEquals(4, table.getNumberOfColumns());
+        assertEquals(1003, table.getRows().size());
+        assertEquals(header, table.getRows().get(0));
+        assertEquals(line, table.getRows().get(1));
+        assertEquals(empty, table.getRows().get(500));
+        assertEquals(line, table.getRows().get(1002));
+        assertEquals(CellType.FLOAT, table.getCellAt(2, 2).getCellType());
+        assertEquals(12.5, ((FloatCell) table.getCellAt(2, 2)).getValue());
+        assertTrue(((BooleanCell) table.getCellAt(2, 3)).getValue());
+    }
+
+    @Test
+    void testWhitespaceSurvivesWriteAndRead() throws IOException {
+        final List<String> texts = Arrays.asList("a b", "a  b", " leading", "trailing ", "   ", "tab\there",
+                "two\t\ttabs", "line\nbreak", "a \n b", "emoji \uD83D\uDE00");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OfficeDocumentWriter writer = new OfficeDocumentWriter(outputStream)) {
+            writer.startTable("Texts", 1);
+            for (String text : texts) {
+                writer.writeRow(Collections.singletonList(new TextCell(text)));
+            }
+            writer.writeRow(Collections.singletonList(new TextCell("windows\r\nline")));
+            writer.writeRow(Collections.singletonList(new TextCell("\u0001in\uFFFEval\uD800id")));
+        }
+
+        final String xml = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(xml.contains("<text:p>a b</text:p>"));
+        assertTrue(xml.contains("<text:p>a<text:s text:c=\"2\"/>b</text:p>"));
+        assertTrue(xml.contains("<text:p><text:s/>leading</text:p>"));
+        assertTrue(xml.contains("<text:p>tab<text:tab/>here</text:p>"));
+        assertTrue(xml.contains("<text:p>line<text:line-break/>break</text:p>"));
+
+        final Table table = new OfficeDocument(new ByteArrayInputStream(outputStream.toByteArray()))
+                .getBody().getSpreadsheet().getByIndex(0);
+        for (int index = 0; index < texts.size(); index++) {
+            assertEquals(texts.get(index), table.getValueAt(index + 1, 1));
+        }
+        assertEquals("windows\nline", table.getValueAt(texts.size() + 1, 1));
+        assertEquals("invalid", table.getValueAt(texts.size() + 2, 1));
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final OfficeDocument original;
+        try (InputStream twoSheetsFods = getClass().getResourceAsStream("/fods/simple/TwoSheets.fods")) {
+            original = new OfficeDocument(twoSheetsFods);
+        }
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OfficeDocumentWriter writer = new OfficeDocumentWriter(outputStream)) {
+            for (String tableName : original.getBody().getSpreadsheet().getTableNames()) {
+                writer.writeTable(original.getBody().getSpreadsheet().getByName(tableName).orElse(null));
+            }
+        }
+
+        final OfficeDocument copy = new OfficeDocument(new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(original.getBody().getSpreadsheet().getTableNames(),
+                copy.getBody().getSpreadsheet().getTableNames());
+        for (String tableName : original.getBody().getSpreadsheet().getTableNames()) {
+            final Table expected = original.getBody().getSpreadsheet().getByName(tableName).orElse(null);
+            final Table actual = copy.getBody().getSpreadsheet().getByName(tableName).orElse(null);
+            assertNotNull(expected);
+            assertNotNull(actual);
+            assertEquals(expected.getNumberOfColumns(), actual.getNumberOfColumns());
+            assertEquals(expected.getRows(), actual.getRows());
+        }
+    }
+}
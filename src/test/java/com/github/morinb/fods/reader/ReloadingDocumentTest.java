@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReloadingDocumentTest {
+
+    @Test
+    void testUnchangedTablesAreReused(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("TwoSheets.fods");
+        copyResource("/fods/simple/TwoSheets.fods", file);
+
+        try (ReloadingDocument document = ReloadingDocument.builder().path(file)
+                .pollInterval(Duration.ofHours(1)).build()) {
+            final OfficeDocument first = document.get();
+            replace(file, "Sp2D5", "Sp2D5bis");
+
+            final OfficeDocument second = document.reload();
+
+            assertSame(second, document.get());
+            assertEquals(2, document.getVersion());
+            final Spreadsheet before = first.getBody().getSpreadsheet();
+            final Spreadsheet after = second.getBody().getSpreadsheet();
+            assertSame(before.getByIndex(0), after.getByIndex(0));
+            assertNotSame(before.getByIndex(1), after.getByIndex(1));
+            assertEquals("Sp2D5", before.getByIndex(1).getValueAt(5, 4));
+            assertEquals("Sp2D5bis", after.getByIndex(1).getValueAt(5, 4));
+            assertEquals("Sp1D5", after.getByIndex(0).getValueAt(5, 4));
+        }
+    }
+
+    @Test
+    void testModifiedFileIsReloadedInBackground(@TempDir Path directory) throws Exception {
+        final Path file = directory.resolve("TwoSheets.fods");
+        copyResource("/fods/simple/TwoSheets.fods", file);
+        final List<OfficeDocument> reloaded = new CopyOnWriteArrayList<>();
+        final List<Exception> failed = new CopyOnWriteArrayList<>();
+
+        try (ReloadingDocument document = ReloadingDocument.builder().path(file)
+                .pollInterval(Duration.ofMillis(10)).onReloaded(reloaded::add).onFailed(failed::add).build()) {
+            Files.write(file, "<office:document>".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+            awaitUntil(() -> !failed.isEmpty());
+            assertEquals(1, document.getVersion());
+            assertEquals("Sp2D5", document.get().getBody().getSpreadsheet().getByIndex(1).getValueAt(5, 4));
+
+            copyResource("/fods/simple/TwoSheets.fods", file);
+            replace(file, "Sp1A1", "Changed");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 2_000));
+            awaitUntil(() -> !reloaded.isEmpty());
+
+            assertEquals(2, document.getVersion());
+            assertSame(reloaded.get(0), document.get());
+            assertEquals("Changed", document.get().getBody().getSpreadsheet().getByIndex(0).getValueAt(1, 1));
+            assertEquals(1, failed.size());
+        }
+    }
+
+    @Test
+    void testWatchedFileIsReloadedWhileOtherFilesChange(@TempDir Path directory) throws Exception {
+        final Path file = directory.resolve("TwoSheets.fods");
+        copyResource("/fods/simple/TwoSheets.fods", file);
+        final List<OfficeDocument> reloaded = new CopyOnWriteArrayList<>();
+        final Path log = directory.resolve("noisy.log");
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final Thread writer = new Thread(() -> {
+            try {
+                for (int line = 0; writing.get(); line++) {
+                    Files.write(log, ("line " + line + "\n").getBytes(StandardCharsets.UTF_8),
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    Thread.sleep(10);
+                }
+            } catch (IOException | InterruptedException e) {
+                // stopped
+            }
+        });
+
+        try (ReloadingDocument document = ReloadingDocument.builder().path(file)
+                .settleDelay(Duration.ofMillis(200)).onReloaded(reloaded::add).build()) {
+            writer.start();
+            replace(file, "Sp1A1", "Changed");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+            awaitUntil(() -> !reloaded.isEmpty());
+
+            assertEquals(2, document.getVersion());
+            assertEquals("Changed", document.get().getBody().getSpreadsheet().getByIndex(0).getValueAt(1, 1));
+        } finally {
+            writing.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    void testWideSheetWithRepeatedRowsIsComparedByRuns(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("Wide.fods");
+        Files.write(file, wideDocument("ce1", "Small").getBytes(StandardCharsets.UTF_8));
+
+        try (ReloadingDocument document = ReloadingDocument.builder().path(file)
+                .pollInterval(Duration.ofHours(1)).build()) {
+            final Spreadsheet first = document.get().getBody().getSpreadsheet();
+            assertEquals(1_048_576, first.getByIndex(0).getStorage().getRowCount());
+            assertTimeout(Duration.ofSeconds(1), () -> first.getByIndex(0).getContentHash());
+
+            Files.write(file, wideDocument("ce1", "Changed").getBytes(StandardCharsets.UTF_8));
+            final Spreadsheet second = document.reload().getBody().getSpreadsheet();
+            assertSame(first.getByIndex(0), second.getByIndex(0));
+            assertNotSame(first.getByIndex(1), second.getByIndex(1));
+
+            Files.write(file, wideDocument("ce2", "Changed").getBytes(StandardCharsets.UTF_8));
+            final Spreadsheet third = document.reload().getBody().getSpreadsheet();
+            assertNotSame(second.getByIndex(0), third.getByIndex(0));
+            assertSame(second.getByIndex(1), third.getByIndex(1));
+        }
+    }
+
+    @Test
+    void testPathIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> ReloadingDocument.builder().build());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * @return a sheet of 1024 columns whose last row, its cells styled, is repeated up to the millionth row, and a
+     * small sheet
+     */
+    private static String wideDocument(String fillerStyle, String smallText) {
+        return "<office:document"
+                + " xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+                + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+                + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\">"
+                + "<office:body><office:spreadsheet><table:table table:name=\"Wide\">"
+                + "<table:table-column table:number-columns-repeated=\"1024\"/>"
+                + "<table:table-row><table:table-cell office:value-type=\"string\"><text:p>A1</text:p>"
+                + "</table:table-cell><table:table-cell table:number-columns-repeated=\"1023\"/></table:table-row>"
+                + "<table:table-row table:number-rows-repeated=\"1048575\"><table:table-cell table:style-name=\""
+                + fillerStyle + "\" table:number-columns-repeated=\"1024\"/></table:table-row></table:table>"
+                + "<table:table table:name=\"Small\"><table:table-column/><table:table-row>"
+                + "<table:table-cell office:value-type=\"string\"><text:p>" + smallText + "</text:p>"
+                + "</table:table-cell></table:table-row></table:table>"
+                + "</office:spreadsheet></office:body></office:document>";
+    }
+
+    private static void replace(Path file, String target, String replacement) throws IOException {
+        final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Files.write(file, content.replace(target, replacement).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void copyResource(String resource, Path target) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(resource)) {
+            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
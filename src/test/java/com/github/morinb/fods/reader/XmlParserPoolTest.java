@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class XmlParserPoolTest {
+    private static final byte[] DOCUMENT = "<document/>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testParsersAreReusedAcrossThreads() throws Exception {
+        final XmlParserPool pool = new XmlParserPool(true);
+        final AtomicReference<XMLStreamReader> first = new AtomicReference<>();
+        final AtomicReference<XMLStreamReader> second = new AtomicReference<>();
+        onNewThread(() -> first.set(parseAndClose(pool)));
+        onNewThread(() -> second.set(parseAndClose(pool)));
+
+        assertSame(first.get(), second.get());
+    }
+
+    @Test
+    void testNestedParsersDoNotShareTheirInstance() throws Exception {
+        final XmlParserPool pool = new XmlParserPool(true);
+        final XMLStreamReader outer = pool.acquire(new ByteArrayInputStream(DOCUMENT));
+        final XMLStreamReader inner = pool.acquire(new ByteArrayInputStream(DOCUMENT));
+
+        assertNotSame(((StreamReaderDelegate) outer).getParent(), ((StreamReaderDelegate) inner).getParent());
+        inner.close();
+        outer.close();
+    }
+
+    /**
+     * @return the parser instance behind the pooled one
+     */
+    private static XMLStreamReader parseAndClose(XmlParserPool pool) {
+        try {
+            final XMLStreamReader reader = pool.acquire(new ByteArrayInputStream(DOCUMENT));
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            reader.close();
+            return ((StreamReaderDelegate) reader).getParent();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void onNewThread(Runnable action) throws Exception {
+        CompletableFuture.runAsync(action, runnable -> new Thread(runnable).start()).get();
+    }
+}
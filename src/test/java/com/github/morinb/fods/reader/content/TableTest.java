@@ -0,0 +1,259 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content;
+
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.exceptions.InvalidCoordinatesException;
+import com.github.morinb.fods.reader.exceptions.InvalidRangeAddressException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TableTest {
+
+    @Test
+    void testGridStorage() {
+        final List<List<Cell>> expectedRows = new ArrayList<>();
+        final TableStorage.Appender appender = TableStorage.inHeap();
+        final List<Cell> filler = Collections.nCopies(1024, EmptyCell.EMPTY_CELL);
+        for (int index = 0; index < 3000; index++) {
+            final List<Cell> row = index % 10 == 9 ? filler
+                    : Arrays.asList(new TextCell("A" + index), EmptyCell.EMPTY_CELL, new TextCell("C" + index));
+            appender.addRow(row);
+            expectedRows.add(row);
+        }
+        for (int index = 0; index < 100_000; index++) {
+            appender.addRow(filler);
+            expectedRows.add(filler);
+        }
+        final Table table = new Table("Grid", 3, appender.build());
+
+        assertEquals(expectedRows, table.getRows());
+        assertEquals("A0", table.getValueAt(1, 1));
+        assertSame(EmptyCell.EMPTY_CELL, table.getCellAt(1, 2));
+        assertEquals("C2998", table.getValueAt(2999, 3));
+        assertSame(EmptyCell.EMPTY_CELL, table.getCellAt(3000, 3));
+        assertSame(EmptyCell.EMPTY_CELL, table.getCellAt(103_000, 3));
+        assertEquals(1024, table.getRows().get(103_000 - 1).size());
+    }
+
+    @Test
+    void testSpillingStorageSpillsWideRows(@TempDir Path tempDirectory) throws IOException {
+        final SpillingTableStorage storage = new SpillingTableStorage(10_000, 2, tempDirectory);
+        final List<List<Cell>> rows = new ArrayList<>();
+        for (int index = 0; index < 10; index++) {
+            final char[] text = new char[5_000];
+            Arrays.fill(text, (char) ('a' + index));
+            rows.add(Collections.singletonList(new TextCell(new String(text))));
+            storage.addRow(rows.get(index));
+            assertEquals(index >= 1, storage.isSpilled());
+        }
+        final TableStorage built = storage.build();
+        for (int index = 0; index < 10; index++) {
+            assertEquals(rows.get(index), built.getRow(index));
+        }
+        storage.discard();
+        try (Stream<Path> spillFiles = Files.list(tempDirectory)) {
+            assertEquals(0, spillFiles.count());
+        }
+    }
+
+    @Test
+    void testStyleIds() {
+        final List<Cell> plainRow = Collections.singletonList(new TextCell("plain"));
+        final List<Cell> styledRow = StyledRow.of(Arrays.asList(new TextCell("styled"), EmptyCell.EMPTY_CELL,
+                EmptyCell.EMPTY_CELL), 3, new short[]{0, 0, 7});
+        for (TableStorage.Appender appender : Arrays.asList(TableStorage.inHeap(), TableStorage.spilling(0, 1, null))) {
+            for (int index = 0; index < 1500; index++) {
+                appender.addRow(index % 2 == 0 ? plainRow : styledRow);
+            }
+            final TableStorage storage = appender.build();
+
+            assertEquals(0, storage.getRowStyleId(0));
+            assertEquals(0, storage.getCellStyleId(0, 0));
+            assertEquals(3, storage.getRowStyleId(1499));
+            assertEquals(0, storage.getCellStyleId(1499, 0));
+            assertEquals(7, storage.getCellStyleId(1499, 2));
+            assertEquals(3, storage.getRow(1499).size());
+        }
+    }
+
+    @Test
+    void testInvalidCoordinates() {
+        final Table table = Table.builder().name("Short rows").numberOfColumns(3)
+                .row(Collections.singletonList(new TextCell("A1"))).build();
+
+        assertSame(EmptyCell.EMPTY_CELL, table.getCellAt(1, 3));
+        assertThrows(InvalidCoordinatesException.class, () -> table.getCellAt(0, 1));
+        assertThrows(InvalidCoordinatesException.class, () -> table.getCellAt(1, 0));
+        assertThrows(InvalidCoordinatesException.class, () -> table.getCellAt(2, 1));
+        assertThrows(InvalidCoordinatesException.class, () -> table.getCellAt(1, 4));
+    }
+
+    @Test
+    void testRange() {
+        final Table table = Table.builder().name("Feuille1").numberOfColumns(4)
+                .row(Arrays.asList(new TextCell("A1"), new TextCell("B1"), new TextCell("C1")))
+                .row(Arrays.asList(new TextCell("A2"), new TextCell("B2"), new TextCell("C2"), new TextCell("D2")))
+                .build();
+
+        final TableRange range = table.range("B1:D3");
+        assertEquals(3, range.getRowCount());
+        assertEquals(3, range.getColumnCount());
+        assertEquals("B1", range.getValueAt(1, 1));
+        assertSame(EmptyCell.EMPTY_CELL, range.getCellAt(1, 3));
+        assertSame(EmptyCell.EMPTY_CELL, range.getCellAt(3, 3));
+        assertEquals(Arrays.asList(new TextCell("B2"), new TextCell("C2"), new TextCell("D2")),
+                range.getRows().get(1));
+        assertEquals("D2", range.range("B2:C2").getValueAt(1, 2));
+        assertEquals("Feuille1.C2", range.range("B2").toString());
+        assertEquals("C2", table.range("$Feuille1.$C$2").getValueAt(1, 1));
+        assertThrows(InvalidCoordinatesException.class, () -> range.getCellAt(4, 1));
+        assertThrows(InvalidCoordinatesException.class, () -> range.range("A1:D1"));
+        assertThrows(InvalidRangeAddressException.class, () -> table.range("Feuille2.A1"));
+    }
+
+    @Test
+    void testRangeAddress() {
+        final RangeAddress address = RangeAddress.parse("$'Sheet ''1'.$AA$10:.B2");
+        assertEquals("Sheet '1", address.getTableName());
+        assertEquals(2, address.getFirstRow());
+        assertEquals(2, address.getFirstColumn());
+        assertEquals(10, address.getLastRow());
+        assertEquals(27, address.getLastColumn());
+        assertSame(address, RangeAddress.parse("$'Sheet ''1'.$AA$10:.B2"));
+        assertEquals("AZ", RangeAddress.columnName(52));
+        assertThrows(InvalidRangeAddressException.class, () -> RangeAddress.parse("A0"));
+        assertThrows(InvalidRangeAddressException.class, () -> RangeAddress.parse("12"));
+        assertThrows(InvalidRangeAddressException.class, () -> RangeAddress.parse("A1:B"));
+    }
+
+    @Test
+    void testSort(@TempDir Path tempDirectory) throws IOException {
+        final Table small = Table.builder().name("Small").numberOfColumns(2)
+                .row(Arrays.asList(new TextCell("b"), new FloatCell("1", 1)))
+                .row(Arrays.asList(EmptyCell.EMPTY_CELL, new FloatCell("2", 2)))
+                .row(Arrays.asList(new FloatCell("10", 10), new FloatCell("3", 3)))
+                .row(Arrays.asList(new TextCell("A"), new FloatCell("4", 4)))
+                .row(Arrays.asList(new FloatCell("9", 9), new FloatCell("5", 5)))
+                .row(Arrays.asList(new TextCell("a"), new FloatCell("6", 6)))
+                .build();
+
+        assertEquals(Arrays.asList("9", "10", "A", "a", "b", null), columnValues(small.sortedBy(SortKey.ascending(1))));
+        assertEquals(Arrays.asList("b", "A", "a", "10", "9", null),
+                columnValues(small.sortedBy(SortKey.descending(1))));
+        assertEquals(Arrays.asList("b", "a", "A"),
+                columnValues(small.top(3, SortKey.descending(1), SortKey.descending(2))));
+
+        final List<List<Cell>> rows = new ArrayList<>();
+        final Random random = new Random(42);
+        for (int index = 0; index < 20_000; index++) {
+            final int value = random.nextInt(500);
+            rows.add(Arrays.asList(value % 7 == 0 ? EmptyCell.EMPTY_CELL : value % 3 == 0
+                    ? new TextCell("text" + value) : new FloatCell(null, value), new FloatCell(null, index % 10)));
+        }
+        final Table large = new Table("Large", 2, rows);
+        final TableSorter inMemory = TableSorter.builder().key(SortKey.ascending(1)).key(SortKey.descending(2))
+                .build();
+        final TableSorter external = TableSorter.builder().key(SortKey.ascending(1)).key(SortKey.descending(2))
+                .memoryBudget(50_000).tempDirectory(tempDirectory).build();
+
+        final int[] expected = inMemory.sortedRowIndexes(large);
+        assertArrayEquals(expected, external.sortedRowIndexes(large));
+        final TableSorter multiPass = TableSorter.builder().key(SortKey.ascending(1)).key(SortKey.descending(2))
+                .memoryBudget(500).tempDirectory(tempDirectory).build();
+        assertArrayEquals(expected, multiPass.sortedRowIndexes(large));
+        assertArrayEquals(Arrays.copyOf(expected, 100), inMemory.topRowIndexes(large, 100));
+        assertEquals(20_000, Arrays.stream(expected).distinct().count());
+        try (Stream<Path> runFiles = Files.list(tempDirectory)) {
+            assertEquals(0, runFiles.count());
+        }
+        final Table sorted = external.sort(large);
+        assertEquals(large.getRows().get(expected[0]), sorted.getRows().get(0));
+        assertSame(EmptyCell.EMPTY_CELL, sorted.getCellAt(20_000, 1));
+    }
+
+    @Test
+    void testJoin() {
+        final Table prices = Table.builder().name("Prices").numberOfColumns(3)
+                .row(Arrays.asList(new FloatCell("1.0", 1), new TextCell("EUR"), new FloatCell("9.5", 9.5)))
+                .row(Arrays.asList(new FloatCell("2", 2), new TextCell("EUR"), new FloatCell("3", 3)))
+                .row(Arrays.asList(new FloatCell("2", 2), new TextCell("USD"), new FloatCell("4", 4)))
+                .row(Arrays.asList(new FloatCell("1", 1), new TextCell("EUR"), new FloatCell("9", 9)))
+                .build();
+        final Table.TableBuilder ordersBuilder = Table.builder().name("Orders").numberOfColumns(2);
+        for (int index = 0; index < 10_000; index++) {
+            ordersBuilder.row(Arrays.asList(index % 4 == 3 ? EmptyCell.EMPTY_CELL : new FloatCell(Integer.toString(index % 4), index % 4),
+                    new TextCell("EUR")));
+        }
+        final Table orders = ordersBuilder.build();
+        final TableJoin inner = TableJoin.builder().on(1, 1).on(2, 2).build();
+        final TableJoin left = TableJoin.builder().on(1, 1).on(2, 2).type(JoinType.LEFT).build();
+
+        final Table joined = inner.join(orders, prices);
+        assertEquals(5, joined.getNumberOfColumns());
+        assertEquals(2500 * 2 + 2500, joined.getRows().size());
+        assertEquals(Arrays.asList("1", "EUR", "1.0", "EUR", "9.5"), texts(joined.getRows().get(0)));
+        assertEquals(Arrays.asList("1", "EUR", "1", "EUR", "9"), texts(joined.getRows().get(1)));
+        assertEquals(Arrays.asList("2", "EUR", "2", "EUR", "3"), texts(joined.getRows().get(2)));
+        assertEquals(10_000 + 2500, left.join(orders, prices).getRows().size());
+        assertSame(EmptyCell.EMPTY_CELL, left.join(orders, prices).getCellAt(1, 3));
+
+        final Table reversed = left.join(prices, orders);
+        assertEquals(2500 * 2 + 2500 + 1, reversed.getRows().size());
+        assertEquals("9.5", reversed.getValueAt(1, 3));
+        assertEquals("3", reversed.getValueAt(2501, 3));
+        assertSame(EmptyCell.EMPTY_CELL, reversed.getCellAt(5001, 4));
+        assertEquals(Arrays.asList("1", "EUR", "9", "1", "EUR"), texts(reversed.getRows().get(5001)));
+        assertEquals(2500 * 2 + 2500, inner.stream(prices, orders).count());
+        assertEquals(inner.join(prices, orders).getRows(),
+                TableJoin.builder().on(1, 1).on(2, 2).parallel(false).build().join(prices, orders).getRows());
+    }
+
+    private static List<String> texts(List<Cell> row) {
+        final List<String> texts = new ArrayList<>();
+        for (Cell cell : row) {
+            texts.add(cell.getText());
+        }
+        return texts;
+    }
+
+    private static List<String> columnValues(Table table) {
+        final List<String> values = new ArrayList<>();
+        for (int row = 1; row <= table.getRows().size(); row++) {
+            values.add(table.getValueAt(row, 1));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.content.cell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TextBufferTest {
+
+    @Test
+    void testTextsAreDecodedOnDemand() {
+        final TextBuffer textBuffer = new TextBuffer();
+        final String[] texts = {"", "Sp1A1", "d\u00E9j\u00E0 vu", "\u4EF7\u683C \u20AC", "emoji \uD83D\uDE00",
+                "lone \uD800 surrogate"};
+        final List<CellText> cellTexts = new ArrayList<>();
+        for (String text : texts) {
+            cellTexts.add(textBuffer.append(new StringBuilder(text)));
+        }
+
+        for (int index = 0; index < texts.length; index++) {
+            final String expected = texts[index].replace('\uD800', '?');
+            final CellText cellText = cellTexts.get(index);
+            assertEquals(expected.length(), cellText.length());
+            assertEquals(expected, cellText.toString());
+            assertSame(cellText.toString(), cellText.toString());
+        }
+        assertEquals('\u00E9', cellTexts.get(2).charAt(1));
+        assertEquals("j\u00E0", cellTexts.get(2).subSequence(2, 4).toString());
+    }
+
+    @Test
+    void testAppendPartOfText() {
+        final TextBuffer textBuffer = new TextBuffer();
+        final String texts = "ab\u00E9c\uD83D\uDE00d";
+
+        assertEquals("\u00E9c", textBuffer.append(texts, 2, 4).toString());
+        assertEquals("\uD83D\uDE00d", textBuffer.append(texts, 4, 7).toString());
+        assertEquals("c?", textBuffer.append(texts, 3, 5).toString());
+    }
+
+    @Test
+    void testLargeTextsAndManyChunks() {
+        final TextBuffer textBuffer = new TextBuffer();
+        final StringBuilder large = new StringBuilder();
+        for (int index = 0; index < 100_000; index++) {
+            large.append((char) ('a' + index % 26));
+        }
+        final CellText before = textBuffer.append("before");
+        final CellText largeText = textBuffer.append(large);
+        final List<CellText> small = new ArrayList<>();
+        for (int index = 0; index < 10_000; index++) {
+            small.add(textBuffer.append("cell" + index));
+        }
+
+        assertEquals("before", before.toString());
+        assertEquals(large.toString(), largeText.toString());
+        for (int index = 0; index < small.size(); index++) {
+            assertEquals("cell" + index, small.get(index).toString());
+        }
+    }
+
+    @Test
+    void testCellsKeepTheSequence() {
+        final CellText cellText = new TextBuffer().append("42");
+        final FloatCell cell = new FloatCell(cellText, 42);
+
+        assertSame(cellText, cell.getTextSequence());
+        assertEquals("42", cell.getText());
+        assertEquals(new FloatCell("42", 42), cell);
+    }
+}
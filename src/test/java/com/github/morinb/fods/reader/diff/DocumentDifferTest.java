@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.diff;
+
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableStorage;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.exceptions.IncompatibleFingerprintException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentDifferTest {
+
+    @Test
+    void testRowHashes() {
+        final List<Cell> row = Arrays.asList(new TextCell("A"), new FloatCell("1", 1));
+        final List<Cell> paddedRow = Arrays.asList(new TextCell("A"), new FloatCell("1", 1), EmptyCell.EMPTY_CELL);
+        for (TableStorage.Appender appender : Arrays.asList(TableStorage.inHeap(), TableStorage.spilling(0, 1, null))) {
+            appender.addRow(row);
+            appender.addRow(paddedRow);
+            appender.addRow(Arrays.asList(new TextCell("A"), new FloatCell("1", 2)));
+            final TableStorage storage = appender.build();
+            assertEquals(storage.getRowHash(0), storage.getRowHash(1));
+            assertNotEquals(storage.getRowHash(0), storage.getRowHash(2));
+        }
+    }
+
+    @Test
+    void testDiffByContent() {
+        final DocumentDiffer differ = DocumentDiffer.builder().build();
+        final Table oldTable = table("Sheet", "a", "b", "c", "d", "e", "f");
+        final Table newTable = table("Sheet", "a", "x", "c", "e", "f", "g");
+
+        final TableDiff diff = differ.diff(differ.fingerprint(oldTable), differ.fingerprint(newTable));
+
+        assertEquals(Arrays.asList(
+                new RowChange(RowChange.Type.MODIFIED, 2, 2),
+                new RowChange(RowChange.Type.REMOVED, 4, 0),
+                new RowChange(RowChange.Type.ADDED, 0, 6)), diff.getChanges());
+        assertEquals(1, diff.getChanges(RowChange.Type.ADDED).size());
+        assertTrue(differ.diff(differ.fingerprint(oldTable), differ.fingerprint(oldTable)).isEmpty());
+    }
+
+    @Test
+    void testDiffByKey() {
+        final DocumentDiffer differ = DocumentDiffer.builder().keyColumns("Keyed", 1).build();
+        final Table oldTable = keyedTable("1=a", "2=b", "3=c", "3=d");
+        final Table newTable = keyedTable("3=c", "1=z", "4=e", "3=x");
+
+        final TableDiff diff = differ.diff(differ.fingerprint(oldTable), differ.fingerprint(newTable));
+
+        assertEquals(Arrays.asList(
+                new RowChange(RowChange.Type.MODIFIED, 1, 2),
+                new RowChange(RowChange.Type.ADDED, 0, 3),
+                new RowChange(RowChange.Type.MODIFIED, 4, 4),
+                new RowChange(RowChange.Type.REMOVED, 2, 0)), diff.getChanges());
+        assertThrows(IncompatibleFingerprintException.class, () -> differ.diff(
+                DocumentDiffer.builder().build().fingerprint(oldTable), differ.fingerprint(newTable)));
+    }
+
+    @Test
+    void testStoredFingerprint() throws IOException {
+        final DocumentDiffer differ = DocumentDiffer.builder().keyColumns("Keyed", 1).build();
+        final Spreadsheet oldSpreadsheet = new Spreadsheet(null, Arrays.asList(table("Sheet", "a", "b"),
+                keyedTable("1=a"), table("Dropped", "a")));
+        final Spreadsheet newSpreadsheet = new Spreadsheet(null, Arrays.asList(table("Sheet", "a", "b"),
+                keyedTable("1=b"), table("Created", "a")));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        differ.fingerprint(oldSpreadsheet).writeTo(outputStream);
+        final DocumentFingerprint storedFingerprint =
+                DocumentFingerprint.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+        final DocumentDiff diff = differ.diff(storedFingerprint, differ.fingerprint(newSpreadsheet));
+
+        assertEquals(Collections.singletonList("Created"), diff.getAddedTables());
+        assertEquals(Collections.singletonList("Dropped"), diff.getRemovedTables());
+        assertTrue(diff.getTableDiff("Sheet").map(TableDiff::isEmpty).orElse(false));
+        assertEquals(Collections.singletonList(new RowChange(RowChange.Type.MODIFIED, 1, 1)),
+                diff.getTableDiff("Keyed").map(TableDiff::getChanges).orElse(null));
+    }
+
+    private static Table table(String name, String... values) {
+        final Table.TableBuilder builder = Table.builder().name(name).numberOfColumns(1);
+        for (String value : values) {
+            builder.row(Collections.singletonList(new TextCell(value)));
+        }
+        return builder.build();
+    }
+
+    private static Table keyedTable(String... entries) {
+        final Table.TableBuilder builder = Table.builder().name("Keyed").numberOfColumns(2);
+        for (String entry : entries) {
+            final String[] keyValue = entry.split("=");
+            builder.row(Arrays.asList(new FloatCell(keyValue[0], Double.parseDouble(keyValue[0])),
+                    new TextCell(keyValue[1])));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.partition;
+
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.TableChunk;
+import com.github.morinb.fods.reader.content.cell.Cell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import com.github.morinb.fods.reader.exceptions.PartitionFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablePartitionerTest {
+
+    @Test
+    void testChunksHoldTheHeader(@TempDir Path directory) throws IOException {
+        final List<Path> chunks = TablePartitioner.builder().rowsPerPartition(1000).build()
+                .partition(salesTable(2500), directory);
+
+        assertEquals(3, chunks.size());
+        final TableChunk chunk = TableChunk.read(chunks.get(1));
+        assertEquals("Sales", chunk.getTableName());
+        assertEquals(2, chunk.getNumberOfColumns());
+        assertEquals(1, chunk.getPartitionIndex());
+        assertEquals(1002, chunk.getFirstRow());
+        assertEquals(1000, chunk.getRowCount());
+        final Table table = chunk.getTable();
+        assertEquals("Amount", table.getValueAt(1, 1));
+        assertEquals("1000", table.getValueAt(2, 1));
+        assertEquals("Sale1999", table.getValueAt(1001, 2));
+        assertEquals(1002, chunk.getSourceRow(2));
+        assertEquals(500, TableChunk.read(chunks.get(2)).getRowCount());
+    }
+
+    @Test
+    void testWorkersResultsAreMerged(@TempDir Path directory) throws Exception {
+        final List<Path> chunks = TablePartitioner.builder().rowsPerPartition(1000).build()
+                .partition(salesTable(2500), directory);
+
+        final double total = PartitionCoordinator.builder().workers(2).jvmOption("-Xmx64m").build()
+                .run(chunks, SumTask.class, Double.class, Double::sum);
+
+        assertEquals(2499 * 2500 / 2, total);
+    }
+
+    @Test
+    void testWorkerFailureIsReported(@TempDir Path directory) throws Exception {
+        final List<Path> chunks = TablePartitioner.builder().build().partition(salesTable(10), directory);
+
+        final PartitionFailedException failure = assertThrows(PartitionFailedException.class,
+                () -> PartitionCoordinator.builder().build().run(chunks, FailingTask.class, Double.class, Double::sum));
+        assertTrue(failure.getMessage().contains("no sales"));
+    }
+
+    @Test
+    void testMergeOnlyDeserializesAllowedClasses(@TempDir Path directory) throws Exception {
+        final Path list = writeResult(directory.resolve("list.result"), new ArrayList<>(Arrays.asList("a", "b")));
+        final Path date = writeResult(directory.resolve("date.result"), new Date(0));
+
+        assertEquals(Arrays.asList("a", "b", "a", "b"), PartitionCoordinator.merge(Arrays.asList(list, list),
+                ArrayList.class, (first, second) -> {
+                    first.addAll(second);
+                    return first;
+                }));
+        assertThrows(InvalidClassException.class,
+                () -> PartitionCoordinator.merge(Collections.singletonList(date), Double.class, Double::sum));
+        assertThrows(InvalidClassException.class,
+                () -> PartitionCoordinator.merge(Collections.singletonList(list), Double.class, Double::sum));
+        assertThrows(InvalidClassException.class, () -> PartitionCoordinator.merge(Collections.singletonList(date),
+                Serializable.class, (first, second) -> first));
+    }
+
+    private static Path writeResult(Path resultFile, Serializable result) throws IOException {
+        try (ObjectOutputStream output = new ObjectOutputStream(Files.newOutputStream(resultFile))) {
+            output.writeObject(result);
+        }
+        return resultFile;
+    }
+
+    private static Table salesTable(int rowCount) {
+        final Table.TableBuilder builder = Table.builder().name("Sales").numberOfColumns(2)
+                .row(Arrays.asList(new TextCell("Amount"), new TextCell("Label")));
+        for (int index = 0; index < rowCount; index++) {
+            builder.row(Arrays.asList(new FloatCell(String.valueOf(index), index), new TextCell("Sale" + index)));
+        }
+        return builder.build();
+    }
+
+    public static class SumTask implements PartitionTask<Double> {
+        @Override
+        public Double process(TableChunk chunk) {
+            double sum = 0;
+            for (List<Cell> row : chunk.getRows()) {
+                sum += ((FloatCell) row.get(0)).getValue();
+            }
+            return sum;
+        }
+    }
+
+    public static class FailingTask implements PartitionTask<Double> {
+        @Override
+        public Double process(TableChunk chunk) {
+            throw new IllegalStateException("no sales");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader.search;
+
+import com.github.morinb.fods.reader.content.Spreadsheet;
+import com.github.morinb.fods.reader.content.Table;
+import com.github.morinb.fods.reader.content.cell.EmptyCell;
+import com.github.morinb.fods.reader.content.cell.FloatCell;
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentIndexTest {
+
+    @Test
+    void testSearches() {
+        final Table invoices = Table.builder().name("Invoices").numberOfColumns(3)
+                .row(Arrays.asList(new TextCell("INV-2021/0042"), new FloatCell("42", 42),
+                        new TextCell("Caf\u00E9 cr\u00E8me, caf\u00E9 noir")))
+                .row(Arrays.asList(new TextCell("inv-2021/0043"), EmptyCell.EMPTY_CELL, new TextCell("Cafeteria")))
+                .build();
+        final Table customers = Table.builder().name("Customers").numberOfColumns(2)
+                .row(Arrays.asList(new TextCell("42"), new TextCell("INV-2021/0042")))
+                .build();
+        final DocumentIndex index = DocumentIndex.of(new Spreadsheet(null, Arrays.asList(invoices, customers)));
+
+        assertEquals(Arrays.asList("Invoices!1:1", "Customers!1:2"), names(index.findValue("INV-2021/0042")));
+        assertEquals(Arrays.asList("Invoices!1:1", "Invoices!2:1", "Customers!1:2"), names(index.findWord("inv")));
+        assertEquals(Collections.singletonList("Invoices!2:1"), names(index.findValueIgnoreCase("INV-2021/0043")));
+        assertEquals(Arrays.asList("Invoices!1:2", "Customers!1:1"), names(index.findValue("42")));
+        assertEquals(Collections.singletonList("Invoices!1:3"), names(index.findWord("CAFE")));
+        assertEquals(Arrays.asList("Invoices!1:3", "Invoices!2:3"), names(index.findWordPrefix("caf")));
+        assertEquals(Arrays.asList("Invoices!1:1", "Invoices!2:1", "Customers!1:2"),
+                names(index.findWordPrefix("004")));
+        assertTrue(index.findWord("missing").isEmpty());
+        assertTrue(index.findWordPrefix("zz").isEmpty());
+        assertEquals("Caf\u00E9 cr\u00E8me, caf\u00E9 noir",
+                index.findWord("creme").get(0).getCell().getText());
+    }
+
+    @Test
+    void testWordPrefixMergesTheWordsInDocumentOrder() {
+        final Table.TableBuilder builder = Table.builder().name("Words").numberOfColumns(2);
+        for (int row = 0; row < 20; row++) {
+            // five words spread over the rows, some cells holding two of them
+            builder.row(Arrays.asList(new TextCell("w" + row % 5 + " x"),
+                    new TextCell("w" + (row + 2) % 5 + " w" + row % 3)));
+        }
+        final DocumentIndex index = DocumentIndex.of(new Spreadsheet(null, Collections.singletonList(builder.build())));
+
+        final List<String> expected = new ArrayList<>();
+        for (int row = 1; row <= 20; row++) {
+            expected.add("Words!" + row + ":1");
+            expected.add("Words!" + row + ":2");
+        }
+        assertEquals(expected, names(index.findWordPrefix("w")));
+        assertEquals(20, index.findWordPrefix("x").size());
+    }
+
+    private static List<String> names(List<CellLocation> locations) {
+        return locations.stream()
+                .map(location -> location.getTableName() + "!" + location.getRow() + ":" + location.getColumn())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 baptiste
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.morinb.fods.reader;
+
+import com.github.morinb.fods.reader.content.cell.TextCell;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlowRowPublisherTest {
+
+    @Test
+    void testRowsFollowTheDemand(@TempDir Path directory) throws Exception {
+        final Path file = directory.resolve("TwoSheets.fods");
+        try (InputStream inputStream = getClass().getResourceAsStream("/fods/simple/TwoSheets.fods")) {
+            Files.copy(inputStream, file);
+        }
+        final Flow.Publisher<Row> publisher = new FlowRowPublisher(OfficeDocumentReader.builder().build()
+                .publish(file));
+
+        final CollectingSubscriber partial = new CollectingSubscriber();
+        publisher.subscribe(partial);
+        partial.subscription.request(2);
+        while (partial.rows.size() < 2) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(2, partial.rows.size());
+        assertEquals(new TextCell("Sp1A1"), partial.rows.get(0).getCells().get(0));
+        partial.subscription.cancel();
+        assertFalse(partial.terminated.await(100, TimeUnit.MILLISECONDS));
+
+        final CollectingSubscriber all = new CollectingSubscriber();
+        publisher.subscribe(all);
+        all.subscription.request(Long.MAX_VALUE);
+        assertTrue(all.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(all.completed);
+        assertEquals(1, all.rows.get(all.rows.size() - 1).getTableIndex());
+
+        assertThrows(NullPointerException.class, () -> publisher.subscribe(null));
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<Row> {
+        private final List<Row> rows = new CopyOnWriteArrayList<>();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Row row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+    }
+}